@@ -0,0 +1,70 @@
+package ru.hse.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.facade.AnalyticsReport;
+import ru.hse.bank.model.CategoryType;
+
+/**
+ * Benchmarks the AnalyticsFacade reductions over the whole operation history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnalyticsFacadeBenchmark {
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int operations;
+
+  private BenchmarkData data;
+  private LocalDateTime start;
+  private LocalDateTime end;
+
+  /**
+   * Populates the facades and selects a period covering every operation.
+   */
+  @Setup
+  public void setUp() {
+    data = BenchmarkData.populate(operations);
+    start = BenchmarkData.FIRST_DATE.minusDays(1);
+    end = BenchmarkData.dateOf(operations).plusDays(1);
+  }
+
+  @Benchmark
+  public BigDecimal calculateBalanceDifference() {
+    return data.analyticsFacade.calculateBalanceDifference(start, end);
+  }
+
+  @Benchmark
+  public Map<UUID, BigDecimal> groupOperationsByCategory() {
+    return data.analyticsFacade.groupOperationsByCategory(start, end);
+  }
+
+  @Benchmark
+  public Map<CategoryType, BigDecimal> groupOperationsByType() {
+    return data.analyticsFacade.groupOperationsByType(start, end);
+  }
+
+  @Benchmark
+  public AnalyticsReport buildReport() {
+    return data.analyticsFacade.buildReport(start, end);
+  }
+}
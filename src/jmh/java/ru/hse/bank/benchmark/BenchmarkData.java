@@ -0,0 +1,118 @@
+package ru.hse.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import ru.hse.bank.facade.AnalyticsFacade;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Populated set of facades shared by the benchmarks.
+ * Operations are dated one minute apart starting at {@link #FIRST_DATE},
+ * so period queries select a predictable number of operations.
+ */
+final class BenchmarkData {
+  static final LocalDateTime FIRST_DATE = LocalDateTime.of(2020, 1, 1, 0, 0);
+  static final int ACCOUNTS = 1_000;
+  static final int CATEGORIES = 50;
+
+  final SyntheticDomainFactory domainFactory = new SyntheticDomainFactory();
+  final BankAccountFacade bankAccountFacade;
+  final CategoryFacade categoryFacade;
+  final OperationFacade operationFacade;
+  final AnalyticsFacade analyticsFacade;
+  final List<UUID> accountIds = new ArrayList<>();
+  final List<UUID> categoryIds = new ArrayList<>();
+  final List<CategoryType> categoryTypes = new ArrayList<>();
+  private final Random random = new Random(42);
+
+  private BenchmarkData(final BankAccountFacade bankAccountFacadeParam) {
+    this.bankAccountFacade = bankAccountFacadeParam;
+    this.categoryFacade = new CategoryFacade(domainFactory);
+    this.operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+    this.analyticsFacade = new AnalyticsFacade(operationFacade);
+  }
+
+  /**
+   * Creates facades with accounts, categories and the given number of operations.
+   *
+   * @param operations the number of operations to create
+   * @return populated data
+   */
+  static BenchmarkData populate(final int operations) {
+    BenchmarkData data = empty();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      data.accountIds.add(data.bankAccountFacade
+          .createAccount("Счет " + i, new BigDecimal("1000000000.00")).getId());
+    }
+    for (int i = 0; i < CATEGORIES; i++) {
+      CategoryType type = i % 5 == 0 ? CategoryType.INCOME : CategoryType.EXPENSE;
+      data.categoryIds.add(data.categoryFacade.createCategory("Категория " + i, type).getId());
+      data.categoryTypes.add(type);
+    }
+    for (int i = 0; i < operations; i++) {
+      data.createRandomOperation();
+    }
+    return data;
+  }
+
+  /**
+   * Creates facades without any entities.
+   *
+   * @return empty data
+   */
+  static BenchmarkData empty() {
+    return new BenchmarkData(new BankAccountFacade(new DomainFactory()));
+  }
+
+  /**
+   * Creates an operation with a random account, category and amount.
+   *
+   * @return the created operation
+   */
+  Operation createRandomOperation() {
+    int category = random.nextInt(categoryIds.size());
+    return operationFacade.createOperation(
+        categoryTypes.get(category),
+        accountIds.get(random.nextInt(accountIds.size())),
+        BigDecimal.valueOf(1 + random.nextInt(100_000), 2),
+        "Операция",
+        categoryIds.get(category));
+  }
+
+  /**
+   * Returns the date of the n-th created operation.
+   *
+   * @param index the zero-based index of the operation
+   * @return the operation date
+   */
+  static LocalDateTime dateOf(final long index) {
+    return FIRST_DATE.plusMinutes(index);
+  }
+
+  /**
+   * Domain factory that dates operations one minute apart instead of using the clock.
+   */
+  static final class SyntheticDomainFactory extends DomainFactory {
+    private long created;
+
+    @Override
+    public Operation createOperation(final CategoryType type, final UUID bankAccountId,
+                                     final BigDecimal amount, final String description,
+                                     final UUID categoryId) {
+      Operation operation = super.createOperation(type, bankAccountId, amount,
+          description, categoryId);
+      operation.setDate(dateOf(created++));
+      return operation;
+    }
+  }
+}
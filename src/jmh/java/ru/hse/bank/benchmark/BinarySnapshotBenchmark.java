@@ -0,0 +1,107 @@
+package ru.hse.bank.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.dataimport.BinaryDataImporter;
+import ru.hse.bank.dataimport.ImportStatistics;
+import ru.hse.bank.export.BinaryStreamingDataVisitor;
+import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+
+/**
+ * Benchmarks binary snapshot export and restore; compare with {@link JsonExportImportBenchmark}.
+ * {@code openOperationSnapshot} measures attaching a memory-mapped operation snapshot
+ * of the same data instead of loading it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BinarySnapshotBenchmark {
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int operations;
+
+  private DataExporter exporter;
+  private Path exportFile;
+  private Path importFile;
+  private Path operationSnapshotFile;
+  private BinaryDataImporter importer;
+
+  /**
+   * Populates the facades and writes the file read by the restore benchmark.
+   *
+   * @throws IOException if the temporary files cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    BenchmarkData data = BenchmarkData.populate(operations);
+    exporter = new DataExporter(data.bankAccountFacade, data.categoryFacade,
+        data.operationFacade);
+    exportFile = Files.createTempFile("hse-bank-export", ".bin");
+    importFile = Files.createTempFile("hse-bank-import", ".bin");
+    exporter.exportData(importFile, new BinaryStreamingDataVisitor());
+    operationSnapshotFile = Files.createTempFile("hse-bank-import", ".ops");
+    exporter.exportOperationSnapshot(operationSnapshotFile);
+  }
+
+  /**
+   * Creates empty facades for every restore so that each one starts from the same state.
+   */
+  @Setup(Level.Invocation)
+  public void prepareImporter() {
+    DomainFactory domainFactory = new DomainFactory();
+    BankAccountFacade bankAccountFacade = new BankAccountFacade(domainFactory);
+    importer = new BinaryDataImporter(bankAccountFacade, new CategoryFacade(domainFactory),
+        new OperationFacade(domainFactory, bankAccountFacade));
+  }
+
+  /**
+   * Deletes the temporary files.
+   *
+   * @throws IOException if a file cannot be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(exportFile);
+    Files.deleteIfExists(importFile);
+    Files.deleteIfExists(operationSnapshotFile);
+  }
+
+  @Benchmark
+  public Path exportBinary() throws IOException {
+    exporter.exportData(exportFile, new BinaryStreamingDataVisitor());
+    return exportFile;
+  }
+
+  @Benchmark
+  public ImportStatistics restoreBinary() throws IOException {
+    return importer.restoreData(importFile);
+  }
+
+  @Benchmark
+  public ImportStatistics openOperationSnapshot() throws IOException {
+    return importer.openSnapshot(operationSnapshotFile);
+  }
+}
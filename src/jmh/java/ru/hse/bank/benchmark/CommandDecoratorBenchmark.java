@@ -0,0 +1,70 @@
+package ru.hse.bank.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.command.Command;
+import ru.hse.bank.command.CommandDecorator;
+import ru.hse.bank.command.CommandMetrics;
+
+/**
+ * Benchmarks the overhead of the timing decorator over a command that does almost nothing,
+ * with the metrics enabled and disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CommandDecoratorBenchmark {
+  private Command<Long> command;
+  private Command<Long> timedCommand;
+  private Command<Long> disabledCommand;
+
+  /**
+   * Creates the undecorated command and its decorators over separate metrics.
+   */
+  @Setup
+  public void setUp() {
+    command = new CountingCommand();
+    timedCommand = CommandDecorator.timing(new CommandMetrics()).decorate(command);
+    CommandMetrics disabledMetrics = new CommandMetrics();
+    disabledMetrics.setEnabled(false);
+    disabledCommand = CommandDecorator.timing(disabledMetrics).decorate(command);
+  }
+
+  @Benchmark
+  public Long undecorated() {
+    return command.execute();
+  }
+
+  @Benchmark
+  public Long timed() {
+    return timedCommand.execute();
+  }
+
+  @Benchmark
+  public Long timedDisabled() {
+    return disabledCommand.execute();
+  }
+
+  private static final class CountingCommand implements Command<Long> {
+    private long executions;
+
+    @Override
+    public Long execute() {
+      return ++executions;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package ru.hse.bank.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.dataimport.CsvDataImporter;
+import ru.hse.bank.dataimport.ImportStatistics;
+import ru.hse.bank.export.CsvStreamingDataVisitor;
+import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+
+/**
+ * Benchmarks CSV export and restore; compare with {@link JsonExportImportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CsvExportImportBenchmark {
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int operations;
+
+  private DataExporter exporter;
+  private Path exportFile;
+  private Path importFile;
+  private CsvDataImporter importer;
+
+  /**
+   * Populates the facades and writes the file read by the restore benchmark.
+   *
+   * @throws IOException if the temporary files cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    BenchmarkData data = BenchmarkData.populate(operations);
+    exporter = new DataExporter(data.bankAccountFacade, data.categoryFacade,
+        data.operationFacade);
+    exportFile = Files.createTempFile("hse-bank-export", ".csv");
+    importFile = Files.createTempFile("hse-bank-import", ".csv");
+    exporter.exportData(importFile, new CsvStreamingDataVisitor());
+  }
+
+  /**
+   * Creates empty facades for every restore so that each one starts from the same state.
+   */
+  @Setup(Level.Invocation)
+  public void prepareImporter() {
+    DomainFactory domainFactory = new DomainFactory();
+    BankAccountFacade bankAccountFacade = new BankAccountFacade(domainFactory);
+    importer = new CsvDataImporter(bankAccountFacade, new CategoryFacade(domainFactory),
+        new OperationFacade(domainFactory, bankAccountFacade));
+  }
+
+  /**
+   * Deletes the temporary files.
+   *
+   * @throws IOException if a file cannot be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(exportFile);
+    Files.deleteIfExists(importFile);
+  }
+
+  @Benchmark
+  public Path exportCsv() throws IOException {
+    exporter.exportData(exportFile, new CsvStreamingDataVisitor());
+    return exportFile;
+  }
+
+  @Benchmark
+  public ImportStatistics restoreCsv() throws IOException {
+    return importer.restoreData(importFile);
+  }
+}
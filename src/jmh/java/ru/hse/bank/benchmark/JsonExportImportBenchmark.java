@@ -0,0 +1,191 @@
+package ru.hse.bank.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.config.JacksonConfig;
+import ru.hse.bank.dataimport.ImportStatistics;
+import ru.hse.bank.dataimport.JsonDataImporter;
+import ru.hse.bank.export.Compression;
+import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.export.ExportManifest;
+import ru.hse.bank.export.JsonDataVisitor;
+import ru.hse.bank.export.JsonStreamingDataVisitor;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Benchmarks JSON export through DataExporter and JSON import through JsonDataImporter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class JsonExportImportBenchmark {
+  private static final int PARTITIONS = Runtime.getRuntime().availableProcessors();
+
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int operations;
+
+  private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+  private BenchmarkData data;
+  private DataExporter exporter;
+  private Path exportFile;
+  private Path importFile;
+  private Path gzipImportFile;
+  private Path exportDirectory;
+  private Path importManifest;
+  private JsonDataImporter importer;
+
+  /**
+   * Populates the facades and writes the file read by the import benchmark.
+   *
+   * @throws IOException if the temporary files cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    data = BenchmarkData.populate(operations);
+    exporter = new DataExporter(data.bankAccountFacade, data.categoryFacade,
+        data.operationFacade);
+    exportFile = Files.createTempFile("hse-bank-export", ".json");
+    importFile = Files.createTempFile("hse-bank-import", ".json");
+    exporter.exportData(importFile, new JsonDataVisitor(objectMapper));
+    gzipImportFile = Files.createTempFile("hse-bank-import", ".json.gz");
+    exporter.exportData(gzipImportFile, new JsonStreamingDataVisitor(objectMapper));
+    exportDirectory = Files.createTempDirectory("hse-bank-export");
+    Path importDirectory = Files.createTempDirectory("hse-bank-import");
+    exporter.exportPartitioned(importDirectory, () -> new JsonStreamingDataVisitor(objectMapper),
+        "json", PARTITIONS);
+    importManifest = importDirectory.resolve(ExportManifest.FILE_NAME);
+  }
+
+  /**
+   * Creates empty facades for every import so that each one starts from the same state.
+   */
+  @Setup(Level.Invocation)
+  public void prepareImporter() {
+    DomainFactory domainFactory = new DomainFactory();
+    BankAccountFacade bankAccountFacade = new ImportedBalanceAccountFacade(domainFactory);
+    importer = new JsonDataImporter(objectMapper, bankAccountFacade,
+        new CategoryFacade(domainFactory), new OperationFacade(domainFactory, bankAccountFacade));
+  }
+
+  /**
+   * Deletes the temporary files.
+   *
+   * @throws IOException if a file cannot be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(exportFile);
+    Files.deleteIfExists(importFile);
+    Files.deleteIfExists(gzipImportFile);
+    deleteDirectory(exportDirectory);
+    deleteDirectory(importManifest.getParent());
+  }
+
+  @Benchmark
+  public Path exportJson() throws IOException {
+    exporter.exportData(exportFile, new JsonDataVisitor(objectMapper));
+    return exportFile;
+  }
+
+  @Benchmark
+  public Path exportJsonStreaming() throws IOException {
+    exporter.exportData(exportFile, new JsonStreamingDataVisitor(objectMapper));
+    return exportFile;
+  }
+
+  @Benchmark
+  public Path exportJsonStreamingGzip() throws IOException {
+    exporter.exportData(exportFile, new JsonStreamingDataVisitor(objectMapper), Compression.GZIP);
+    return exportFile;
+  }
+
+  @Benchmark
+  public ExportManifest exportJsonPartitioned() throws IOException {
+    return exporter.exportPartitioned(exportDirectory,
+        () -> new JsonStreamingDataVisitor(objectMapper), "json", PARTITIONS);
+  }
+
+  @Benchmark
+  public JsonDataImporter importJson() throws IOException {
+    importer.importData(importFile);
+    return importer;
+  }
+
+  @Benchmark
+  public JsonDataImporter importJsonStreaming() throws IOException {
+    importer.importDataStreaming(importFile);
+    return importer;
+  }
+
+  @Benchmark
+  public ImportStatistics importJsonPipelined() throws IOException {
+    return importer.importDataPipelined(importFile, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Benchmark
+  public ImportStatistics restoreJson() throws IOException {
+    return importer.restoreData(importFile);
+  }
+
+  @Benchmark
+  public ImportStatistics restoreJsonGzip() throws IOException {
+    return importer.restoreData(gzipImportFile);
+  }
+
+  @Benchmark
+  public ImportStatistics restoreJsonPartitioned() throws IOException {
+    return importer.restorePartitioned(importManifest, PARTITIONS);
+  }
+
+  private static void deleteDirectory(final Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Account facade that skips balance checks.
+   * importData assigns new IDs to imported accounts while imported operations keep
+   * referring to the original ones, so balance updates would fail with "account not found".
+   */
+  private static final class ImportedBalanceAccountFacade extends BankAccountFacade {
+    ImportedBalanceAccountFacade(final DomainFactory domainFactory) {
+      super(domainFactory);
+    }
+
+    @Override
+    public void updateBalance(final UUID accountId, final Operation operation) {
+      // balances are taken from the imported snapshot
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package ru.hse.bank.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.model.Operation;
+
+/**
+ * Benchmarks operation creation and operation queries of OperationFacade.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OperationFacadeBenchmark {
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int operations;
+
+  private BenchmarkData data;
+  private LocalDateTime dayStart;
+  private LocalDateTime dayEnd;
+  private UUID accountId;
+
+  /**
+   * Populates the facades and picks a one-day window in the middle of the history.
+   */
+  @Setup
+  public void setUp() {
+    data = BenchmarkData.populate(operations);
+    dayStart = BenchmarkData.dateOf(operations / 2);
+    dayEnd = dayStart.plusDays(1);
+    accountId = data.accountIds.get(0);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public Operation createOperation() {
+    return data.createRandomOperation();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Operation> getOperationsByPeriodOneDay() {
+    return data.operationFacade.getOperationsByPeriod(dayStart, dayEnd);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Operation> getOperationsByAccount() {
+    return data.operationFacade.getOperationsByAccount(accountId);
+  }
+}
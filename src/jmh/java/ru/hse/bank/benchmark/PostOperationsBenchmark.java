@@ -0,0 +1,78 @@
+package ru.hse.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ru.hse.bank.command.operation.OperationRequest;
+import ru.hse.bank.command.operation.PostOperationsCommand;
+import ru.hse.bank.facade.PostingResult;
+
+/**
+ * Benchmarks posting operations one at a time against posting them in batches with
+ * PostOperationsCommand. Both post the same requests, spread over all accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostOperationsBenchmark {
+  private static final int BATCH = 1_000;
+
+  private BenchmarkData data;
+  private List<OperationRequest> requests;
+
+  /**
+   * Creates accounts and categories and the requests posted by every invocation. The
+   * facades are recreated for every iteration, so that the heap does not keep growing.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    data = BenchmarkData.populate(0);
+    Random random = new Random(42);
+    requests = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      int category = random.nextInt(data.categoryIds.size());
+      requests.add(new OperationRequest(
+          data.categoryTypes.get(category),
+          data.accountIds.get(random.nextInt(data.accountIds.size())),
+          BigDecimal.valueOf(1 + random.nextInt(100_000), 2),
+          "Операция",
+          data.categoryIds.get(category)));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void postOneByOne(final Blackhole blackhole) {
+    for (OperationRequest request : requests) {
+      blackhole.consume(data.operationFacade.createOperation(request.getType(),
+          request.getBankAccountId(), request.getAmount(), request.getDescription(),
+          request.getCategoryId()));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public List<PostingResult> postBatch() {
+    return new PostOperationsCommand(data.domainFactory, data.operationFacade, requests).execute();
+  }
+}
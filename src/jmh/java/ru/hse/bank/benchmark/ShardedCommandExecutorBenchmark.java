@@ -0,0 +1,115 @@
+package ru.hse.bank.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.hse.bank.command.CommandExecutor;
+import ru.hse.bank.command.ShardedCommandExecutor;
+import ru.hse.bank.command.operation.PostOperationCommand;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Stress benchmark of posting operations through the account-sharded executor against the
+ * virtual-thread executor, which orders commands per account by chaining futures. In the
+ * uniform workload the operations are spread over all accounts; in the hot workload nine
+ * of ten operations go to a single account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardedCommandExecutorBenchmark {
+  private static final int COMMANDS = 10_000;
+
+  @Param({"uniform", "hot"})
+  private String workload;
+
+  private BenchmarkData data;
+  private UUID[] accounts;
+  private ShardedCommandExecutor shardedExecutor;
+  private CommandExecutor virtualExecutor;
+
+  /**
+   * Creates accounts and categories, picks the account of every command and starts the
+   * executors. Everything is recreated for every iteration, so that the heap does not keep
+   * growing.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    data = BenchmarkData.populate(0);
+    Random random = new Random(42);
+    UUID hotAccount = data.accountIds.get(0);
+    accounts = new UUID[COMMANDS];
+    for (int i = 0; i < COMMANDS; i++) {
+      boolean hot = "hot".equals(workload) && random.nextInt(10) != 0;
+      accounts[i] = hot ? hotAccount : data.accountIds.get(random.nextInt(data.accountIds.size()));
+    }
+    shardedExecutor = new ShardedCommandExecutor();
+    virtualExecutor = new CommandExecutor();
+  }
+
+  /**
+   * Stops the executors.
+   */
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    shardedExecutor.close();
+    virtualExecutor.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMANDS)
+  public Operation sharded() {
+    List<CompletableFuture<Operation>> results = new ArrayList<>(COMMANDS);
+    for (UUID account : accounts) {
+      results.add(shardedExecutor.submit(command(account)));
+    }
+    return joinAll(results);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMANDS)
+  public Operation virtualThreads() {
+    List<CompletableFuture<Operation>> results = new ArrayList<>(COMMANDS);
+    for (UUID account : accounts) {
+      results.add(virtualExecutor.submit(command(account)));
+    }
+    return joinAll(results);
+  }
+
+  private PostOperationCommand command(final UUID account) {
+    return new PostOperationCommand(data.operationFacade, CategoryType.INCOME, account,
+        BigDecimal.ONE, "Операция", data.categoryIds.get(0));
+  }
+
+  private static Operation joinAll(final List<CompletableFuture<Operation>> results) {
+    Operation last = null;
+    for (CompletableFuture<Operation> result : results) {
+      last = result.join();
+    }
+    return last;
+  }
+}
@@ -0,0 +1,59 @@
+package ru.hse.bank.command;
+
+/**
+ * Wraps commands of any result type into decorators, such as {@link TimedCommand}.
+ * Decorators are composed with {@link #andThen}: the first decorator wraps the command
+ * itself and every next one wraps the result of the previous, so a timing decorator
+ * applied first measures the command alone and names its histogram after it.
+ */
+public interface CommandDecorator {
+  /**
+   * Decorator that returns commands unchanged.
+   */
+  CommandDecorator NONE = new CommandDecorator() {
+    @Override
+    public <T> Command<T> decorate(final Command<T> command) {
+      return command;
+    }
+  };
+
+  /**
+   * Wraps a command.
+   *
+   * @param command the command to wrap
+   * @param <T> the type of the result
+   * @return the decorated command
+   */
+  <T> Command<T> decorate(Command<T> command);
+
+  /**
+   * Returns a decorator that applies this decorator and then the given one.
+   *
+   * @param next the decorator wrapping the result of this one
+   * @return the composed decorator
+   */
+  default CommandDecorator andThen(final CommandDecorator next) {
+    CommandDecorator first = this;
+    return new CommandDecorator() {
+      @Override
+      public <T> Command<T> decorate(final Command<T> command) {
+        return next.decorate(first.decorate(command));
+      }
+    };
+  }
+
+  /**
+   * Returns a decorator that records the execution time of commands in the given metrics.
+   *
+   * @param metrics the metrics to record execution times into
+   * @return the timing decorator
+   */
+  static CommandDecorator timing(final CommandMetrics metrics) {
+    return new CommandDecorator() {
+      @Override
+      public <T> Command<T> decorate(final Command<T> command) {
+        return new TimedCommand<>(command, metrics);
+      }
+    };
+  }
+}
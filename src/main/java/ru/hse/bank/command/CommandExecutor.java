@@ -0,0 +1,125 @@
+package ru.hse.bank.command;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import ru.hse.bank.command.operation.OperationCommand;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Executes commands asynchronously, by default on virtual threads.
+ * Commands submitted for an account are executed one at a time, in the order of
+ * submission: each of them starts once the previous command of the account has completed,
+ * normally or not. Commands of different accounts and commands submitted without an account
+ * run in parallel. Only the last pending command of every account is remembered, so the
+ * state kept per account does not grow with the number of queued commands.
+ */
+public class CommandExecutor implements AutoCloseable {
+  private final ExecutorService executor;
+  private final ConcurrentMap<UUID, CompletableFuture<?>> lastCommands = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  /**
+   * Constructor for CommandExecutor that starts a virtual thread for every command.
+   */
+  public CommandExecutor() {
+    this(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  /**
+   * Constructor for CommandExecutor.
+   *
+   * @param executorParam the executor to run commands on; it is shut down by {@link #close}
+   */
+  public CommandExecutor(final ExecutorService executorParam) {
+    this.executor = executorParam;
+  }
+
+  /**
+   * Executes a command that is not ordered with any other command.
+   *
+   * @param command the command to execute
+   * @param <T> the type of the result
+   * @return the future completed with the result of the command
+   */
+  public <T> CompletableFuture<T> submit(final Command<T> command) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    if (closed) {
+      result.completeExceptionally(new RejectedExecutionException("Исполнитель команд закрыт"));
+      return result;
+    }
+    start(command, result);
+    return result.copy();
+  }
+
+  /**
+   * Executes a command after all commands previously submitted for the same account.
+   *
+   * @param bankAccountId the ID of the account the command touches
+   * @param command the command to execute
+   * @param <T> the type of the result
+   * @return the future completed with the result of the command
+   */
+  public <T> CompletableFuture<T> submit(final UUID bankAccountId, final Command<T> command) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    if (closed) {
+      result.completeExceptionally(new RejectedExecutionException("Исполнитель команд закрыт"));
+      return result;
+    }
+    CompletableFuture<?> previous = lastCommands.put(bankAccountId, result);
+    if (previous == null) {
+      start(command, result);
+    } else {
+      previous.whenComplete((value, failure) -> start(command, result));
+    }
+    result.whenComplete((value, failure) -> lastCommands.remove(bankAccountId, result));
+    return result.copy();
+  }
+
+  /**
+   * Executes an operation command after all commands previously submitted for its account.
+   *
+   * @param command the command to execute
+   * @return the future completed with the operation
+   */
+  public CompletableFuture<Operation> submit(final OperationCommand command) {
+    return submit(command.getBankAccountId(), command);
+  }
+
+  /**
+   * Stops accepting commands and waits for the submitted ones to complete, including the
+   * commands still waiting for the previous command of their account; the underlying
+   * executor is shut down only after the last command of every account has completed.
+   * Commands submitted after the executor is closed are completed with a
+   * {@link RejectedExecutionException}.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    while (!lastCommands.isEmpty()) {
+      CompletableFuture.allOf(lastCommands.values().toArray(CompletableFuture<?>[]::new))
+          .exceptionally(failure -> null)
+          .join();
+    }
+    executor.close();
+  }
+
+  private <T> void start(final Command<T> command, final CompletableFuture<T> result) {
+    try {
+      executor.execute(() -> {
+        try {
+          result.complete(command.execute());
+        } catch (Throwable failure) {
+          result.completeExceptionally(failure);
+        }
+      });
+    } catch (RejectedExecutionException exception) {
+      result.completeExceptionally(exception);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package ru.hse.bank.command;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency histograms of executed commands, one per command type.
+ * Recording does no I/O and takes no locks; the histograms are read with
+ * {@link #snapshot()} or printed with {@link #dump(PrintStream)}. Recording can be switched
+ * off with {@link #setEnabled} without removing the decorators that record.
+ */
+@Component
+public class CommandMetrics {
+  private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private volatile boolean enabled = true;
+
+  /**
+   * Returns whether execution times are recorded.
+   *
+   * @return true if execution times are recorded
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switches recording of execution times on or off.
+   *
+   * @param enabledParam true to record execution times
+   */
+  public void setEnabled(final boolean enabledParam) {
+    this.enabled = enabledParam;
+  }
+
+  /**
+   * Records the latency of a command.
+   *
+   * @param commandType the type of the command, such as the simple name of its class
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(final String commandType, final long nanos) {
+    histogram(commandType).record(nanos);
+  }
+
+  /**
+   * Returns the histogram of a command type, creating an empty one if there is none.
+   *
+   * @param commandType the type of the command
+   * @return the histogram
+   */
+  public LatencyHistogram histogram(final String commandType) {
+    LatencyHistogram histogram = histograms.get(commandType);
+    return histogram != null ? histogram
+        : histograms.computeIfAbsent(commandType, type -> new LatencyHistogram());
+  }
+
+  /**
+   * Returns snapshots of the histograms of all command types executed so far.
+   *
+   * @return map where key is the command type, value is the snapshot of its histogram,
+   *     ordered by command type
+   */
+  public Map<String, LatencySnapshot> snapshot() {
+    Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+    histograms.forEach((type, histogram) -> snapshots.put(type, histogram.snapshot()));
+    return snapshots;
+  }
+
+  /**
+   * Prints a table of the histograms of all command types, with latencies in microseconds.
+   *
+   * @param output the stream to print to
+   */
+  public void dump(final PrintStream output) {
+    Map<String, LatencySnapshot> snapshots = snapshot();
+    if (snapshots.isEmpty()) {
+      output.println("Команды еще не выполнялись");
+      return;
+    }
+    output.printf("%-32s %10s %12s %12s %12s %12s%n", "Команда", "Кол-во", "p50, мкс",
+        "p99, мкс", "p999, мкс", "max, мкс");
+    snapshots.forEach((type, latencies) -> output.printf(
+        "%-32s %10d %12.1f %12.1f %12.1f %12.1f%n", type, latencies.getCount(),
+        latencies.getP50() / 1_000.0, latencies.getP99() / 1_000.0,
+        latencies.getP999() / 1_000.0, latencies.getMax() / 1_000.0));
+  }
+}
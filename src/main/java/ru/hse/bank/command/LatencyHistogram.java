@@ -0,0 +1,89 @@
+package ru.hse.bank.command;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds.
+ * Values are counted in log-linear buckets: every power of two is split into
+ * {@link #SUB_BUCKETS} equal buckets, so a percentile is reported with a relative error
+ * below 1/{@link #SUB_BUCKETS} (about 3%) over the whole range of a long, in a fixed
+ * array of counters. Recording is an atomic increment of one counter and never blocks;
+ * percentiles are computed from the counters when a snapshot is taken, so a snapshot taken
+ * while values are recorded may miss some of them.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency in nanoseconds; negative values are recorded as 0
+   */
+  public void record(final long nanos) {
+    long value = Math.max(nanos, 0);
+    counts.incrementAndGet(bucketOf(value));
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the count, percentiles and maximum of the recorded latencies.
+   *
+   * @return the snapshot of the histogram
+   */
+  public LatencySnapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    long maxNanos = max.get();
+    return new LatencySnapshot(count, percentile(copy, count, 0.5, maxNanos),
+        percentile(copy, count, 0.99, maxNanos), percentile(copy, count, 0.999, maxNanos),
+        maxNanos);
+  }
+
+  /**
+   * Returns the highest value of the bucket holding the given fraction of the values,
+   * capped by the maximum.
+   */
+  private static long percentile(final long[] copy, final long count, final double fraction,
+                                 final long maxNanos) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(count * fraction));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += copy[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+
+  static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  static long highestValueOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,50 @@
+package ru.hse.bank.command;
+
+/**
+ * Snapshot of a {@link LatencyHistogram}. All latencies are in nanoseconds.
+ */
+public final class LatencySnapshot {
+  private final long count;
+  private final long p50;
+  private final long p99;
+  private final long p999;
+  private final long max;
+
+  /**
+   * Constructor for LatencySnapshot.
+   *
+   * @param countParam the number of recorded latencies
+   * @param p50Param the median latency
+   * @param p99Param the 99th percentile latency
+   * @param p999Param the 99.9th percentile latency
+   * @param maxParam the maximum latency
+   */
+  public LatencySnapshot(final long countParam, final long p50Param, final long p99Param,
+                         final long p999Param, final long maxParam) {
+    this.count = countParam;
+    this.p50 = p50Param;
+    this.p99 = p99Param;
+    this.p999 = p999Param;
+    this.max = maxParam;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getP50() {
+    return p50;
+  }
+
+  public long getP99() {
+    return p99;
+  }
+
+  public long getP999() {
+    return p999;
+  }
+
+  public long getMax() {
+    return max;
+  }
+}
@@ -0,0 +1,175 @@
+package ru.hse.bank.command;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+import ru.hse.bank.command.operation.OperationCommand;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Executes commands on a fixed set of shards, each owning the accounts that hash to it.
+ * Every shard has one platform thread consuming a lock-free queue, so the commands of an
+ * account are executed one at a time in the order of submission without any lock being
+ * taken by the executor, while shards run in parallel on different cores. A submitting
+ * thread only enqueues the command and wakes the shard thread if it is parked.
+ * The accounts are assigned to shards with {@link OperationFacade#partitionOf}, so a hot
+ * account occupies a single shard and never slows down the others beyond their share of
+ * the CPU. Dependent actions attached to a returned future without an executor run on the
+ * shard thread and delay the commands queued behind them.
+ */
+public class ShardedCommandExecutor implements AutoCloseable {
+  private final Shard[] shards;
+  private volatile boolean closed;
+
+  /**
+   * Constructor for ShardedCommandExecutor with one shard per available processor.
+   */
+  public ShardedCommandExecutor() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor for ShardedCommandExecutor.
+   *
+   * @param shardCount the number of shards
+   * @throws IllegalArgumentException if the number of shards is not positive
+   */
+  public ShardedCommandExecutor(final int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Количество шардов должно быть положительным");
+    }
+    shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard("command-shard-" + i);
+    }
+  }
+
+  /**
+   * Executes a command on the shard of an account, after all commands previously submitted
+   * for the accounts of that shard.
+   *
+   * @param bankAccountId the ID of the account the command touches
+   * @param command the command to execute
+   * @param <T> the type of the result
+   * @return the future completed with the result of the command
+   */
+  public <T> CompletableFuture<T> submit(final UUID bankAccountId, final Command<T> command) {
+    Task<T> task = new Task<>(command);
+    if (closed) {
+      task.reject();
+    } else {
+      shards[OperationFacade.partitionOf(bankAccountId, shards.length)].enqueue(task);
+    }
+    return task.result;
+  }
+
+  /**
+   * Executes an operation command on the shard of its account.
+   *
+   * @param command the command to execute
+   * @return the future completed with the operation
+   */
+  public CompletableFuture<Operation> submit(final OperationCommand command) {
+    return submit(command.getBankAccountId(), command);
+  }
+
+  /**
+   * Stops accepting commands and waits until the shards have executed the submitted ones.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Shard shard : shards) {
+      LockSupport.unpark(shard.thread);
+    }
+    boolean interrupted = false;
+    for (Shard shard : shards) {
+      while (shard.thread.isAlive()) {
+        try {
+          shard.thread.join();
+        } catch (InterruptedException exception) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Queue of commands consumed by a single thread.
+   */
+  private final class Shard implements Runnable {
+    private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean parked;
+
+    Shard(final String name) {
+      thread = new Thread(this, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    void enqueue(final Task<?> task) {
+      queue.offer(task);
+      if (closed && queue.remove(task)) {
+        task.reject();
+      } else if (parked) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Task<?> task = queue.poll();
+        if (task != null) {
+          task.run();
+        } else if (closed) {
+          // a producer that offered before reading closed as false has not woken this
+          // thread, so its task is taken now; later producers see closed and remove theirs
+          for (Task<?> remaining = queue.poll(); remaining != null; remaining = queue.poll()) {
+            remaining.run();
+          }
+          return;
+        } else {
+          parked = true;
+          if (queue.isEmpty() && !closed) {
+            LockSupport.park(this);
+          }
+          parked = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * Command with the future of its result.
+   */
+  private static final class Task<T> {
+    private final Command<T> command;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    Task(final Command<T> commandParam) {
+      this.command = commandParam;
+    }
+
+    void run() {
+      try {
+        result.complete(command.execute());
+      } catch (Throwable failure) {
+        result.completeExceptionally(failure);
+      }
+    }
+
+    void reject() {
+      result.completeExceptionally(new RejectedExecutionException("Исполнитель команд закрыт"));
+    }
+  }
+}
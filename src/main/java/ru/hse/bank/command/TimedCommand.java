@@ -1,33 +1,59 @@
 package ru.hse.bank.command;
 
 /**
- * Wrapper for a command that measures the execution time.
- * This class implements the Command interface and provides a constructor for
- * initializing the command with the actual command to execute.
+ * Decorator for any command that records its execution time in {@link CommandMetrics}.
+ * The histogram of the command type is looked up once, when the decorator is created, so
+ * an execution costs two {@link System#nanoTime()} calls and an atomic increment. While
+ * the metrics are disabled, an execution costs a single read of a volatile flag.
+ *
+ * @param <T> the type of the result
  */
 public class TimedCommand<T> implements Command<T> {
   private final Command<T> command;
+  private final CommandMetrics metrics;
+  private final LatencyHistogram histogram;
+
+  /**
+   * Constructor for TimedCommand. The execution time is recorded under the simple name of
+   * the class of the command.
+   *
+   * @param commandParam the command to execute and measure
+   * @param metricsParam the metrics to record the execution time into
+   */
+  public TimedCommand(final Command<T> commandParam, final CommandMetrics metricsParam) {
+    this(commandParam, metricsParam, commandParam.getClass().getSimpleName());
+  }
 
   /**
    * Constructor for TimedCommand.
    *
    * @param commandParam the command to execute and measure
+   * @param metricsParam the metrics to record the execution time into
+   * @param commandTypeParam the command type to record the execution time under
    */
-  public TimedCommand(final Command<T> commandParam) {
+  public TimedCommand(final Command<T> commandParam, final CommandMetrics metricsParam,
+                      final String commandTypeParam) {
     this.command = commandParam;
+    this.metrics = metricsParam;
+    this.histogram = metricsParam.histogram(commandTypeParam);
   }
 
   /**
-   * Executes the command and measures the execution time.
+   * Executes the command and records the execution time, including the time of a failed
+   * execution, into the histogram of the command type.
    *
    * @return the result of the command execution
    */
   @Override
   public T execute() {
-    long startTime = System.currentTimeMillis();
-    T result = command.execute();
-    long endTime = System.currentTimeMillis();
-    System.out.println("Выполнение команды заняло: " + (endTime - startTime) + " мс");
-    return result;
+    if (!metrics.isEnabled()) {
+      return command.execute();
+    }
+    long startTime = System.nanoTime();
+    try {
+      return command.execute();
+    } finally {
+      histogram.record(System.nanoTime() - startTime);
+    }
   }
-} 
\ No newline at end of file
+}
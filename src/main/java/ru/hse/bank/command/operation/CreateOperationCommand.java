@@ -44,6 +44,16 @@ public class CreateOperationCommand implements OperationCommand {
     this.categoryId = categoryIdParam;
   }
 
+  /**
+   * Returns the ID of the bank account the operation belongs to.
+   *
+   * @return the ID of the bank account
+   */
+  @Override
+  public UUID getBankAccountId() {
+    return bankAccountId;
+  }
+
   /**
    * Executes the command and creates an operation.
    *
@@ -1,5 +1,7 @@
 package ru.hse.bank.command.operation;
 
+import java.util.UUID;
+
 import ru.hse.bank.command.Command;
 import ru.hse.bank.model.Operation;
 
@@ -8,4 +10,10 @@ import ru.hse.bank.model.Operation;
  * This interface extends the Command interface and specifies the type of the operation.
  */
 public interface OperationCommand extends Command<Operation> {
+  /**
+   * Returns the ID of the bank account the operation belongs to.
+   *
+   * @return the ID of the bank account
+   */
+  UUID getBankAccountId();
 } 
\ No newline at end of file
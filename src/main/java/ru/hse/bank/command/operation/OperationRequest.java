@@ -0,0 +1,56 @@
+package ru.hse.bank.command.operation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import ru.hse.bank.model.CategoryType;
+
+/**
+ * Request to create one operation of a {@link PostOperationsCommand}.
+ */
+public final class OperationRequest {
+  private final CategoryType type;
+  private final UUID bankAccountId;
+  private final BigDecimal amount;
+  private final String description;
+  private final UUID categoryId;
+
+  /**
+   * Constructor for OperationRequest.
+   *
+   * @param typeParam the type of the operation
+   * @param bankAccountIdParam the ID of the bank account
+   * @param amountParam the amount of the operation
+   * @param descriptionParam the description of the operation
+   * @param categoryIdParam the ID of the category
+   */
+  public OperationRequest(final CategoryType typeParam, final UUID bankAccountIdParam,
+                          final BigDecimal amountParam, final String descriptionParam,
+                          final UUID categoryIdParam) {
+    this.type = typeParam;
+    this.bankAccountId = bankAccountIdParam;
+    this.amount = amountParam;
+    this.description = descriptionParam;
+    this.categoryId = categoryIdParam;
+  }
+
+  public CategoryType getType() {
+    return type;
+  }
+
+  public UUID getBankAccountId() {
+    return bankAccountId;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public UUID getCategoryId() {
+    return categoryId;
+  }
+}
@@ -0,0 +1,68 @@
+package ru.hse.bank.command.operation;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Represents a command that creates an operation and posts it to the balance of its account
+ * through the operation facade. Unlike {@link CreateOperationCommand}, which only creates
+ * the operation, executing this command changes the state of the bank.
+ */
+public class PostOperationCommand implements OperationCommand {
+  private final OperationFacade operationFacade;
+  private final CategoryType type;
+  private final UUID bankAccountId;
+  private final BigDecimal amount;
+  private final String description;
+  private final UUID categoryId;
+
+  /**
+   * Constructs a new PostOperationCommand.
+   *
+   * @param operationFacadeParam the operation facade to post the operation to
+   * @param typeParam the type of the operation
+   * @param bankAccountIdParam the ID of the bank account
+   * @param amountParam the amount of the operation
+   * @param descriptionParam the description of the operation
+   * @param categoryIdParam the ID of the category
+   */
+  public PostOperationCommand(final OperationFacade operationFacadeParam,
+                              final CategoryType typeParam,
+                              final UUID bankAccountIdParam,
+                              final BigDecimal amountParam,
+                              final String descriptionParam,
+                              final UUID categoryIdParam) {
+    this.operationFacade = operationFacadeParam;
+    this.type = typeParam;
+    this.bankAccountId = bankAccountIdParam;
+    this.amount = amountParam;
+    this.description = descriptionParam;
+    this.categoryId = categoryIdParam;
+  }
+
+  /**
+   * Returns the ID of the bank account the operation belongs to.
+   *
+   * @return the ID of the bank account
+   */
+  @Override
+  public UUID getBankAccountId() {
+    return bankAccountId;
+  }
+
+  /**
+   * Executes the command and posts the operation.
+   *
+   * @return the posted operation
+   * @throws IllegalArgumentException if the amount is not positive or the account is not found
+   * @throws IllegalStateException if the operation would result in a negative balance
+   */
+  @Override
+  public Operation execute() {
+    return operationFacade.createOperation(type, bankAccountId, amount, description, categoryId);
+  }
+}
@@ -0,0 +1,71 @@
+package ru.hse.bank.command.operation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import ru.hse.bank.command.Command;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.facade.PostingResult;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Represents a command that creates and posts a batch of operations in one call.
+ * All operations are created by the {@link DomainFactory} before anything is posted; the
+ * valid ones are posted with {@link OperationFacade#postOperations}, which updates every
+ * account once. An invalid request or a rejected operation does not affect the others.
+ */
+public class PostOperationsCommand implements Command<List<PostingResult>> {
+  private final DomainFactory domainFactory;
+  private final OperationFacade operationFacade;
+  private final List<OperationRequest> requests;
+
+  /**
+   * Constructs a new PostOperationsCommand.
+   *
+   * @param domainFactoryParam the domain factory to use for creating the operations
+   * @param operationFacadeParam the operation facade to post the operations to
+   * @param requestsParam the requests of the operations to create
+   */
+  public PostOperationsCommand(final DomainFactory domainFactoryParam,
+                               final OperationFacade operationFacadeParam,
+                               final List<OperationRequest> requestsParam) {
+    this.domainFactory = domainFactoryParam;
+    this.operationFacade = operationFacadeParam;
+    this.requests = List.copyOf(requestsParam);
+  }
+
+  /**
+   * Executes the command and posts the operations.
+   *
+   * @return the result for every request, in the order of the requests
+   */
+  @Override
+  public List<PostingResult> execute() {
+    String[] errors = new String[requests.size()];
+    boolean invalid = false;
+    List<Operation> valid = new ArrayList<>(errors.length);
+    for (int i = 0; i < errors.length; i++) {
+      OperationRequest request = requests.get(i);
+      try {
+        valid.add(domainFactory.createOperation(request.getType(), request.getBankAccountId(),
+            request.getAmount(), request.getDescription(), request.getCategoryId()));
+      } catch (IllegalArgumentException exception) {
+        errors[i] = exception.getMessage();
+        invalid = true;
+      }
+    }
+
+    List<PostingResult> posted = operationFacade.postOperations(valid);
+    if (!invalid) {
+      return posted;
+    }
+    List<PostingResult> results = new ArrayList<>(errors.length);
+    Iterator<PostingResult> postedResults = posted.iterator();
+    for (String error : errors) {
+      results.add(error == null ? postedResults.next() : PostingResult.rejected(null, error));
+    }
+    return results;
+  }
+}
@@ -4,9 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import ru.hse.bank.command.CommandMetrics;
 import ru.hse.bank.console.ConsoleApplication;
+import ru.hse.bank.dataimport.BinaryDataImporter;
+import ru.hse.bank.dataimport.CsvDataImporter;
 import ru.hse.bank.dataimport.JsonDataImporter;
+import ru.hse.bank.dataimport.YamlDataImporter;
 import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.export.DeltaExporter;
 import ru.hse.bank.facade.AnalyticsFacade;
 import ru.hse.bank.facade.BankAccountFacade;
 import ru.hse.bank.facade.CategoryFacade;
@@ -27,9 +32,14 @@ public class ApplicationConfig {
      * @param operationFacade the operation facade
      * @param analyticsFacade the analytics facade
      * @param dataExporter the data exporter
+     * @param deltaExporter the incremental exporter
      * @param jsonDataImporter the JSON data importer
+     * @param csvDataImporter the CSV data importer
+     * @param yamlDataImporter the YAML data importer
+     * @param binaryDataImporter the binary snapshot importer
      * @param domainFactory the domain factory
      * @param objectMapper the Jackson object mapper
+     * @param commandMetrics the latency histograms of executed commands
      * @return the application components
      */
     @Bean
@@ -39,9 +49,14 @@ public class ApplicationConfig {
             OperationFacade operationFacade,
             AnalyticsFacade analyticsFacade,
             DataExporter dataExporter,
+            DeltaExporter deltaExporter,
             JsonDataImporter jsonDataImporter,
+            CsvDataImporter csvDataImporter,
+            YamlDataImporter yamlDataImporter,
+            BinaryDataImporter binaryDataImporter,
             DomainFactory domainFactory,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            CommandMetrics commandMetrics) {
         
         return new ConsoleApplication.ApplicationComponents(
                 bankAccountFacade,
@@ -49,9 +64,14 @@ public class ApplicationConfig {
                 operationFacade,
                 analyticsFacade,
                 dataExporter,
+                deltaExporter,
                 jsonDataImporter,
+                csvDataImporter,
+                yamlDataImporter,
+                binaryDataImporter,
                 domainFactory,
-                objectMapper
+                objectMapper,
+                commandMetrics
         );
     }
 }
@@ -0,0 +1,62 @@
+package ru.hse.bank.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.hse.bank.export.ChangeTracker;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.journal.FileChangeJournal;
+
+/**
+ * Configuration of the change journal.
+ * The journal is replayed into the facades when the application starts, before the console
+ * accepts commands, and records every later change. Changes pass through a
+ * {@link ChangeTracker} on their way to the journal, so that they can be exported
+ * incrementally; the tracker also sees the replayed changes, so a delta can be made since
+ * an export of a previous run.
+ */
+@Configuration
+public class JournalConfig {
+
+  /**
+   * Opens the journal.
+   *
+   * @param journalPath the path to the journal file, set by the {@code hse-bank.journal.path}
+   *     property
+   * @return the opened journal, which is replayed by {@link #changeTracker}
+   * @throws IOException if the journal cannot be read
+   */
+  @Bean(destroyMethod = "close")
+  public FileChangeJournal changeJournal(
+      @Value("${hse-bank.journal.path:hse-bank.journal}") final String journalPath)
+      throws IOException {
+    return FileChangeJournal.open(Path.of(journalPath));
+  }
+
+  /**
+   * Puts a change tracker in front of the journal and replays the journal through it,
+   * restoring the state recorded in the journal.
+   *
+   * @param changeJournal the journal the tracker passes changes on to
+   * @param bankAccountFacade the bank account facade
+   * @param categoryFacade the category facade
+   * @param operationFacade the operation facade
+   * @return the change tracker
+   * @throws IOException if the journal cannot be replayed
+   */
+  @Bean
+  public ChangeTracker changeTracker(final FileChangeJournal changeJournal,
+                                     final BankAccountFacade bankAccountFacade,
+                                     final CategoryFacade categoryFacade,
+                                     final OperationFacade operationFacade) throws IOException {
+    ChangeTracker tracker = new ChangeTracker(changeJournal, changeJournal.getJournalId());
+    changeJournal.replay(tracker, bankAccountFacade, categoryFacade, operationFacade);
+    return tracker;
+  }
+}
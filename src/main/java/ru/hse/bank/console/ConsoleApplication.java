@@ -5,22 +5,39 @@ import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import ru.hse.bank.command.Command;
-import ru.hse.bank.command.TimedCommand;
+import ru.hse.bank.command.CommandDecorator;
+import ru.hse.bank.command.CommandMetrics;
 import ru.hse.bank.command.account.CreateAccountCommand;
 import ru.hse.bank.command.operation.CreateOperationCommand;
+import ru.hse.bank.dataimport.BinaryDataImporter;
+import ru.hse.bank.dataimport.CsvDataImporter;
+import ru.hse.bank.dataimport.DataImporter;
+import ru.hse.bank.dataimport.ImportStatistics;
 import ru.hse.bank.dataimport.JsonDataImporter;
+import ru.hse.bank.dataimport.YamlDataImporter;
+import ru.hse.bank.export.BinaryStreamingDataVisitor;
+import ru.hse.bank.export.Compression;
+import ru.hse.bank.export.CsvStreamingDataVisitor;
 import ru.hse.bank.export.DataExporter;
-import ru.hse.bank.export.JsonDataVisitor;
+import ru.hse.bank.export.DeltaExporter;
+import ru.hse.bank.export.ExportCheckpoint;
+import ru.hse.bank.export.ExportManifest;
+import ru.hse.bank.export.JsonStreamingDataVisitor;
+import ru.hse.bank.export.StreamingDataVisitor;
+import ru.hse.bank.export.YamlStreamingDataVisitor;
 import ru.hse.bank.facade.AnalyticsFacade;
+import ru.hse.bank.facade.AnalyticsReport;
 import ru.hse.bank.facade.BankAccountFacade;
 import ru.hse.bank.facade.CategoryFacade;
 import ru.hse.bank.facade.OperationFacade;
@@ -48,9 +65,14 @@ public class ConsoleApplication implements CommandLineRunner {
     private final OperationFacade operationFacade;
     private final AnalyticsFacade analyticsFacade;
     private final DataExporter dataExporter;
+    private final DeltaExporter deltaExporter;
     private final JsonDataImporter jsonDataImporter;
+    private final CsvDataImporter csvDataImporter;
+    private final YamlDataImporter yamlDataImporter;
+    private final BinaryDataImporter binaryDataImporter;
     private final DomainFactory domainFactory;
     private final ObjectMapper objectMapper;
+    private final CommandMetrics commandMetrics;
 
     /**
      * Constructor for the inner class ApplicationComponents.
@@ -60,26 +82,41 @@ public class ConsoleApplication implements CommandLineRunner {
      * @param operationFacadeParam the operation facade
      * @param analyticsFacadeParam the analytics facade
      * @param dataExporterParam the data exporter
+     * @param deltaExporterParam the incremental exporter
      * @param jsonDataImporterParam the JSON data importer
+     * @param csvDataImporterParam the CSV data importer
+     * @param yamlDataImporterParam the YAML data importer
+     * @param binaryDataImporterParam the binary snapshot importer
      * @param domainFactoryParam the domain factory
      * @param objectMapperParam the Jackson object mapper
+     * @param commandMetricsParam the latency histograms of executed commands
      */
     public ApplicationComponents(final BankAccountFacade bankAccountFacadeParam, 
                                 final CategoryFacade categoryFacadeParam,
                                 final OperationFacade operationFacadeParam,
                                 final AnalyticsFacade analyticsFacadeParam,
                                 final DataExporter dataExporterParam,
+                                final DeltaExporter deltaExporterParam,
                                 final JsonDataImporter jsonDataImporterParam,
+                                final CsvDataImporter csvDataImporterParam,
+                                final YamlDataImporter yamlDataImporterParam,
+                                final BinaryDataImporter binaryDataImporterParam,
                                 final DomainFactory domainFactoryParam,
-                                final ObjectMapper objectMapperParam) {
+                                final ObjectMapper objectMapperParam,
+                                final CommandMetrics commandMetricsParam) {
       this.bankAccountFacade = bankAccountFacadeParam;
       this.categoryFacade = categoryFacadeParam;
       this.operationFacade = operationFacadeParam;
       this.analyticsFacade = analyticsFacadeParam;
       this.dataExporter = dataExporterParam;
+      this.deltaExporter = deltaExporterParam;
       this.jsonDataImporter = jsonDataImporterParam;
+      this.csvDataImporter = csvDataImporterParam;
+      this.yamlDataImporter = yamlDataImporterParam;
+      this.binaryDataImporter = binaryDataImporterParam;
       this.domainFactory = domainFactoryParam;
       this.objectMapper = objectMapperParam;
+      this.commandMetrics = commandMetricsParam;
     }
   }
 
@@ -88,9 +125,15 @@ public class ConsoleApplication implements CommandLineRunner {
   private final OperationFacade operationFacade;
   private final AnalyticsFacade analyticsFacade;
   private final DataExporter dataExporter;
+  private final DeltaExporter deltaExporter;
   private final JsonDataImporter jsonDataImporter;
+  private final CsvDataImporter csvDataImporter;
+  private final YamlDataImporter yamlDataImporter;
+  private final BinaryDataImporter binaryDataImporter;
   private final DomainFactory domainFactory;
   private final ObjectMapper objectMapper;
+  private final CommandMetrics commandMetrics;
+  private final CommandDecorator commandDecorator;
   private final Scanner scanner;
 
   /**
@@ -105,9 +148,15 @@ public class ConsoleApplication implements CommandLineRunner {
     this.operationFacade = components.operationFacade;
     this.analyticsFacade = components.analyticsFacade;
     this.dataExporter = components.dataExporter;
+    this.deltaExporter = components.deltaExporter;
     this.jsonDataImporter = components.jsonDataImporter;
+    this.csvDataImporter = components.csvDataImporter;
+    this.yamlDataImporter = components.yamlDataImporter;
+    this.binaryDataImporter = components.binaryDataImporter;
     this.domainFactory = components.domainFactory;
     this.objectMapper = components.objectMapper;
+    this.commandMetrics = components.commandMetrics;
+    this.commandDecorator = CommandDecorator.timing(components.commandMetrics);
     this.scanner = new Scanner(System.in);
   }
 
@@ -140,6 +189,18 @@ public class ConsoleApplication implements CommandLineRunner {
         case "6":
           importData();
           break;
+        case "7":
+          exportDelta();
+          break;
+        case "8":
+          restoreDeltas();
+          break;
+        case "9":
+          exportPartitioned();
+          break;
+        case "10":
+          commandMetrics.dump(System.out);
+          break;
         case "0":
           System.out.println("До свидания!");
           return;
@@ -160,6 +221,10 @@ public class ConsoleApplication implements CommandLineRunner {
     System.out.println("4. Показать аналитику");
     System.out.println("5. Экспортировать данные");
     System.out.println("6. Импортировать данные");
+    System.out.println("7. Инкрементальный экспорт");
+    System.out.println("8. Восстановить из базы и дельт");
+    System.out.println("9. Параллельный экспорт по частям");
+    System.out.println("10. Показать время выполнения команд");
     System.out.println("0. Выход");
     System.out.print("Выберите действие: ");
   }
@@ -175,8 +240,7 @@ public class ConsoleApplication implements CommandLineRunner {
     scanner.nextLine();
 
     final Command<BankAccount> command = new CreateAccountCommand(domainFactory, name, balance);
-    final Command<BankAccount> timedCommand = new TimedCommand<>(command);
-    final BankAccount account = timedCommand.execute();
+    final BankAccount account = commandDecorator.decorate(command).execute();
 
     bankAccountFacade.createAccount(name, balance);
 
@@ -272,8 +336,7 @@ public class ConsoleApplication implements CommandLineRunner {
             description,
             categoryId
         );
-        final Command<Operation> timedCommand = new TimedCommand<>(command);
-        final Operation operation = timedCommand.execute();
+        final Operation operation = commandDecorator.decorate(command).execute();
         System.out.println("Операция создана: " + operation.getId());
       } catch (Exception exception) {
         System.out.println("Ошибка при создании операции: " + exception.getMessage());
@@ -298,17 +361,22 @@ public class ConsoleApplication implements CommandLineRunner {
     final LocalDateTime start = LocalDateTime.parse(startStr, formatter);
     final LocalDateTime end = LocalDateTime.parse(endStr, formatter);
 
-    final BigDecimal balanceDiff = analyticsFacade.calculateBalanceDifference(start, end);
-    final Map<UUID, BigDecimal> byCategory = analyticsFacade.groupOperationsByCategory(start, end);
-    final Map<CategoryType, BigDecimal> byType = analyticsFacade.groupOperationsByType(start, end);
+    final AnalyticsReport report = analyticsFacade.buildReport(start, end);
 
     System.out.println("\n=== Аналитика ===");
-    System.out.println("Разница баланса: " + balanceDiff);
+    System.out.println("Разница баланса: " + report.getBalanceDifference());
+    System.out.println("Операций: " + report.getOperationCount()
+        + " (доходов: " + report.getIncomeCount()
+        + ", расходов: " + report.getExpenseCount() + ")");
+    if (report.getOperationCount() > 0) {
+      System.out.println("Минимальная сумма: " + report.getMinAmount());
+      System.out.println("Максимальная сумма: " + report.getMaxAmount());
+    }
     System.out.println("\nПо категориям:");
-    byCategory.forEach((categoryId, amount) -> 
+    report.getByCategory().forEach((categoryId, amount) -> 
          System.out.println("Категория " + categoryId + ": " + amount));
     System.out.println("\nПо типам:");
-    byType.forEach((type, amount) -> 
+    report.getByType().forEach((type, amount) -> 
          System.out.println(type + ": " + amount));
   }
 
@@ -336,7 +404,16 @@ public class ConsoleApplication implements CommandLineRunner {
         java.nio.file.Files.createDirectories(parent);
       }
 
-      dataExporter.exportData(filePath, new JsonDataVisitor(objectMapper));
+      final String extension = extensionOf(filePath);
+      if ("ops".equals(extension) && Compression.forFile(filePath) != Compression.NONE) {
+        System.out.println("Ошибка: снимок операций не может быть сжат.");
+        return;
+      }
+      if ("ops".equals(extension)) {
+        dataExporter.exportOperationSnapshot(filePath);
+      } else {
+        dataExporter.exportData(filePath, visitorsFor(extension).get());
+      }
       System.out.println("Данные экспортированы в: " + filePath.toAbsolutePath());
     } catch (IOException exception) {
       System.out.println("Ошибка при экспорте данных: " + exception.getMessage());
@@ -361,10 +438,157 @@ public class ConsoleApplication implements CommandLineRunner {
 
     try {
       final Path filePath = Path.of(path);
-      jsonDataImporter.importData(filePath);
+      final String extension = extensionOf(filePath);
+      final ImportStatistics statistics;
+      if ("ops".equals(extension)) {
+        statistics = binaryDataImporter.openSnapshot(filePath);
+      } else if (filePath.endsWith(ExportManifest.FILE_NAME)) {
+        final String partName = ExportManifest.read(filePath).getParts().get(0).getFileName();
+        statistics = importerFor(extensionOf(Path.of(partName)))
+            .restorePartitioned(filePath, Runtime.getRuntime().availableProcessors());
+      } else {
+        statistics = importerFor(extension).restoreData(filePath);
+      }
       System.out.println("Данные импортированы из: " + filePath.toAbsolutePath());
+      System.out.printf("Импортировано объектов: %d (%.0f объектов/с)%n",
+          statistics.getEntities(), statistics.getEntitiesPerSecond());
+    } catch (IOException | IllegalArgumentException | IllegalStateException exception) {
+      System.out.println("Ошибка при импорте данных: " + exception.getMessage());
+    }
+  }
+
+  /**
+   * Exports data into part files written in parallel, plus a manifest.
+   */
+  private void exportPartitioned() {
+    System.out.print("Введите каталог для экспорта: ");
+    final Path directory = expandHome(scanner.nextLine());
+    System.out.print("Введите формат частей (json, csv, yaml, bin; можно добавить .gz): ");
+    final String format = scanner.nextLine().trim().toLowerCase();
+    final int partitions = Runtime.getRuntime().availableProcessors();
+
+    try {
+      java.nio.file.Files.createDirectories(directory);
+      final String partFormat = extensionOf(Path.of("part." + format));
+      final ExportManifest manifest = dataExporter.exportPartitioned(directory,
+          visitorsFor(partFormat), format, partitions);
+      System.out.println("Данные экспортированы в " + manifest.getParts().size() + " частей: "
+          + directory.resolve(ExportManifest.FILE_NAME).toAbsolutePath());
     } catch (IOException exception) {
+      System.out.println("Ошибка при экспорте данных: " + exception.getMessage());
+    }
+  }
+
+  /**
+   * Exports the changes made since a previous export, or a new base if there is none.
+   */
+  private void exportDelta() {
+    System.out.print("Введите путь к предыдущему экспорту (пусто — полный экспорт): ");
+    final String previousPath = scanner.nextLine();
+    System.out.print("Введите путь для экспорта: ");
+    final Path filePath = expandHome(scanner.nextLine());
+
+    try {
+      final ExportCheckpoint checkpoint = previousPath.isBlank()
+          ? deltaExporter.exportBase(filePath)
+          : deltaExporter.exportDelta(filePath, expandHome(previousPath));
+      System.out.println("Данные экспортированы в: " + filePath.toAbsolutePath()
+          + " (" + checkpoint + ")");
+    } catch (IOException | IllegalArgumentException exception) {
+      System.out.println("Ошибка при экспорте данных: " + exception.getMessage());
+    }
+  }
+
+  /**
+   * Restores data from a base export and its deltas.
+   */
+  private void restoreDeltas() {
+    System.out.print("Введите путь к базовому экспорту: ");
+    final Path basePath = expandHome(scanner.nextLine());
+    System.out.println("Введите пути к дельтам по порядку, пустая строка — конец:");
+    final List<Path> deltaPaths = new ArrayList<>();
+    String line = scanner.nextLine();
+    while (!line.isBlank()) {
+      deltaPaths.add(expandHome(line));
+      line = scanner.nextLine();
+    }
+
+    try {
+      final ImportStatistics statistics = binaryDataImporter.restoreData(basePath, deltaPaths);
+      System.out.printf("Импортировано объектов: %d (%.0f объектов/с)%n",
+          statistics.getEntities(), statistics.getEntitiesPerSecond());
+    } catch (IOException | IllegalArgumentException exception) {
       System.out.println("Ошибка при импорте данных: " + exception.getMessage());
     }
   }
+
+  /**
+   * Returns the importer of a format.
+   *
+   * @param extension the extension of the imported files
+   * @return the importer
+   */
+  private DataImporter importerFor(final String extension) {
+    switch (extension) {
+      case "csv":
+        return csvDataImporter;
+      case "yaml":
+      case "yml":
+        return yamlDataImporter;
+      case "bin":
+        return binaryDataImporter;
+      default:
+        return jsonDataImporter;
+    }
+  }
+
+  /**
+   * Returns the factory of the export visitors of a format.
+   *
+   * @param extension the extension of the exported files
+   * @return the visitor factory
+   */
+  private Supplier<StreamingDataVisitor> visitorsFor(final String extension) {
+    switch (extension) {
+      case "csv":
+        return CsvStreamingDataVisitor::new;
+      case "yaml":
+      case "yml":
+        return YamlStreamingDataVisitor::new;
+      case "bin":
+        return BinaryStreamingDataVisitor::new;
+      default:
+        return () -> new JsonStreamingDataVisitor(objectMapper);
+    }
+  }
+
+  /**
+   * Resolves a path entered by the user, expanding a leading tilde to the home directory.
+   *
+   * @param inputPath the entered path
+   * @return the resolved path
+   */
+  private static Path expandHome(final String inputPath) {
+    if (inputPath.startsWith("~")) {
+      return Path.of(System.getProperty("user.home") + inputPath.substring(1));
+    }
+    return Path.of(inputPath);
+  }
+
+  /**
+   * Returns the extension of a file, which selects the export and import format.
+   * A trailing {@code .gz} only selects compression and is skipped.
+   *
+   * @param filePath the path to the file
+   * @return the lower-case extension without the dot, or an empty string if there is none
+   */
+  private static String extensionOf(final Path filePath) {
+    final Path fileName = filePath.getFileName();
+    String name = fileName == null ? "" : fileName.toString().toLowerCase();
+    if (name.endsWith(".gz")) {
+      name = name.substring(0, name.length() - ".gz".length());
+    }
+    final int dot = name.lastIndexOf('.');
+    return dot < 0 ? "" : name.substring(dot + 1);
+  }
 }
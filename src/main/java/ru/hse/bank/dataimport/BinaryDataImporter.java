@@ -0,0 +1,419 @@
+package ru.hse.bank.dataimport;
+
+import static ru.hse.bank.export.BinarySnapshotFormat.ACCOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.BIG_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.CATEGORY;
+import static ru.hse.bank.export.BinarySnapshotFormat.CHECKPOINT;
+import static ru.hse.bank.export.BinarySnapshotFormat.COMPACT_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.DELETION;
+import static ru.hse.bank.export.BinarySnapshotFormat.END;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_ACCOUNT_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_CATEGORY_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_DATE;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.MAGIC;
+import static ru.hse.bank.export.BinarySnapshotFormat.OPERATION;
+import static ru.hse.bank.export.BinarySnapshotFormat.RECORD_HEADER_SIZE;
+import static ru.hse.bank.export.BinarySnapshotFormat.VERSION;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import ru.hse.bank.export.Compression;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.MappedOperationSnapshot;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * BinaryDataImporter is a class that imports data from a binary snapshot
+ * written by {@link ru.hse.bank.export.BinaryStreamingDataVisitor}.
+ * Records are read from a channel into a byte buffer and decoded without any text parsing.
+ */
+@Component
+public class BinaryDataImporter extends DataImporter {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final CategoryType[] TYPES = CategoryType.values();
+
+  /**
+   * Constructor for BinaryDataImporter.
+   *
+   * @param bankAccountFacadeParam the bank account facade to use for creating bank accounts
+   * @param categoryFacadeParam the category facade to use for creating categories
+   * @param operationFacadeParam the operation facade to use for creating operations
+   */
+  public BinaryDataImporter(final BankAccountFacade bankAccountFacadeParam,
+                            final CategoryFacade categoryFacadeParam,
+                            final OperationFacade operationFacadeParam) {
+    super(bankAccountFacadeParam, categoryFacadeParam, operationFacadeParam);
+  }
+
+  /**
+   * Opens a memory-mapped operation snapshot written by
+   * {@link ru.hse.bank.export.OperationSnapshotWriter}. Accounts and categories are loaded,
+   * while operations stay in the file and are served by the operation facade on demand,
+   * so the time to open does not depend on the number of operations.
+   *
+   * @param filePath the path to the snapshot file
+   * @return statistics of the opened snapshot
+   * @throws IOException if an I/O error occurs or the file is not an operation snapshot
+   * @throws IllegalStateException if an operation snapshot is already open
+   */
+  public ImportStatistics openSnapshot(final Path filePath) throws IOException {
+    long start = System.nanoTime();
+    MappedOperationSnapshot snapshot = MappedOperationSnapshot.open(filePath);
+    List<BankAccount> accounts = new ArrayList<>();
+    List<Category> categories = new ArrayList<>();
+    try {
+      readSnapshot(Channels.newChannel(snapshot.openCatalog()), new SectionHandler() {
+        @Override
+        public void account(final BankAccount account) {
+          accounts.add(account);
+        }
+
+        @Override
+        public void category(final Category category) {
+          categories.add(category);
+        }
+      });
+      operationFacade.attachSnapshot(snapshot);
+    } catch (IOException | RuntimeException exception) {
+      snapshot.close();
+      throw exception;
+    }
+
+    bankAccountFacade.loadAccounts(accounts);
+    categoryFacade.loadCategories(categories);
+    return new ImportStatistics(accounts.size(), categories.size(), snapshot.size(),
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Restores data from a base export and the deltas made after it by
+   * {@link ru.hse.bank.export.DeltaExporter}. The files are merged in memory, later files
+   * replacing and deleting the entities of earlier ones, and the result is bulk-loaded
+   * like by {@link #restoreData(Path)}.
+   *
+   * @param basePath the path to the base export
+   * @param deltaPaths the paths to the deltas in the order they were exported
+   * @return statistics of the restore
+   * @throws IOException if an I/O error occurs or the files do not form a chain of
+   *     checkpoints starting with the base
+   */
+  public ImportStatistics restoreData(final Path basePath, final List<Path> deltaPaths)
+      throws IOException {
+    long start = System.nanoTime();
+    DeltaCollector collector = new DeltaCollector();
+    Checkpoint previous = null;
+    List<Path> files = new ArrayList<>();
+    files.add(basePath);
+    files.addAll(deltaPaths);
+    for (Path filePath : files) {
+      collector.checkpoint = null;
+      try (ReadableByteChannel channel = Channels.newChannel(Compression.open(filePath))) {
+        readSnapshot(channel, collector);
+      }
+      Checkpoint checkpoint = collector.checkpoint;
+      if (checkpoint == null) {
+        throw new IOException("Файл не содержит контрольной точки экспорта: " + filePath);
+      }
+      if (previous == null ? checkpoint.since != -1
+          : !checkpoint.epoch.equals(previous.epoch) || checkpoint.since != previous.upTo) {
+        throw new IOException("Файл " + filePath + " не продолжает цепочку экспортов");
+      }
+      previous = checkpoint;
+    }
+
+    bankAccountFacade.loadAccounts(new ArrayList<>(collector.accounts.values()));
+    categoryFacade.loadCategories(new ArrayList<>(collector.categories.values()));
+    operationFacade.loadOperations(new ArrayList<>(collector.operations.values()));
+    return new ImportStatistics(collector.accounts.size(), collector.categories.size(),
+        collector.operations.size(), System.nanoTime() - start);
+  }
+
+  /**
+   * Reads the snapshot record by record and hands every entity to the handler
+   * as soon as its record has been decoded.
+   */
+  @Override
+  protected void parseStream(final InputStream input, final EntityHandler handler)
+      throws IOException {
+    readSnapshot(Channels.newChannel(input), handler);
+  }
+
+  private static void readSnapshot(final ReadableByteChannel channel, final EntityHandler handler)
+      throws IOException {
+    ByteBuffer buffer = fill(channel, ByteBuffer.allocate(BUFFER_SIZE).flip(), 2 * Integer.BYTES);
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Файл не является бинарным снимком");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Неподдерживаемая версия снимка: " + version);
+    }
+    while (true) {
+      buffer = fill(channel, buffer, RECORD_HEADER_SIZE);
+      byte type = buffer.get();
+      int length = buffer.getInt();
+      if (length < 0) {
+        throw new IOException("Некорректная длина записи снимка: " + length);
+      }
+      if (type == END) {
+        return;
+      }
+      buffer = fill(channel, buffer, length);
+      int limit = buffer.limit();
+      int end = buffer.position() + length;
+      buffer.limit(end);
+      Object entity = decode(type, buffer);
+      buffer.limit(limit).position(end);
+      if (entity instanceof BankAccount) {
+        handler.account((BankAccount) entity);
+      } else if (entity instanceof Category) {
+        handler.category((Category) entity);
+      } else if (entity instanceof Operation) {
+        handler.operation((Operation) entity);
+      } else if (handler instanceof DeltaCollector) {
+        ((DeltaCollector) handler).control(entity);
+      }
+    }
+  }
+
+  /**
+   * Makes sure that the buffer has at least the given number of bytes left to read,
+   * reading more from the channel if needed.
+   */
+  private static ByteBuffer fill(final ReadableByteChannel channel, final ByteBuffer buffer,
+                                 final int needed) throws IOException {
+    if (buffer.remaining() >= needed) {
+      return buffer;
+    }
+    ByteBuffer target = buffer;
+    if (buffer.capacity() < needed) {
+      target = ByteBuffer.allocate(needed).put(buffer);
+    } else {
+      target.compact();
+    }
+    while (target.position() < needed) {
+      if (channel.read(target) < 0) {
+        throw new EOFException("Снимок обрезан");
+      }
+    }
+    return target.flip();
+  }
+
+  /**
+   * Decodes the payload of a record; records of unknown types are skipped.
+   */
+  private static Object decode(final byte type, final ByteBuffer payload) throws IOException {
+    try {
+      switch (type) {
+        case ACCOUNT:
+          return readAccount(payload);
+        case CATEGORY:
+          return readCategory(payload);
+        case OPERATION:
+          return readOperation(payload);
+        case CHECKPOINT:
+          return new Checkpoint(new UUID(payload.getLong(), payload.getLong()),
+              payload.getLong(), payload.getLong());
+        case DELETION:
+          return new Deletion(payload.get(), new UUID(payload.getLong(), payload.getLong()));
+        default:
+          return null;
+      }
+    } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException exception) {
+      throw new IOException("Некорректная запись снимка", exception);
+    }
+  }
+
+  private static BankAccount readAccount(final ByteBuffer payload) {
+    int flags = payload.get();
+    return BankAccount.builder()
+        .id(readUuid(payload, flags, HAS_ID))
+        .balance(readAmount(payload, flags))
+        .name(readString(payload))
+        .build();
+  }
+
+  private static Category readCategory(final ByteBuffer payload) {
+    int flags = payload.get();
+    CategoryType type = readType(payload);
+    return Category.builder()
+        .id(readUuid(payload, flags, HAS_ID))
+        .type(type)
+        .name(readString(payload))
+        .build();
+  }
+
+  private static Operation readOperation(final ByteBuffer payload) {
+    int flags = payload.get();
+    CategoryType type = readType(payload);
+    return Operation.builder()
+        .type(type)
+        .id(readUuid(payload, flags, HAS_ID))
+        .bankAccountId(readUuid(payload, flags, HAS_ACCOUNT_ID))
+        .categoryId(readUuid(payload, flags, HAS_CATEGORY_ID))
+        .amount(readAmount(payload, flags))
+        .date(readDate(payload, flags))
+        .description(readString(payload))
+        .build();
+  }
+
+  private static UUID readUuid(final ByteBuffer payload, final int flags, final int flag) {
+    return (flags & flag) == 0 ? null : new UUID(payload.getLong(), payload.getLong());
+  }
+
+  private static CategoryType readType(final ByteBuffer payload) {
+    int code = payload.get();
+    if (code < 0 || code > TYPES.length) {
+      throw new IllegalArgumentException("Неизвестный тип категории: " + code);
+    }
+    return code == 0 ? null : TYPES[code - 1];
+  }
+
+  private static BigDecimal readAmount(final ByteBuffer payload, final int flags) {
+    if ((flags & HAS_AMOUNT) == 0) {
+      return null;
+    }
+    byte kind = payload.get();
+    if (kind == COMPACT_AMOUNT) {
+      long unscaled = payload.getLong();
+      return BigDecimal.valueOf(unscaled, payload.getInt());
+    }
+    if (kind != BIG_AMOUNT) {
+      throw new IllegalArgumentException("Неизвестный формат суммы: " + kind);
+    }
+    byte[] bytes = new byte[checkedLength(payload)];
+    payload.get(bytes);
+    return new BigDecimal(new BigInteger(bytes), payload.getInt());
+  }
+
+  private static LocalDateTime readDate(final ByteBuffer payload, final int flags) {
+    if ((flags & HAS_DATE) == 0) {
+      return null;
+    }
+    long epochSecond = payload.getLong();
+    return LocalDateTime.ofEpochSecond(epochSecond, payload.getInt(), ZoneOffset.UTC);
+  }
+
+  private static String readString(final ByteBuffer payload) {
+    int length = payload.getInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0 || length > payload.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    String value = new String(payload.array(), payload.arrayOffset() + payload.position(), length,
+        StandardCharsets.UTF_8);
+    payload.position(payload.position() + length);
+    return value;
+  }
+
+  private static int checkedLength(final ByteBuffer payload) {
+    int length = payload.getInt();
+    if (length < 0 || length > payload.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return length;
+  }
+
+  /**
+   * Checkpoint record that starts a base or delta export.
+   */
+  private static final class Checkpoint {
+    private final UUID epoch;
+    private final long since;
+    private final long upTo;
+
+    private Checkpoint(final UUID epochParam, final long sinceParam, final long upToParam) {
+      this.epoch = epochParam;
+      this.since = sinceParam;
+      this.upTo = upToParam;
+    }
+  }
+
+  /**
+   * Deletion record of a delta export.
+   */
+  private static final class Deletion {
+    private final byte type;
+    private final UUID id;
+
+    private Deletion(final byte typeParam, final UUID idParam) {
+      this.type = typeParam;
+      this.id = idParam;
+    }
+  }
+
+  /**
+   * Merges a base export and its deltas, keeping the latest state of every entity.
+   */
+  private static final class DeltaCollector extends SectionHandler {
+    private final Map<UUID, BankAccount> accounts = new LinkedHashMap<>();
+    private final Map<UUID, Category> categories = new LinkedHashMap<>();
+    private final Map<UUID, Operation> operations = new LinkedHashMap<>();
+    private Checkpoint checkpoint;
+
+    @Override
+    public void account(final BankAccount account) {
+      accounts.put(account.getId(), account);
+    }
+
+    @Override
+    public void category(final Category category) {
+      categories.put(category.getId(), category);
+    }
+
+    @Override
+    public void operation(final Operation operation) {
+      operations.put(operation.getId(), operation);
+    }
+
+    private void control(final Object record) {
+      if (record instanceof Checkpoint && checkpoint == null) {
+        checkpoint = (Checkpoint) record;
+      } else if (record instanceof Deletion) {
+        Deletion deletion = (Deletion) record;
+        switch (deletion.type) {
+          case ACCOUNT:
+            accounts.remove(deletion.id);
+            break;
+          case CATEGORY:
+            categories.remove(deletion.id);
+            break;
+          case OPERATION:
+            operations.remove(deletion.id);
+            break;
+          default:
+            break;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package ru.hse.bank.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.RFC4180ParserBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.springframework.stereotype.Component;
+
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * CsvDataImporter is a class that imports data from a CSV file.
+ * It reads the format written by {@link ru.hse.bank.export.CsvStreamingDataVisitor}:
+ * one entity per row, with the record type (ACCOUNT, CATEGORY or OPERATION) in the first column.
+ */
+@Component
+public class CsvDataImporter extends DataImporter {
+  private static final String ACCOUNT = "ACCOUNT";
+  private static final String CATEGORY = "CATEGORY";
+  private static final String OPERATION = "OPERATION";
+
+  /**
+   * Constructor for CsvDataImporter.
+   *
+   * @param bankAccountFacadeParam the bank account facade to use for creating bank accounts
+   * @param categoryFacadeParam the category facade to use for creating categories
+   * @param operationFacadeParam the operation facade to use for creating operations
+   */
+  public CsvDataImporter(final BankAccountFacade bankAccountFacadeParam,
+                         final CategoryFacade categoryFacadeParam,
+                         final OperationFacade operationFacadeParam) {
+    super(bankAccountFacadeParam, categoryFacadeParam, operationFacadeParam);
+  }
+
+  /**
+   * Reads the file row by row and hands every entity to the handler as soon as its row is read.
+   */
+  @Override
+  protected void parseStream(final InputStream input, final EntityHandler handler)
+      throws IOException {
+    readRows(new InputStreamReader(input, StandardCharsets.UTF_8), handler);
+  }
+
+  private static void readRows(final Reader source, final EntityHandler handler) throws IOException {
+    try (CSVReader reader = new CSVReaderBuilder(source)
+        .withCSVParser(new RFC4180ParserBuilder().build())
+        .build()) {
+      String[] row;
+      while ((row = reader.readNext()) != null) {
+        if (row.length == 1 && row[0].isEmpty()) {
+          continue;
+        }
+        Object entity = toEntity(row);
+        if (entity instanceof BankAccount) {
+          handler.account((BankAccount) entity);
+        } else if (entity instanceof Category) {
+          handler.category((Category) entity);
+        } else {
+          handler.operation((Operation) entity);
+        }
+      }
+    } catch (CsvValidationException exception) {
+      throw new IOException("Некорректная строка CSV", exception);
+    }
+  }
+
+  private static Object toEntity(final String[] row) throws IOException {
+    try {
+      switch (row[0]) {
+        case ACCOUNT:
+          return toAccount(row);
+        case CATEGORY:
+          return toCategory(row);
+        case OPERATION:
+          return toOperation(row);
+        default:
+          throw new IOException("Неизвестный тип записи CSV: " + row[0]);
+      }
+    } catch (IllegalArgumentException | DateTimeException exception) {
+      throw new IOException("Некорректная строка CSV: " + Arrays.toString(row), exception);
+    }
+  }
+
+  private static BankAccount toAccount(final String[] row) throws IOException {
+    requireColumns(row, 4);
+    return BankAccount.builder()
+        .id(TextValues.toUuid(row[1]))
+        .name(row[2])
+        .balance(TextValues.toAmount(row[3]))
+        .build();
+  }
+
+  private static Category toCategory(final String[] row) throws IOException {
+    requireColumns(row, 4);
+    return Category.builder()
+        .id(TextValues.toUuid(row[1]))
+        .name(row[2])
+        .type(TextValues.toType(row[3]))
+        .build();
+  }
+
+  private static Operation toOperation(final String[] row) throws IOException {
+    requireColumns(row, 8);
+    return Operation.builder()
+        .id(TextValues.toUuid(row[1]))
+        .type(TextValues.toType(row[2]))
+        .bankAccountId(TextValues.toUuid(row[3]))
+        .amount(TextValues.toAmount(row[4]))
+        .description(row[5])
+        .categoryId(TextValues.toUuid(row[6]))
+        .date(TextValues.toDate(row[7]))
+        .build();
+  }
+
+  private static void requireColumns(final String[] row, final int columns) throws IOException {
+    if (row.length != columns) {
+      throw new IOException("Некорректная строка CSV: " + Arrays.toString(row));
+    }
+  }
+}
@@ -1,11 +1,21 @@
 package ru.hse.bank.dataimport;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.springframework.stereotype.Component;
 
+import ru.hse.bank.export.Compression;
+import ru.hse.bank.export.ExportManifest;
 import ru.hse.bank.facade.BankAccountFacade;
 import ru.hse.bank.facade.CategoryFacade;
 import ru.hse.bank.facade.OperationFacade;
@@ -17,6 +27,7 @@ import ru.hse.bank.model.Operation;
  * Abstract class for importing data from a file.
  * Provides a high-level interface for importing data from a file,
  * including reading the file, parsing the data, and creating the entities.
+ * GZIP-compressed files are decompressed on the fly, see {@link Compression#open(Path)}.
  */
 @Component
 public abstract class DataImporter {
@@ -41,68 +52,265 @@ public abstract class DataImporter {
 
   /**
    * Imports data from a file.
+   * The file is parsed in a single pass with {@link #parseStream} and the entities are
+   * created only once the whole file has been read, so a malformed file imports nothing.
    *
    * @param filePath the path to the file to import
    * @throws IOException if an I/O error occurs
    */
   public final void importData(final Path filePath) throws IOException {
-    String content = readFile(filePath);
-    List<BankAccount> accounts = parseAccounts(content);
-    List<Category> categories = parseCategories(content);
-    List<Operation> operations = parseOperations(content);
+    Entities entities = readEntities(filePath);
 
-    for (BankAccount account : accounts) {
-      bankAccountFacade.createAccount(account.getName(), account.getBalance());
+    for (BankAccount account : entities.accounts) {
+      importAccount(account);
     }
 
-    for (Category category : categories) {
-      categoryFacade.createCategory(category.getName(), category.getType());
+    for (Category category : entities.categories) {
+      importCategory(category);
     }
 
-    for (Operation operation : operations) {
-      operationFacade.createOperation(
-          operation.getType(),
-          operation.getBankAccountId(),
-          operation.getAmount(),
-          operation.getDescription(),
-          operation.getCategoryId()
-      );
+    for (Operation operation : entities.operations) {
+      importOperation(operation);
     }
   }
 
   /**
-   * Reads the content of a file.
+   * Imports data from a file in a single streaming pass.
+   * Entities are created as soon as the parser reads them, so the file is neither
+   * loaded into memory as a whole nor parsed more than once.
    *
-   * @param filePath the path to the file to read
-   * @return the content of the file
+   * @param filePath the path to the file to import
    * @throws IOException if an I/O error occurs
    */
-  protected abstract String readFile(Path filePath) throws IOException;
+  public final void importDataStreaming(final Path filePath) throws IOException {
+    try (InputStream input = Compression.open(filePath)) {
+      parseStream(input, new EntityHandler() {
+        @Override
+        public void account(final BankAccount account) {
+          importAccount(account);
+        }
+
+        @Override
+        public void category(final Category category) {
+          importCategory(category);
+        }
+
+        @Override
+        public void operation(final Operation operation) {
+          importOperation(operation);
+        }
+      });
+    }
+  }
 
   /**
-   * Parses the accounts from the content.
+   * Imports data from a file with a pipeline of parsing, validation and insertion stages.
+   * Like {@link #restoreData(Path)}, entities keep their original IDs, balances and dates,
+   * but the file is never held in memory as a whole. Operations of different accounts are
+   * loaded in parallel batches by the given number of workers; operations of the same
+   * account are loaded by one worker, in file order across batches and by date within
+   * a batch. A failed import is partial: the entities loaded before the failure are kept.
    *
-   * @param content the content of the file
-   * @return the list of accounts
+   * @param filePath the path to the file to import
+   * @param parallelism the number of operation insertion workers
+   * @return statistics of the import, including its throughput
    * @throws IOException if an I/O error occurs
    */
-  protected abstract List<BankAccount> parseAccounts(String content) throws IOException;
+  public final ImportStatistics importDataPipelined(final Path filePath, final int parallelism)
+      throws IOException {
+    return new ImportPipeline(this, parallelism).run(filePath);
+  }
 
   /**
-   * Parses the categories from the content.
+   * Restores data from a snapshot file.
+   * Unlike {@link #importData(Path)}, entities keep their original IDs, balances and dates:
+   * they are bulk-loaded into the facades without validation or balance recalculation,
+   * and the facade indexes are updated once after the whole file has been read.
    *
-   * @param content the content of the file
-   * @return the list of categories
+   * @param filePath the path to the snapshot file
+   * @return statistics of the restore, including its throughput
    * @throws IOException if an I/O error occurs
    */
-  protected abstract List<Category> parseCategories(String content) throws IOException;
+  public final ImportStatistics restoreData(final Path filePath) throws IOException {
+    long start = System.nanoTime();
+    Entities entities = readEntities(filePath);
+
+    bankAccountFacade.loadAccounts(entities.accounts);
+    categoryFacade.loadCategories(entities.categories);
+    operationFacade.loadOperations(entities.operations);
+    return new ImportStatistics(entities.accounts.size(), entities.categories.size(),
+        entities.operations.size(), System.nanoTime() - start);
+  }
+
+  /**
+   * Restores data from an export split into parts by
+   * {@link ru.hse.bank.export.DataExporter#exportPartitioned}. Like {@link #restoreData(Path)},
+   * entities keep their IDs, balances and dates. The parts are parsed in parallel and, once
+   * all of them have been read, the operations of every part are bulk-loaded in parallel;
+   * the parts hold the operations of disjoint sets of accounts, so their loads do not
+   * contend for the same account locks.
+   *
+   * @param manifestPath the path to the manifest of the export
+   * @param parallelism the number of threads parsing and loading parts
+   * @return statistics of the restore
+   * @throws IOException if an I/O error occurs, or a part holds another number of entities
+   *     than the manifest lists
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public final ImportStatistics restorePartitioned(final Path manifestPath, final int parallelism)
+      throws IOException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Количество потоков импорта должно быть положительным");
+    }
+    long start = System.nanoTime();
+    ExportManifest manifest = ExportManifest.read(manifestPath);
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    long[] counts = new long[3];
+    try {
+      List<Callable<Entities>> reads = new ArrayList<>();
+      for (ExportManifest.Part part : manifest.getParts()) {
+        reads.add(() -> readPart(manifestPath.resolveSibling(part.getFileName()),
+            part.getEntities()));
+      }
+      List<Entities> parts = await(executor.invokeAll(reads));
+
+      List<Callable<Void>> loads = new ArrayList<>();
+      for (Entities part : parts) {
+        if (!part.accounts.isEmpty()) {
+          bankAccountFacade.loadAccounts(part.accounts);
+        }
+        if (!part.categories.isEmpty()) {
+          categoryFacade.loadCategories(part.categories);
+        }
+        counts[0] += part.accounts.size();
+        counts[1] += part.categories.size();
+        counts[2] += part.operations.size();
+        if (!part.operations.isEmpty()) {
+          loads.add(() -> {
+            operationFacade.loadOperations(part.operations);
+            return null;
+          });
+        }
+      }
+      await(executor.invokeAll(loads));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Импорт прерван");
+    } finally {
+      executor.shutdownNow();
+    }
+    return new ImportStatistics(counts[0], counts[1], counts[2], System.nanoTime() - start);
+  }
 
   /**
-   * Parses the operations from the content.
+   * Parses entities from a stream in a single pass and passes each of them to the handler
+   * as soon as it has been read.
    *
-   * @param content the content of the file
-   * @return the list of operations
+   * @param input the stream to parse
+   * @param handler the handler receiving parsed entities
    * @throws IOException if an I/O error occurs
    */
-  protected abstract List<Operation> parseOperations(String content) throws IOException;
-} 
\ No newline at end of file
+  protected abstract void parseStream(InputStream input, EntityHandler handler)
+      throws IOException;
+
+  /**
+   * Creates an imported bank account.
+   *
+   * @param account the imported bank account
+   */
+  protected void importAccount(final BankAccount account) {
+    bankAccountFacade.createAccount(account.getName(), account.getBalance());
+  }
+
+  /**
+   * Creates an imported category.
+   *
+   * @param category the imported category
+   */
+  protected void importCategory(final Category category) {
+    categoryFacade.createCategory(category.getName(), category.getType());
+  }
+
+  /**
+   * Creates an imported operation.
+   *
+   * @param operation the imported operation
+   */
+  protected void importOperation(final Operation operation) {
+    operationFacade.createOperation(
+        operation.getType(),
+        operation.getBankAccountId(),
+        operation.getAmount(),
+        operation.getDescription(),
+        operation.getCategoryId()
+    );
+  }
+
+  private Entities readPart(final Path filePath, final long entities) throws IOException {
+    Entities part = readEntities(filePath);
+    long read = part.accounts.size() + part.categories.size() + part.operations.size();
+    if (read != entities) {
+      throw new IOException("Часть " + filePath + " содержит " + read
+          + " объектов вместо " + entities);
+    }
+    return part;
+  }
+
+  /**
+   * Parses all entities of a file in a single pass.
+   */
+  private Entities readEntities(final Path filePath) throws IOException {
+    Entities entities = new Entities();
+    try (InputStream input = Compression.open(filePath)) {
+      parseStream(input, entities);
+    }
+    return entities;
+  }
+
+  /**
+   * Waits for the tasks and returns their results, rethrowing the first failure.
+   */
+  private static <T> List<T> await(final List<Future<T>> tasks)
+      throws IOException, InterruptedException {
+    List<T> results = new ArrayList<>();
+    for (Future<T> task : tasks) {
+      try {
+        results.add(task.get());
+      } catch (ExecutionException exception) {
+        Throwable cause = exception.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new IOException("Ошибка импорта", cause);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Entities read from a file, in the order of the file.
+   */
+  private static final class Entities implements EntityHandler {
+    private final List<BankAccount> accounts = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+
+    @Override
+    public void account(final BankAccount account) {
+      accounts.add(account);
+    }
+
+    @Override
+    public void category(final Category category) {
+      categories.add(category);
+    }
+
+    @Override
+    public void operation(final Operation operation) {
+      operations.add(operation);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package ru.hse.bank.dataimport;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Receives entities from a streaming parser as soon as they are read.
+ */
+public interface EntityHandler {
+  /**
+   * Handles a parsed bank account.
+   *
+   * @param account the parsed bank account
+   */
+  void account(BankAccount account);
+
+  /**
+   * Handles a parsed category.
+   *
+   * @param category the parsed category
+   */
+  void category(Category category);
+
+  /**
+   * Handles a parsed operation.
+   *
+   * @param operation the parsed operation
+   */
+  void operation(Operation operation);
+}
@@ -0,0 +1,219 @@
+package ru.hse.bank.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ru.hse.bank.export.Compression;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Import that runs parsing, validation and insertion as separate stages
+ * connected by bounded queues.
+ * Like {@link DataImporter#restoreData}, entities keep their original IDs, balances and
+ * dates: the balances of exported accounts already include their operations, so the
+ * operations are bulk-loaded rather than applied again. Accounts and categories are loaded
+ * by the validation stage, so they exist before any operation that follows them in the
+ * file is validated, and an operation of an account that is not loaded fails the import.
+ * Operations are routed to insertion workers by account, so operations of one account are
+ * loaded by a single worker, in batches taken in file order, while operations of different
+ * accounts are loaded in parallel. {@link ru.hse.bank.facade.OperationFacade#loadOperations}
+ * orders every batch by date, so operations of an account keep their file order only if the
+ * file lists them chronologically, as exported files do.
+ * A failure in any stage stops the import but does not undo it: the accounts, categories
+ * and operation batches loaded before the failure stay in the facades.
+ */
+final class ImportPipeline {
+  private static final int QUEUE_CAPACITY = 8_192;
+  private static final int BATCH_SIZE = 256;
+  private static final Object END = new Object();
+
+  private final DataImporter importer;
+  private final BlockingQueue<Object> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final List<BlockingQueue<Object>> workerQueues = new ArrayList<>();
+  private final AtomicLong accounts = new AtomicLong();
+  private final AtomicLong categories = new AtomicLong();
+  private final AtomicLong operations = new AtomicLong();
+
+  /**
+   * Constructor for ImportPipeline.
+   *
+   * @param importerParam the importer providing the parser and the insertion logic
+   * @param workersParam the number of operation insertion workers
+   */
+  ImportPipeline(final DataImporter importerParam, final int workersParam) {
+    if (workersParam < 1) {
+      throw new IllegalArgumentException("Количество потоков импорта должно быть положительным");
+    }
+    this.importer = importerParam;
+    for (int i = 0; i < workersParam; i++) {
+      workerQueues.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+    }
+  }
+
+  /**
+   * Imports a file and waits for all stages to finish.
+   *
+   * @param filePath the path to the file to import
+   * @return statistics of the import
+   * @throws IOException if an I/O error occurs
+   */
+  ImportStatistics run(final Path filePath) throws IOException {
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(workerQueues.size() + 2);
+    try {
+      CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+      stages.submit(() -> parse(filePath));
+      stages.submit(this::validateAndDispatch);
+      for (BlockingQueue<Object> queue : workerQueues) {
+        stages.submit(() -> insert(queue));
+      }
+      for (int i = 0; i < workerQueues.size() + 2; i++) {
+        stages.take().get();
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Импорт прерван");
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Ошибка импорта", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+    return new ImportStatistics(accounts.get(), categories.get(), operations.get(),
+        System.nanoTime() - start);
+  }
+
+  private Void parse(final Path filePath) throws IOException, InterruptedException {
+    try (InputStream input = Compression.open(filePath)) {
+      importer.parseStream(input, new EntityHandler() {
+        @Override
+        public void account(final BankAccount account) {
+          enqueue(parsed, account);
+        }
+
+        @Override
+        public void category(final Category category) {
+          enqueue(parsed, category);
+        }
+
+        @Override
+        public void operation(final Operation operation) {
+          enqueue(parsed, operation);
+        }
+      });
+    }
+    parsed.put(END);
+    return null;
+  }
+
+  private Void validateAndDispatch() throws InterruptedException {
+    while (true) {
+      Object entity = parsed.take();
+      if (entity == END) {
+        for (BlockingQueue<Object> queue : workerQueues) {
+          queue.put(END);
+        }
+        return null;
+      }
+      if (entity instanceof BankAccount) {
+        BankAccount account = (BankAccount) entity;
+        validate(account);
+        importer.bankAccountFacade.loadAccounts(List.of(account));
+        accounts.incrementAndGet();
+      } else if (entity instanceof Category) {
+        Category category = (Category) entity;
+        validate(category);
+        importer.categoryFacade.loadCategories(List.of(category));
+        categories.incrementAndGet();
+      } else {
+        Operation operation = (Operation) entity;
+        validate(operation);
+        if (importer.bankAccountFacade.getAccount(operation.getBankAccountId()) == null) {
+          throw new IllegalArgumentException(
+              "Операция " + operation.getId() + " ссылается на неизвестный счет");
+        }
+        int worker = Math.floorMod(Objects.hashCode(operation.getBankAccountId()),
+            workerQueues.size());
+        workerQueues.get(worker).put(operation);
+      }
+    }
+  }
+
+  private Void insert(final BlockingQueue<Object> queue) throws InterruptedException {
+    List<Object> taken = new ArrayList<>(BATCH_SIZE);
+    List<Operation> batch = new ArrayList<>(BATCH_SIZE);
+    boolean end = false;
+    while (!end) {
+      taken.add(queue.take());
+      queue.drainTo(taken, BATCH_SIZE - 1);
+      for (Object entity : taken) {
+        if (entity == END) {
+          end = true;
+        } else {
+          batch.add((Operation) entity);
+        }
+      }
+      if (!batch.isEmpty()) {
+        importer.operationFacade.loadOperations(batch);
+        operations.addAndGet(batch.size());
+        batch = new ArrayList<>(BATCH_SIZE);
+      }
+      taken.clear();
+    }
+    return null;
+  }
+
+  private static void enqueue(final BlockingQueue<Object> queue, final Object entity) {
+    try {
+      queue.put(entity);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Импорт прерван", exception);
+    }
+  }
+
+  private static void validate(final BankAccount account) {
+    if (account.getId() == null || account.getBalance() == null) {
+      throw new IllegalArgumentException("Не указаны идентификатор или баланс счета");
+    }
+  }
+
+  private static void validate(final Category category) {
+    if (category.getId() == null || category.getType() == null) {
+      throw new IllegalArgumentException("Не указаны идентификатор или тип категории");
+    }
+  }
+
+  private static void validate(final Operation operation) {
+    if (operation.getType() == null || operation.getBankAccountId() == null) {
+      throw new IllegalArgumentException("Не указаны тип или счет операции");
+    }
+    if (operation.getId() == null || operation.getDate() == null) {
+      throw new IllegalArgumentException("Не указаны идентификатор или дата операции");
+    }
+    if (!operation.hasAmount() || operation.amountSignum() <= 0) {
+      throw new IllegalArgumentException("Сумма операции должна быть положительной");
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package ru.hse.bank.dataimport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of an import: the number of imported entities and the time it took.
+ */
+public final class ImportStatistics {
+  private final long accounts;
+  private final long categories;
+  private final long operations;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor for ImportStatistics.
+   *
+   * @param accountsParam the number of imported accounts
+   * @param categoriesParam the number of imported categories
+   * @param operationsParam the number of imported operations
+   * @param elapsedNanosParam the duration of the import in nanoseconds
+   */
+  public ImportStatistics(final long accountsParam, final long categoriesParam,
+                          final long operationsParam, final long elapsedNanosParam) {
+    this.accounts = accountsParam;
+    this.categories = categoriesParam;
+    this.operations = operationsParam;
+    this.elapsedNanos = elapsedNanosParam;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public long getCategories() {
+    return categories;
+  }
+
+  public long getOperations() {
+    return operations;
+  }
+
+  public long getEntities() {
+    return accounts + categories + operations;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the import throughput.
+   *
+   * @return imported entities per second
+   */
+  public double getEntitiesPerSecond() {
+    if (elapsedNanos == 0) {
+      return 0;
+    }
+    return getEntities() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+}
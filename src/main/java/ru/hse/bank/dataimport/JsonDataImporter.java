@@ -1,11 +1,14 @@
 package ru.hse.bank.dataimport;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.List;
+import java.io.InputStream;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.stereotype.Component;
 
 import ru.hse.bank.facade.BankAccountFacade;
@@ -17,8 +20,8 @@ import ru.hse.bank.model.Operation;
 
 /**
  * JsonDataImporter is a class that imports data from a JSON file.
- * It extends the DataImporter class and implements the abstract methods
- * for parsing the data from the JSON file.
+ * It extends the DataImporter class and implements the parsing of the JSON file
+ * in a single streaming pass.
  */
 @Component
 public class JsonDataImporter extends DataImporter {
@@ -40,32 +43,51 @@ public class JsonDataImporter extends DataImporter {
     this.objectMapper = objectMapperParam;
   }
 
+  /**
+   * Reads the JSON document token by token with a Jackson {@link JsonParser}
+   * and hands every entity to the handler as soon as it has been read.
+   * Sections are processed in file order, so accounts and categories should precede operations,
+   * as they do in files written by the exporter.
+   */
   @Override
-  protected String readFile(final Path filePath) throws IOException {
-    return Files.readString(filePath);
-  }
-
-  @Override
-  protected List<BankAccount> parseAccounts(final String content) throws IOException {
-    ImportData data = objectMapper.readValue(content, ImportData.class);
-    return data.accounts;
-  }
-
-  @Override
-  protected List<Category> parseCategories(final String content) throws IOException {
-    ImportData data = objectMapper.readValue(content, ImportData.class);
-    return data.categories;
-  }
-
-  @Override
-  protected List<Operation> parseOperations(final String content) throws IOException {
-    ImportData data = objectMapper.readValue(content, ImportData.class);
-    return data.operations;
+  protected void parseStream(final InputStream input, final EntityHandler handler)
+      throws IOException {
+    try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Ожидался JSON-объект");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String section = parser.currentName();
+        parser.nextToken();
+        switch (section) {
+          case "accounts":
+            readArray(parser, BankAccount.class, handler::account);
+            break;
+          case "categories":
+            readArray(parser, Category.class, handler::category);
+            break;
+          case "operations":
+            readArray(parser, Operation.class, handler::operation);
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+    }
   }
 
-  private static class ImportData {
-    public List<BankAccount> accounts;
-    public List<Category> categories;
-    public List<Operation> operations;
+  private <T> void readArray(final JsonParser parser, final Class<T> type,
+                             final Consumer<T> consumer) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+      return;
+    }
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new JsonParseException(parser, "Ожидался JSON-массив");
+    }
+    ObjectReader reader = objectMapper.readerFor(type);
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      consumer.accept(reader.readValue(parser));
+    }
   }
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package ru.hse.bank.dataimport;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Handler that ignores every entity type its subclass does not override.
+ * Used by readers that extract only some sections of a streamed file.
+ */
+abstract class SectionHandler implements EntityHandler {
+  @Override
+  public void account(final BankAccount account) {
+  }
+
+  @Override
+  public void category(final Category category) {
+  }
+
+  @Override
+  public void operation(final Operation operation) {
+  }
+}
@@ -0,0 +1,71 @@
+package ru.hse.bank.dataimport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import ru.hse.bank.model.CategoryType;
+
+/**
+ * Conversions of field values read by text-based importers.
+ * Null and empty values are read as missing. Malformed values cause
+ * {@link IllegalArgumentException} or {@link java.time.DateTimeException}.
+ */
+final class TextValues {
+  private TextValues() {
+  }
+
+  static UUID toUuid(final String value) {
+    return isMissing(value) ? null : UUID.fromString(value);
+  }
+
+  static BigDecimal toAmount(final String value) {
+    return isMissing(value) ? null : new BigDecimal(value);
+  }
+
+  static CategoryType toType(final String value) {
+    return isMissing(value) ? null : CategoryType.valueOf(value);
+  }
+
+  /**
+   * Parses an ISO-8601 local date-time. The yyyy-MM-ddTHH:mm[:ss] forms written by
+   * {@link LocalDateTime#toString()} are read field by field, which is much cheaper than
+   * {@link LocalDateTime#parse(CharSequence)}; other forms fall back to it.
+   */
+  static LocalDateTime toDate(final String value) {
+    if (isMissing(value)) {
+      return null;
+    }
+    int length = value.length();
+    if ((length == 16 || length == 19 && value.charAt(16) == ':')
+        && value.charAt(4) == '-' && value.charAt(7) == '-'
+        && value.charAt(10) == 'T' && value.charAt(13) == ':') {
+      int year = digits(value, 0, 4);
+      int month = digits(value, 5, 7);
+      int day = digits(value, 8, 10);
+      int hour = digits(value, 11, 13);
+      int minute = digits(value, 14, 16);
+      int second = length == 19 ? digits(value, 17, 19) : 0;
+      if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0) {
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+      }
+    }
+    return LocalDateTime.parse(value);
+  }
+
+  private static boolean isMissing(final String value) {
+    return value == null || value.isEmpty();
+  }
+
+  private static int digits(final String value, final int from, final int to) {
+    int result = 0;
+    for (int i = from; i < to; i++) {
+      int digit = value.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      result = result * 10 + digit;
+    }
+    return result;
+  }
+}
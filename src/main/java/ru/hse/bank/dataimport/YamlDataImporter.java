@@ -0,0 +1,214 @@
+package ru.hse.bank.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * YamlDataImporter is a class that imports data from a YAML file.
+ * It reads the document through the snakeyaml event API, so only the entity being read
+ * is kept in memory. The document is expected to have the structure written by
+ * {@link ru.hse.bank.export.YamlStreamingDataVisitor}.
+ */
+@Component
+public class YamlDataImporter extends DataImporter {
+  private final Resolver resolver = new Resolver();
+
+  /**
+   * Constructor for YamlDataImporter.
+   *
+   * @param bankAccountFacadeParam the bank account facade to use for creating bank accounts
+   * @param categoryFacadeParam the category facade to use for creating categories
+   * @param operationFacadeParam the operation facade to use for creating operations
+   */
+  public YamlDataImporter(final BankAccountFacade bankAccountFacadeParam,
+                          final CategoryFacade categoryFacadeParam,
+                          final OperationFacade operationFacadeParam) {
+    super(bankAccountFacadeParam, categoryFacadeParam, operationFacadeParam);
+  }
+
+  /**
+   * Reads the document event by event and hands every entity to the handler
+   * as soon as its mapping has been read.
+   */
+  @Override
+  protected void parseStream(final InputStream input, final EntityHandler handler)
+      throws IOException {
+    readDocument(new InputStreamReader(input, StandardCharsets.UTF_8), handler);
+  }
+
+  private void readDocument(final Reader source, final EntityHandler handler)
+      throws IOException {
+    LoaderOptions options = new LoaderOptions();
+    options.setCodePointLimit(Integer.MAX_VALUE);
+    Iterator<Event> events = new Yaml(options).parse(source).iterator();
+    try {
+      expect(events.next(), Event.ID.StreamStart);
+      Event document = events.next();
+      if (document.is(Event.ID.StreamEnd)) {
+        return;
+      }
+      expect(document, Event.ID.DocumentStart);
+      expect(events.next(), Event.ID.MappingStart);
+      Event key;
+      while ((key = events.next()).getEventId() == Event.ID.Scalar) {
+        switch (((ScalarEvent) key).getValue()) {
+          case "accounts":
+            readSequence(events, fields -> handler.account(toAccount(fields)));
+            break;
+          case "categories":
+            readSequence(events, fields -> handler.category(toCategory(fields)));
+            break;
+          case "operations":
+            readSequence(events, fields -> handler.operation(toOperation(fields)));
+            break;
+          default:
+            skipNode(events, events.next());
+            break;
+        }
+      }
+      if (key.getEventId() != Event.ID.MappingEnd) {
+        throw new IOException("Некорректный YAML-документ: " + key);
+      }
+    } catch (YAMLException exception) {
+      throw new IOException("Некорректный YAML-документ", exception);
+    }
+  }
+
+  private void readSequence(final Iterator<Event> events, final EntityReader reader)
+      throws IOException {
+    Event start = events.next();
+    if (isNull(start)) {
+      return;
+    }
+    if (start.getEventId() != Event.ID.SequenceStart) {
+      throw new IOException("Ожидалась YAML-последовательность: " + start);
+    }
+    Event item;
+    while ((item = events.next()).getEventId() != Event.ID.SequenceEnd) {
+      if (item.getEventId() != Event.ID.MappingStart) {
+        throw new IOException("Ожидалось YAML-отображение: " + item);
+      }
+      reader.read(readFields(events));
+    }
+  }
+
+  private Map<String, String> readFields(final Iterator<Event> events) throws IOException {
+    Map<String, String> fields = new HashMap<>();
+    Event key;
+    while ((key = events.next()).getEventId() != Event.ID.MappingEnd) {
+      Event value = events.next();
+      if (key.getEventId() != Event.ID.Scalar || value.getEventId() != Event.ID.Scalar) {
+        throw new IOException("Ожидалось скалярное значение поля: " + value);
+      }
+      if (!isNull(value)) {
+        fields.put(((ScalarEvent) key).getValue(), ((ScalarEvent) value).getValue());
+      }
+    }
+    return fields;
+  }
+
+  private static void skipNode(final Iterator<Event> events, final Event start) {
+    int depth = 0;
+    Event event = start;
+    while (true) {
+      if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+        depth++;
+      } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+        depth--;
+      }
+      if (depth == 0) {
+        return;
+      }
+      event = events.next();
+    }
+  }
+
+  private boolean isNull(final Event event) {
+    if (!(event instanceof ScalarEvent)) {
+      return false;
+    }
+    ScalarEvent scalar = (ScalarEvent) event;
+    return scalar.getScalarStyle() == DumperOptions.ScalarStyle.PLAIN
+        && scalar.getImplicit().canOmitTagInPlainScalar()
+        && resolver.resolve(NodeId.scalar, scalar.getValue(), true).equals(Tag.NULL);
+  }
+
+  private static void expect(final Event event, final Event.ID id) throws IOException {
+    if (event.getEventId() != id) {
+      throw new IOException("Некорректный YAML-документ: " + event);
+    }
+  }
+
+  private static BankAccount toAccount(final Map<String, String> fields) throws IOException {
+    try {
+      return BankAccount.builder()
+          .id(TextValues.toUuid(fields.get("id")))
+          .name(fields.get("name"))
+          .balance(TextValues.toAmount(fields.get("balance")))
+          .build();
+    } catch (IllegalArgumentException exception) {
+      throw new IOException("Некорректный счет в YAML: " + fields, exception);
+    }
+  }
+
+  private static Category toCategory(final Map<String, String> fields) throws IOException {
+    try {
+      return Category.builder()
+          .id(TextValues.toUuid(fields.get("id")))
+          .name(fields.get("name"))
+          .type(TextValues.toType(fields.get("type")))
+          .build();
+    } catch (IllegalArgumentException exception) {
+      throw new IOException("Некорректная категория в YAML: " + fields, exception);
+    }
+  }
+
+  private static Operation toOperation(final Map<String, String> fields) throws IOException {
+    try {
+      return Operation.builder()
+          .id(TextValues.toUuid(fields.get("id")))
+          .type(TextValues.toType(fields.get("type")))
+          .bankAccountId(TextValues.toUuid(fields.get("bankAccountId")))
+          .amount(TextValues.toAmount(fields.get("amount")))
+          .description(fields.get("description"))
+          .categoryId(TextValues.toUuid(fields.get("categoryId")))
+          .date(TextValues.toDate(fields.get("date")))
+          .build();
+    } catch (IllegalArgumentException | DateTimeException exception) {
+      throw new IOException("Некорректная операция в YAML: " + fields, exception);
+    }
+  }
+
+  /**
+   * Converts the fields of one mapping into an entity and passes it on.
+   */
+  @FunctionalInterface
+  private interface EntityReader {
+    void read(Map<String, String> fields) throws IOException;
+  }
+}
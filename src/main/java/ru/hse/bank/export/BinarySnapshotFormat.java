@@ -0,0 +1,40 @@
+package ru.hse.bank.export;
+
+/**
+ * Constants of the binary snapshot format.
+ * A snapshot starts with {@link #MAGIC} and {@link #VERSION} and continues with records.
+ * Every record is a type byte, the payload length as an int and the payload; the last
+ * record has type {@link #END} and an empty payload. A payload starts with a byte of
+ * presence flags; absent fields are not written. UUIDs are two longs, amounts are an
+ * unscaled long and an int scale (or, if they do not fit, a length-prefixed BigInteger
+ * and a scale), dates are UTC epoch seconds and nanoseconds, and strings are
+ * length-prefixed UTF-8 with length -1 for null. All numbers are big-endian.
+ * Exports made by {@link DeltaExporter} start with a {@link #CHECKPOINT} record holding
+ * the tracker epoch UUID, the sequence the export starts after (-1 for a full export) and
+ * the sequence it covers; deltas also contain {@link #DELETION} records holding the record
+ * type of the deleted entity and its UUID.
+ */
+public final class BinarySnapshotFormat {
+  public static final int MAGIC = 0x48534542;
+  public static final int VERSION = 1;
+  public static final int RECORD_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+  public static final byte END = 0;
+  public static final byte ACCOUNT = 1;
+  public static final byte CATEGORY = 2;
+  public static final byte OPERATION = 3;
+  public static final byte CHECKPOINT = 4;
+  public static final byte DELETION = 5;
+
+  public static final int HAS_ID = 1;
+  public static final int HAS_AMOUNT = 1 << 1;
+  public static final int HAS_ACCOUNT_ID = 1 << 2;
+  public static final int HAS_CATEGORY_ID = 1 << 3;
+  public static final int HAS_DATE = 1 << 4;
+
+  public static final byte COMPACT_AMOUNT = 0;
+  public static final byte BIG_AMOUNT = 1;
+
+  private BinarySnapshotFormat() {
+  }
+}
@@ -0,0 +1,223 @@
+package ru.hse.bank.export;
+
+import static ru.hse.bank.export.BinarySnapshotFormat.ACCOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.BIG_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.CATEGORY;
+import static ru.hse.bank.export.BinarySnapshotFormat.CHECKPOINT;
+import static ru.hse.bank.export.BinarySnapshotFormat.COMPACT_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.DELETION;
+import static ru.hse.bank.export.BinarySnapshotFormat.END;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_ACCOUNT_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_AMOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_CATEGORY_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_DATE;
+import static ru.hse.bank.export.BinarySnapshotFormat.HAS_ID;
+import static ru.hse.bank.export.BinarySnapshotFormat.MAGIC;
+import static ru.hse.bank.export.BinarySnapshotFormat.OPERATION;
+import static ru.hse.bank.export.BinarySnapshotFormat.RECORD_HEADER_SIZE;
+import static ru.hse.bank.export.BinarySnapshotFormat.VERSION;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Streaming visitor for exporting data to the binary snapshot format
+ * described in {@link BinarySnapshotFormat}.
+ * Records are encoded into a byte buffer that is written to a channel whenever it fills up.
+ */
+public class BinaryStreamingDataVisitor implements StreamingDataVisitor {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_FIXED_PAYLOAD = 128;
+
+  private WritableByteChannel channel;
+  private ByteBuffer buffer;
+  private int recordStart;
+
+  @Override
+  public void start(final OutputStream output) {
+    channel = Channels.newChannel(output);
+    buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    buffer.putInt(MAGIC).putInt(VERSION);
+  }
+
+  @Override
+  public void visit(final BankAccount account) throws IOException {
+    byte[] name = encode(account.getName());
+    BigDecimal balance = account.getBalance();
+    BigInteger unscaled = balance == null ? null : balance.unscaledValue();
+    beginRecord(ACCOUNT, MAX_FIXED_PAYLOAD + length(name) + length(unscaled));
+    buffer.put((byte) ((account.getId() != null ? HAS_ID : 0)
+        | (balance != null ? HAS_AMOUNT : 0)));
+    putUuid(account.getId());
+    putAmount(balance, unscaled);
+    putString(name);
+    endRecord();
+  }
+
+  @Override
+  public void visit(final Category category) throws IOException {
+    byte[] name = encode(category.getName());
+    beginRecord(CATEGORY, MAX_FIXED_PAYLOAD + length(name));
+    buffer.put((byte) (category.getId() != null ? HAS_ID : 0));
+    buffer.put(typeCode(category.getType()));
+    putUuid(category.getId());
+    putString(name);
+    endRecord();
+  }
+
+  @Override
+  public void visit(final Operation operation) throws IOException {
+    byte[] description = encode(operation.getDescription());
+    boolean compact = operation.hasCompactAmount();
+    BigDecimal amount = compact ? null : operation.getAmount();
+    BigInteger unscaled = amount == null ? null : amount.unscaledValue();
+    beginRecord(OPERATION, MAX_FIXED_PAYLOAD + length(description) + length(unscaled));
+    buffer.put((byte) ((operation.getId() != null ? HAS_ID : 0)
+        | (operation.hasAmount() ? HAS_AMOUNT : 0)
+        | (operation.getBankAccountId() != null ? HAS_ACCOUNT_ID : 0)
+        | (operation.getCategoryId() != null ? HAS_CATEGORY_ID : 0)
+        | (operation.getDate() != null ? HAS_DATE : 0)));
+    buffer.put(typeCode(operation.getType()));
+    putUuid(operation.getId());
+    putUuid(operation.getBankAccountId());
+    putUuid(operation.getCategoryId());
+    if (compact) {
+      putCompactAmount(operation.amountUnits(), operation.amountScale());
+    } else {
+      putAmount(amount, unscaled);
+    }
+    putDate(operation.getDate());
+    putString(description);
+    endRecord();
+  }
+
+  /**
+   * Writes the checkpoint record that starts a full or delta export.
+   *
+   * @param since the checkpoint a delta starts after, or null for a full export
+   * @param upTo the checkpoint the export covers
+   * @throws IOException if an I/O error occurs
+   */
+  public void visitCheckpoint(final ExportCheckpoint since, final ExportCheckpoint upTo)
+      throws IOException {
+    beginRecord(CHECKPOINT, MAX_FIXED_PAYLOAD);
+    putUuid(upTo.getEpoch());
+    buffer.putLong(since == null ? -1 : since.getSequence()).putLong(upTo.getSequence());
+    endRecord();
+  }
+
+  /**
+   * Writes a deletion record of a delta export.
+   *
+   * @param type the record type of the deleted entity
+   * @param id the ID of the deleted entity
+   * @throws IOException if an I/O error occurs
+   */
+  public void visitDeletion(final byte type, final UUID id) throws IOException {
+    beginRecord(DELETION, MAX_FIXED_PAYLOAD);
+    buffer.put(type);
+    putUuid(id);
+    endRecord();
+  }
+
+  @Override
+  public void finish() throws IOException {
+    beginRecord(END, 0);
+    endRecord();
+    flush();
+  }
+
+  private void beginRecord(final byte type, final int maxPayload) throws IOException {
+    int needed = RECORD_HEADER_SIZE + maxPayload;
+    if (buffer.remaining() < needed) {
+      flush();
+      if (buffer.capacity() < needed) {
+        buffer = ByteBuffer.allocate(needed);
+      }
+    }
+    recordStart = buffer.position();
+    buffer.put(type).putInt(0);
+  }
+
+  private void endRecord() {
+    buffer.putInt(recordStart + Byte.BYTES, buffer.position() - recordStart - RECORD_HEADER_SIZE);
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private void putUuid(final UUID id) {
+    if (id != null) {
+      buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+  }
+
+  private void putAmount(final BigDecimal amount, final BigInteger unscaled) {
+    if (amount == null) {
+      return;
+    }
+    if (unscaled.bitLength() < Long.SIZE) {
+      putCompactAmount(unscaled.longValue(), amount.scale());
+    } else {
+      byte[] bytes = unscaled.toByteArray();
+      buffer.put(BIG_AMOUNT).putInt(bytes.length).put(bytes).putInt(amount.scale());
+    }
+  }
+
+  private void putCompactAmount(final long units, final int scale) {
+    buffer.put(COMPACT_AMOUNT).putLong(units).putInt(scale);
+  }
+
+  private void putDate(final LocalDateTime date) {
+    if (date != null) {
+      buffer.putLong(date.toEpochSecond(ZoneOffset.UTC)).putInt(date.getNano());
+    }
+  }
+
+  private void putString(final byte[] value) {
+    if (value == null) {
+      buffer.putInt(-1);
+    } else {
+      buffer.putInt(value.length).put(value);
+    }
+  }
+
+  private static byte typeCode(final CategoryType type) {
+    return (byte) (type == null ? 0 : type.ordinal() + 1);
+  }
+
+  private static byte[] encode(final String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int length(final byte[] value) {
+    return value == null ? 0 : value.length;
+  }
+
+  /**
+   * Returns the size of the unscaled value of an amount that does not fit into a long.
+   */
+  private static int length(final BigInteger unscaled) {
+    return unscaled == null || unscaled.bitLength() < Long.SIZE
+        ? 0 : unscaled.bitLength() / Byte.SIZE + 1;
+  }
+}
@@ -0,0 +1,254 @@
+package ru.hse.bank.export;
+
+import static ru.hse.bank.export.BinarySnapshotFormat.ACCOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.CATEGORY;
+import static ru.hse.bank.export.BinarySnapshotFormat.OPERATION;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+import ru.hse.bank.facade.ChangeJournal;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Change journal decorator that remembers which entities the changes passing through it
+ * touch, so that {@link DeltaExporter} can export only the entities changed since a checkpoint.
+ * Posting or cancelling an operation also counts as a change of its account, whose balance
+ * it modifies. Changes are keyed on the positions the journal behind the tracker returns,
+ * so checkpoints issued on top of a persistent journal stay valid across restarts, provided
+ * the tracker sees the journal replayed; with a journal that returns no positions the
+ * tracker numbers the changes itself and checkpoints are valid only within its lifetime.
+ * The change log is kept in memory until {@link #discardThrough} drops the part that no
+ * longer needs to be exported.
+ */
+public class ChangeTracker implements ChangeJournal {
+  private final ChangeJournal delegate;
+  private final UUID epoch;
+  private final NavigableMap<Long, Change[]> changes = new TreeMap<>();
+  private long sequence;
+  private long discardedThrough;
+
+  /**
+   * Creates a tracker whose checkpoints are valid only within its lifetime.
+   *
+   * @param delegateParam the journal that changes are passed on to
+   */
+  public ChangeTracker(final ChangeJournal delegateParam) {
+    this(delegateParam, UUID.randomUUID());
+  }
+
+  /**
+   * Creates a tracker whose checkpoints are valid for a journal.
+   *
+   * @param delegateParam the journal that changes are passed on to
+   * @param journalIdParam the ID of the journal, which identifies the sequence of its positions
+   */
+  public ChangeTracker(final ChangeJournal delegateParam, final UUID journalIdParam) {
+    this.delegate = delegateParam;
+    this.epoch = journalIdParam;
+  }
+
+  @Override
+  public long accountSaved(final BankAccount account) {
+    return record(() -> delegate.accountSaved(account),
+        new Change(ACCOUNT, account.getId(), false));
+  }
+
+  @Override
+  public long accountDeleted(final UUID id) {
+    return record(() -> delegate.accountDeleted(id), new Change(ACCOUNT, id, true));
+  }
+
+  @Override
+  public long categorySaved(final Category category) {
+    return record(() -> delegate.categorySaved(category),
+        new Change(CATEGORY, category.getId(), false));
+  }
+
+  @Override
+  public long categoryDeleted(final UUID id) {
+    return record(() -> delegate.categoryDeleted(id), new Change(CATEGORY, id, true));
+  }
+
+  @Override
+  public long operationPosted(final Operation operation) {
+    return record(() -> delegate.operationPosted(operation),
+        new Change(OPERATION, operation.getId(), false),
+        new Change(ACCOUNT, operation.getBankAccountId(), false));
+  }
+
+  @Override
+  public synchronized long operationsPosted(final List<Operation> operations) {
+    long position = delegate.operationsPosted(operations);
+    long first = Math.max(sequence + 1, position - operations.size() + 1);
+    for (Operation operation : operations) {
+      changes.put(first, new Change[] {
+          new Change(OPERATION, operation.getId(), false),
+          new Change(ACCOUNT, operation.getBankAccountId(), false)});
+      first++;
+    }
+    sequence = first - 1;
+    return position;
+  }
+
+  @Override
+  public long operationLoaded(final Operation operation) {
+    return record(() -> delegate.operationLoaded(operation),
+        new Change(OPERATION, operation.getId(), false));
+  }
+
+  @Override
+  public long operationDeleted(final Operation operation) {
+    return record(() -> delegate.operationDeleted(operation),
+        new Change(OPERATION, operation.getId(), true),
+        new Change(ACCOUNT, operation.getBankAccountId(), false));
+  }
+
+  @Override
+  public long snapshotAttached(final Path filePath, final int operations) {
+    return discardAll(() -> delegate.snapshotAttached(filePath, operations));
+  }
+
+  @Override
+  public long snapshotDetached() {
+    return discardAll(delegate::snapshotDetached);
+  }
+
+  @Override
+  public void awaitDurable(final long position) {
+    delegate.awaitDurable(position);
+  }
+
+  /**
+   * Returns a checkpoint covering every change recorded so far.
+   *
+   * @return the current checkpoint
+   */
+  public synchronized ExportCheckpoint checkpoint() {
+    return new ExportCheckpoint(epoch, sequence);
+  }
+
+  /**
+   * Drops the changes covered by a checkpoint, typically after a full export or a delta
+   * made since it. Deltas since earlier checkpoints can no longer be computed afterwards.
+   *
+   * @param checkpoint the checkpoint to discard the changes up to
+   */
+  public synchronized void discardThrough(final ExportCheckpoint checkpoint) {
+    checkEpoch(checkpoint);
+    changes.headMap(checkpoint.getSequence(), true).clear();
+    discardedThrough = Math.max(discardedThrough, checkpoint.getSequence());
+  }
+
+  /**
+   * Returns the entities changed after one checkpoint and up to another. An entity changed
+   * several times is returned once, with its last change.
+   *
+   * @param since the checkpoint of the previous export
+   * @param upTo the checkpoint the delta ends at
+   * @return the changes in the order of their last occurrence
+   * @throws IllegalArgumentException if a checkpoint was issued for another journal, or
+   *     the changes after {@code since} have been discarded
+   */
+  synchronized Collection<Change> changesBetween(final ExportCheckpoint since,
+                                                 final ExportCheckpoint upTo) {
+    checkEpoch(since);
+    checkEpoch(upTo);
+    if (since.getSequence() < discardedThrough) {
+      throw new IllegalArgumentException(
+          "Изменения после контрольной точки уже удалены, нужен полный экспорт");
+    }
+    Map<Change, Change> latest = new LinkedHashMap<>();
+    for (Change[] changed : changes.subMap(since.getSequence(), false, upTo.getSequence(), true)
+        .values()) {
+      for (Change change : changed) {
+        Change entity = new Change(change.getType(), change.getId(), false);
+        latest.remove(entity);
+        latest.put(entity, change);
+      }
+    }
+    return latest.values();
+  }
+
+  /**
+   * Passes a change on to the journal and records it at the returned position. Both happen
+   * under the lock, so positions are recorded in increasing order and a checkpoint never
+   * precedes a change it covers.
+   */
+  private synchronized long record(final LongSupplier journaled, final Change... changed) {
+    long position = journaled.getAsLong();
+    sequence = Math.max(sequence + 1, position);
+    changes.put(sequence, changed);
+    return position;
+  }
+
+  /**
+   * Makes every earlier checkpoint require a full export: the operations of an attached or
+   * detached snapshot change at once and are not recorded one by one.
+   */
+  private synchronized long discardAll(final LongSupplier journaled) {
+    long position = journaled.getAsLong();
+    sequence = Math.max(sequence + 1, position);
+    changes.clear();
+    discardedThrough = sequence;
+    return position;
+  }
+
+  private void checkEpoch(final ExportCheckpoint checkpoint) {
+    if (!epoch.equals(checkpoint.getEpoch())) {
+      throw new IllegalArgumentException(
+          "Контрольная точка относится к другому журналу, нужен полный экспорт");
+    }
+  }
+
+  /**
+   * A change of an entity, identified by its record type in the binary snapshot format.
+   */
+  static final class Change {
+    private final byte type;
+    private final UUID id;
+    private final boolean deleted;
+
+    Change(final byte typeParam, final UUID idParam, final boolean deletedParam) {
+      this.type = typeParam;
+      this.id = idParam;
+      this.deleted = deletedParam;
+    }
+
+    byte getType() {
+      return type;
+    }
+
+    UUID getId() {
+      return id;
+    }
+
+    boolean isDeleted() {
+      return deleted;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (!(other instanceof Change)) {
+        return false;
+      }
+      Change change = (Change) other;
+      return type == change.type && id.equals(change.id) && deleted == change.deleted;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, id, deleted);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package ru.hse.bank.export;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of export files.
+ * Exports compress on the fly: the visitor writes into the compressing stream, so no
+ * uncompressed copy of the file is ever held in memory or written to disk. Imports detect
+ * the compression from the first bytes of the file with {@link #open(Path)}.
+ */
+public enum Compression {
+  NONE {
+    @Override
+    public OutputStream compress(final OutputStream output) {
+      return output;
+    }
+
+    @Override
+    public InputStream decompress(final InputStream input) {
+      return input;
+    }
+  },
+
+  /**
+   * GZIP at the fastest deflate level: exports of large ledgers are limited by the time
+   * spent compressing long before the extra few percent of size matter.
+   */
+  GZIP {
+    @Override
+    public OutputStream compress(final OutputStream output) throws IOException {
+      return new GZIPOutputStream(output, BUFFER_SIZE) {
+        {
+          def.setLevel(Deflater.BEST_SPEED);
+        }
+      };
+    }
+
+    @Override
+    public InputStream decompress(final InputStream input) throws IOException {
+      return new GZIPInputStream(input, BUFFER_SIZE);
+    }
+  };
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final String GZIP_EXTENSION = ".gz";
+
+  /**
+   * Wraps a stream so that the bytes written to it are compressed. Closing the returned
+   * stream finishes the compressed data and closes the given stream.
+   *
+   * @param output the stream receiving compressed bytes
+   * @return the stream to write uncompressed bytes to
+   * @throws IOException if an I/O error occurs
+   */
+  public abstract OutputStream compress(OutputStream output) throws IOException;
+
+  /**
+   * Wraps a stream of compressed bytes so that reading it returns the uncompressed ones.
+   *
+   * @param input the stream of compressed bytes
+   * @return the stream to read uncompressed bytes from
+   * @throws IOException if an I/O error occurs or the stream is not compressed
+   */
+  public abstract InputStream decompress(InputStream input) throws IOException;
+
+  /**
+   * Returns the compression selected by the extension of a file: {@link #GZIP} for
+   * {@code .gz} files, {@link #NONE} otherwise.
+   *
+   * @param filePath the path to the file
+   * @return the compression for the file
+   */
+  public static Compression forFile(final Path filePath) {
+    Path fileName = filePath.getFileName();
+    return fileName != null && fileName.toString().toLowerCase().endsWith(GZIP_EXTENSION)
+        ? GZIP : NONE;
+  }
+
+  /**
+   * Opens a file for buffered reading, decompressing it if it starts with the GZIP magic
+   * number, whatever its extension.
+   *
+   * @param filePath the path to the file
+   * @return the stream of uncompressed bytes
+   * @throws IOException if an I/O error occurs
+   */
+  public static InputStream open(final Path filePath) throws IOException {
+    PushbackInputStream input = new PushbackInputStream(Files.newInputStream(filePath), 2);
+    try {
+      byte[] magic = input.readNBytes(2);
+      input.unread(magic);
+      boolean gzip = magic.length == 2
+          && ((magic[0] & 0xff) | (magic[1] & 0xff) << 8) == GZIPInputStream.GZIP_MAGIC;
+      return new BufferedInputStream((gzip ? GZIP : NONE).decompress(input), BUFFER_SIZE);
+    } catch (IOException exception) {
+      input.close();
+      throw exception;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package ru.hse.bank.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import com.opencsv.CSVWriterBuilder;
+import com.opencsv.ICSVWriter;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Streaming visitor for exporting data to CSV format.
+ * Every entity is written as one row whose first column is the record type:
+ * <pre>
+ * ACCOUNT,id,name,balance
+ * CATEGORY,id,name,type
+ * OPERATION,id,type,bankAccountId,amount,description,categoryId,date
+ * </pre>
+ * Fields are quoted only when they contain a separator, a quote or a line break;
+ * missing values are written as empty fields.
+ */
+public class CsvStreamingDataVisitor implements StreamingDataVisitor {
+  private static final String ACCOUNT = "ACCOUNT";
+  private static final String CATEGORY = "CATEGORY";
+  private static final String OPERATION = "OPERATION";
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final String[] accountRow = new String[4];
+  private final String[] categoryRow = new String[4];
+  private final String[] operationRow = new String[8];
+  private ICSVWriter writer;
+
+  /**
+   * Constructor for CsvStreamingDataVisitor.
+   */
+  public CsvStreamingDataVisitor() {
+    accountRow[0] = ACCOUNT;
+    categoryRow[0] = CATEGORY;
+    operationRow[0] = OPERATION;
+  }
+
+  @Override
+  public void start(final OutputStream output) {
+    writer = new CSVWriterBuilder(new BufferedWriter(
+        new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE)).build();
+  }
+
+  @Override
+  public void visit(final BankAccount account) {
+    accountRow[1] = toText(account.getId());
+    accountRow[2] = account.getName();
+    accountRow[3] = toText(account.getBalance());
+    writer.writeNext(accountRow, false);
+  }
+
+  @Override
+  public void visit(final Category category) {
+    categoryRow[1] = toText(category.getId());
+    categoryRow[2] = category.getName();
+    categoryRow[3] = toText(category.getType());
+    writer.writeNext(categoryRow, false);
+  }
+
+  @Override
+  public void visit(final Operation operation) {
+    operationRow[1] = toText(operation.getId());
+    operationRow[2] = toText(operation.getType());
+    operationRow[3] = toText(operation.getBankAccountId());
+    operationRow[4] = toText(operation.getAmount());
+    operationRow[5] = operation.getDescription();
+    operationRow[6] = toText(operation.getCategoryId());
+    operationRow[7] = toText(operation.getDate());
+    writer.writeNext(operationRow, false);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    writer.flush();
+  }
+
+  private static String toText(final BigDecimal value) {
+    return value == null ? null : value.toPlainString();
+  }
+
+  private static String toText(final Object value) {
+    return value == null ? null : value.toString();
+  }
+}
@@ -1,14 +1,31 @@
 package ru.hse.bank.export;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.springframework.stereotype.Component;
 
 import ru.hse.bank.facade.BankAccountFacade;
 import ru.hse.bank.facade.CategoryFacade;
 import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
 
 /**
  * Represents a data exporter that exports data to a file.
@@ -17,6 +34,8 @@ import ru.hse.bank.facade.OperationFacade;
  */
 @Component
 public class DataExporter {
+  private static final int BUFFER_SIZE = 1 << 16;
+
   private final BankAccountFacade bankAccountFacade;
   private final CategoryFacade categoryFacade;
   private final OperationFacade operationFacade;
@@ -38,7 +57,7 @@ public class DataExporter {
   }
 
   /**
-   * Exports data to a file.
+   * Exports data to a file, compressed if its extension is {@code .gz}.
    *
    * @param filePath the path to the file
    * @param visitor the data visitor
@@ -47,9 +66,193 @@ public class DataExporter {
   public void exportData(final Path filePath, final DataVisitor visitor) throws IOException {
     bankAccountFacade.getAllAccounts().forEach(visitor::visit);
     categoryFacade.getAllCategories().forEach(visitor::visit);
-    operationFacade.getAllOperations().forEach(visitor::visit);
+    operationFacade.forEachOperation(visitor::visit);
 
     String result = visitor.getResult();
-    Files.writeString(filePath, result);
+    try (OutputStream output = openFile(filePath, Compression.forFile(filePath))) {
+      output.write(result.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Exports data to a file, writing every entity as soon as it is visited.
+   * Memory use does not depend on the number of exported entities. The file is compressed
+   * if its extension is {@code .gz}.
+   *
+   * @param filePath the path to the file
+   * @param visitor the streaming data visitor
+   * @throws IOException if an I/O error occurs
+   */
+  public void exportData(final Path filePath, final StreamingDataVisitor visitor)
+      throws IOException {
+    exportData(filePath, visitor, Compression.forFile(filePath));
+  }
+
+  /**
+   * Exports data to a file, writing every entity as soon as it is visited and compressing
+   * the written bytes on the fly.
+   *
+   * @param filePath the path to the file
+   * @param visitor the streaming data visitor
+   * @param compression the compression of the file
+   * @throws IOException if an I/O error occurs
+   */
+  public void exportData(final Path filePath, final StreamingDataVisitor visitor,
+                         final Compression compression) throws IOException {
+    try (OutputStream output = openFile(filePath, compression)) {
+      visitor.start(output);
+      for (BankAccount account : bankAccountFacade.getAllAccounts()) {
+        visitor.visit(account);
+      }
+      for (Category category : categoryFacade.getAllCategories()) {
+        visitor.visit(category);
+      }
+      operationFacade.forEachOperation(operation -> {
+        try {
+          visitor.visit(operation);
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+      visitor.finish();
+    } catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  /**
+   * Exports data into part files written in parallel, plus a manifest listing them.
+   * The first part holds the accounts and categories; operations are partitioned by account
+   * into the other parts, each serialised by its own thread with its own visitor. The
+   * manifest is written last, so an export whose manifest exists is complete.
+   *
+   * @param directory the directory for the part files and the manifest
+   * @param visitors creates a visitor for every part
+   * @param extension the extension of the part files, such as {@code json} or
+   *     {@code csv.gz}, which also selects their compression
+   * @param partitions the number of operation parts
+   * @return the manifest of the export
+   * @throws IOException if an I/O error occurs
+   * @throws IllegalArgumentException if the number of parts is not positive
+   */
+  public ExportManifest exportPartitioned(final Path directory,
+                                          final Supplier<? extends StreamingDataVisitor> visitors,
+                                          final String extension, final int partitions)
+      throws IOException {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("Количество частей экспорта должно быть положительным");
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(partitions);
+    List<ExportManifest.Part> parts = new ArrayList<>();
+    try {
+      List<Future<ExportManifest.Part>> written = new ArrayList<>();
+      written.add(executor.submit(() -> exportPart(directory.resolve("catalog." + extension),
+          visitors.get(), visitor -> {
+            long entities = 0;
+            for (BankAccount account : bankAccountFacade.getAllAccounts()) {
+              visitor.visit(account);
+              entities++;
+            }
+            for (Category category : categoryFacade.getAllCategories()) {
+              visitor.visit(category);
+              entities++;
+            }
+            return entities;
+          })));
+      for (int i = 0; i < partitions; i++) {
+        int partition = i;
+        Path partPath = directory.resolve(String.format("operations-%03d.%s", i, extension));
+        written.add(executor.submit(() -> exportPart(partPath, visitors.get(), visitor -> {
+          long[] entities = new long[1];
+          operationFacade.forEachOperationInPartition(partition, partitions, operation -> {
+            try {
+              visitor.visit(operation);
+            } catch (IOException exception) {
+              throw new UncheckedIOException(exception);
+            }
+            entities[0]++;
+          });
+          return entities[0];
+        })));
+      }
+      for (Future<ExportManifest.Part> part : written) {
+        parts.add(part.get());
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Экспорт прерван");
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Ошибка экспорта", cause);
+    } finally {
+      executor.shutdownNow();
+    }
+    ExportManifest manifest = new ExportManifest(parts);
+    manifest.write(directory.resolve(ExportManifest.FILE_NAME));
+    return manifest;
+  }
+
+  /**
+   * Exports data to an operation snapshot that can be opened without loading its operations,
+   * see {@link OperationSnapshotWriter}.
+   *
+   * @param filePath the path to the file
+   * @throws IOException if an I/O error occurs
+   */
+  public void exportOperationSnapshot(final Path filePath) throws IOException {
+    List<Operation> operations = new ArrayList<>();
+    operationFacade.forEachOperation(operations::add);
+    new OperationSnapshotWriter().writeInPlace(filePath, bankAccountFacade.getAllAccounts(),
+        categoryFacade.getAllCategories(), operations);
+  }
+
+  private static ExportManifest.Part exportPart(final Path filePath,
+                                                final StreamingDataVisitor visitor,
+                                                final PartWriter writer) throws IOException {
+    long entities;
+    try (OutputStream output = openFile(filePath, Compression.forFile(filePath))) {
+      visitor.start(output);
+      entities = writer.write(visitor);
+      visitor.finish();
+    }
+    return new ExportManifest.Part(filePath.getFileName().toString(), entities);
+  }
+
+  /**
+   * Opens a file for buffered writing through the given compression.
+   *
+   * @param filePath the path to the file
+   * @param compression the compression of the file
+   * @return the stream to write uncompressed bytes to
+   * @throws IOException if an I/O error occurs
+   */
+  static OutputStream openFile(final Path filePath, final Compression compression)
+      throws IOException {
+    OutputStream file = Channels.newOutputStream(FileChannel.open(filePath,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING));
+    try {
+      return new BufferedOutputStream(compression.compress(file), BUFFER_SIZE);
+    } catch (IOException exception) {
+      file.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Writes the entities of a part and returns their number.
+   */
+  @FunctionalInterface
+  private interface PartWriter {
+    long write(StreamingDataVisitor visitor) throws IOException;
   }
-} 
\ No newline at end of file
+}
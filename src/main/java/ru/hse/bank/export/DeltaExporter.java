@@ -0,0 +1,195 @@
+package ru.hse.bank.export;
+
+import static ru.hse.bank.export.BinarySnapshotFormat.ACCOUNT;
+import static ru.hse.bank.export.BinarySnapshotFormat.CATEGORY;
+import static ru.hse.bank.export.BinarySnapshotFormat.CHECKPOINT;
+import static ru.hse.bank.export.BinarySnapshotFormat.MAGIC;
+import static ru.hse.bank.export.BinarySnapshotFormat.OPERATION;
+import static ru.hse.bank.export.BinarySnapshotFormat.VERSION;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Exports a full base snapshot and then deltas holding only the entities created, changed or
+ * deleted since the previous export, in the binary snapshot format.
+ * Files are compressed if their extension is {@code .gz}.
+ * Every export starts with a checkpoint record, so the next delta can be made from the file
+ * of the previous export, and a base and its deltas can be checked to form a chain when
+ * they are merged by {@link ru.hse.bank.dataimport.BinaryDataImporter#restoreData(Path,
+ * java.util.List)}.
+ */
+@Component
+public class DeltaExporter {
+  private final BankAccountFacade bankAccountFacade;
+  private final CategoryFacade categoryFacade;
+  private final OperationFacade operationFacade;
+  private final ChangeTracker changeTracker;
+
+  /**
+   * Constructor for DeltaExporter.
+   *
+   * @param bankAccountFacadeParam the bank account facade
+   * @param categoryFacadeParam the category facade
+   * @param operationFacadeParam the operation facade
+   * @param changeTrackerParam the tracker of the changes made through the facades
+   */
+  public DeltaExporter(final BankAccountFacade bankAccountFacadeParam,
+                       final CategoryFacade categoryFacadeParam,
+                       final OperationFacade operationFacadeParam,
+                       final ChangeTracker changeTrackerParam) {
+    this.bankAccountFacade = bankAccountFacadeParam;
+    this.categoryFacade = categoryFacadeParam;
+    this.operationFacade = operationFacadeParam;
+    this.changeTracker = changeTrackerParam;
+  }
+
+  /**
+   * Exports all data as the base of a new chain of deltas. Changes covered by the base
+   * are dropped from the tracker.
+   *
+   * @param filePath the path to the file
+   * @return the checkpoint covered by the export
+   * @throws IOException if an I/O error occurs
+   */
+  public ExportCheckpoint exportBase(final Path filePath) throws IOException {
+    ExportCheckpoint upTo = changeTracker.checkpoint();
+    try (OutputStream output = DataExporter.openFile(filePath, Compression.forFile(filePath))) {
+      BinaryStreamingDataVisitor visitor = new BinaryStreamingDataVisitor();
+      visitor.start(output);
+      visitor.visitCheckpoint(null, upTo);
+      for (BankAccount account : bankAccountFacade.getAllAccounts()) {
+        visitor.visit(account);
+      }
+      for (Category category : categoryFacade.getAllCategories()) {
+        visitor.visit(category);
+      }
+      operationFacade.forEachOperation(operation -> {
+        try {
+          visitor.visit(operation);
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      });
+      visitor.finish();
+    } catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+    changeTracker.discardThrough(upTo);
+    return upTo;
+  }
+
+  /**
+   * Exports the entities changed since the export stored in another file.
+   *
+   * @param filePath the path to the file
+   * @param previousExport the base or delta file of the previous export
+   * @return the checkpoint covered by the export
+   * @throws IOException if an I/O error occurs or the previous file has no checkpoint
+   * @throws IllegalArgumentException if the previous export was made for another journal, or
+   *     the changes since it are no longer tracked
+   */
+  public ExportCheckpoint exportDelta(final Path filePath, final Path previousExport)
+      throws IOException {
+    return exportDelta(filePath, readCheckpoint(previousExport));
+  }
+
+  /**
+   * Exports the entities changed since a checkpoint. Entities are written with their
+   * current state; deleted entities are written as deletion records. The changes up to the
+   * checkpoint the delta starts from are then dropped from the tracker, while the changes
+   * after it are kept: the next delta can be made since this export, or again since the same
+   * checkpoint if this export is lost, but no longer since an earlier checkpoint.
+   *
+   * @param filePath the path to the file
+   * @param since the checkpoint of the previous export
+   * @return the checkpoint covered by the export
+   * @throws IOException if an I/O error occurs
+   * @throws IllegalArgumentException if the checkpoint was issued for another journal, or
+   *     the changes since it are no longer tracked
+   */
+  public ExportCheckpoint exportDelta(final Path filePath, final ExportCheckpoint since)
+      throws IOException {
+    ExportCheckpoint upTo = changeTracker.checkpoint();
+    Iterable<ChangeTracker.Change> changes = changeTracker.changesBetween(since, upTo);
+    try (OutputStream output = DataExporter.openFile(filePath, Compression.forFile(filePath))) {
+      BinaryStreamingDataVisitor visitor = new BinaryStreamingDataVisitor();
+      visitor.start(output);
+      visitor.visitCheckpoint(since, upTo);
+      for (ChangeTracker.Change change : changes) {
+        if (change.isDeleted()) {
+          visitor.visitDeletion(change.getType(), change.getId());
+        } else {
+          writeCurrentState(visitor, change.getType(), change.getId());
+        }
+      }
+      visitor.finish();
+    }
+    changeTracker.discardThrough(since);
+    return upTo;
+  }
+
+  /**
+   * Reads the checkpoint an export file starts with.
+   *
+   * @param filePath the path to the base or delta file
+   * @return the checkpoint covered by the file
+   * @throws IOException if an I/O error occurs or the file does not start with a checkpoint
+   */
+  public static ExportCheckpoint readCheckpoint(final Path filePath) throws IOException {
+    try (InputStream input = Compression.open(filePath)) {
+      DataInputStream data = new DataInputStream(input);
+      if (data.readInt() != MAGIC || data.readInt() != VERSION || data.readByte() != CHECKPOINT) {
+        throw new IOException("Файл не содержит контрольной точки экспорта: " + filePath);
+      }
+      data.readInt();
+      UUID epoch = new UUID(data.readLong(), data.readLong());
+      data.readLong();
+      return new ExportCheckpoint(epoch, data.readLong());
+    }
+  }
+
+  /**
+   * Writes the current state of a changed entity; entities deleted in the meantime are
+   * skipped, their deletion is part of the next delta.
+   */
+  private void writeCurrentState(final BinaryStreamingDataVisitor visitor, final byte type,
+                                 final UUID id) throws IOException {
+    switch (type) {
+      case ACCOUNT:
+        BankAccount account = bankAccountFacade.getAccount(id);
+        if (account != null) {
+          visitor.visit(account);
+        }
+        break;
+      case CATEGORY:
+        Category category = categoryFacade.getCategory(id);
+        if (category != null) {
+          visitor.visit(category);
+        }
+        break;
+      case OPERATION:
+        Operation operation = operationFacade.getOperation(id);
+        if (operation != null) {
+          visitor.visit(operation);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Неизвестный тип записи: " + type);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package ru.hse.bank.export;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in the change sequence of a {@link ChangeTracker} up to which an export is complete.
+ * A checkpoint is only meaningful for the sequence it was issued in, which is identified by
+ * its epoch: the ID of the journal the tracker keys its changes on.
+ */
+public final class ExportCheckpoint {
+  private final UUID epoch;
+  private final long sequence;
+
+  /**
+   * Constructor for ExportCheckpoint.
+   *
+   * @param epochParam the ID of the change sequence that issued the checkpoint
+   * @param sequenceParam the last change sequence covered by the export
+   */
+  public ExportCheckpoint(final UUID epochParam, final long sequenceParam) {
+    this.epoch = epochParam;
+    this.sequence = sequenceParam;
+  }
+
+  public UUID getEpoch() {
+    return epoch;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof ExportCheckpoint)) {
+      return false;
+    }
+    ExportCheckpoint checkpoint = (ExportCheckpoint) other;
+    return epoch.equals(checkpoint.epoch) && sequence == checkpoint.sequence;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(epoch, sequence);
+  }
+
+  @Override
+  public String toString() {
+    return epoch + ":" + sequence;
+  }
+}
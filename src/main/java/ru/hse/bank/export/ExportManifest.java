@@ -0,0 +1,131 @@
+package ru.hse.bank.export;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifest of an export split into part files, written by
+ * {@link DataExporter#exportPartitioned} next to the parts once all of them are complete.
+ * It is a text file whose first line is {@link #HEADER} and every following line holds
+ * the name of a part file and the number of entities in it, separated by a space. The
+ * first part holds the accounts and categories, the others hold the operations of
+ * disjoint sets of accounts.
+ */
+public final class ExportManifest {
+  public static final String FILE_NAME = "manifest.txt";
+  public static final String HEADER = "hse-bank-parts 1";
+
+  private final List<Part> parts;
+
+  /**
+   * Constructor for ExportManifest.
+   *
+   * @param partsParam the parts of the export, the catalog part first
+   */
+  public ExportManifest(final List<Part> partsParam) {
+    this.parts = List.copyOf(partsParam);
+  }
+
+  /**
+   * Returns the parts of the export.
+   *
+   * @return the parts, the catalog part first
+   */
+  public List<Part> getParts() {
+    return parts;
+  }
+
+  /**
+   * Returns the total number of entities in all parts.
+   *
+   * @return the number of entities
+   */
+  public long getEntities() {
+    long entities = 0;
+    for (Part part : parts) {
+      entities += part.getEntities();
+    }
+    return entities;
+  }
+
+  /**
+   * Writes the manifest.
+   *
+   * @param filePath the path to the manifest file
+   * @throws IOException if an I/O error occurs
+   */
+  public void write(final Path filePath) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      for (Part part : parts) {
+        writer.write(part.getFileName() + " " + part.getEntities());
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * Reads a manifest.
+   *
+   * @param filePath the path to the manifest file
+   * @return the manifest
+   * @throws IOException if an I/O error occurs or the file is not a manifest
+   */
+  public static ExportManifest read(final Path filePath) throws IOException {
+    List<Part> parts = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+      if (!HEADER.equals(reader.readLine())) {
+        throw new IOException("Файл не является манифестом экспорта: " + filePath);
+      }
+      String line = reader.readLine();
+      while (line != null && !line.isEmpty()) {
+        int space = line.lastIndexOf(' ');
+        try {
+          parts.add(new Part(line.substring(0, Math.max(space, 0)),
+              Long.parseLong(line.substring(space + 1))));
+        } catch (NumberFormatException exception) {
+          throw new IOException("Некорректная строка манифеста: " + line, exception);
+        }
+        line = reader.readLine();
+      }
+    }
+    if (parts.isEmpty()) {
+      throw new IOException("Манифест не содержит частей: " + filePath);
+    }
+    return new ExportManifest(parts);
+  }
+
+  /**
+   * Part file of an export.
+   */
+  public static final class Part {
+    private final String fileName;
+    private final long entities;
+
+    /**
+     * Constructor for Part.
+     *
+     * @param fileNameParam the name of the file, relative to the directory of the manifest
+     * @param entitiesParam the number of entities in the file
+     */
+    public Part(final String fileNameParam, final long entitiesParam) {
+      this.fileName = fileNameParam;
+      this.entities = entitiesParam;
+    }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    public long getEntities() {
+      return entities;
+    }
+  }
+}
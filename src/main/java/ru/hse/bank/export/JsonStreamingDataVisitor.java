@@ -0,0 +1,97 @@
+package ru.hse.bank.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Streaming visitor for exporting data to JSON format.
+ * Writes every visited entity straight to a Jackson {@link JsonGenerator}, so memory use
+ * does not depend on the number of entities. The output is the same as {@link JsonDataVisitor}.
+ */
+public class JsonStreamingDataVisitor implements StreamingDataVisitor {
+  private static final String[] SECTIONS = {"accounts", "categories", "operations"};
+  private static final int ACCOUNTS = 0;
+  private static final int CATEGORIES = 1;
+  private static final int OPERATIONS = 2;
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter accountWriter;
+  private final ObjectWriter categoryWriter;
+  private final ObjectWriter operationWriter;
+  private JsonGenerator generator;
+  private int section;
+
+  /**
+   * Constructor for JsonStreamingDataVisitor.
+   *
+   * @param objectMapperParam the Jackson object mapper
+   */
+  public JsonStreamingDataVisitor(final ObjectMapper objectMapperParam) {
+    this.objectMapper = objectMapperParam;
+    this.accountWriter = writerFor(BankAccount.class);
+    this.categoryWriter = writerFor(Category.class);
+    this.operationWriter = writerFor(Operation.class);
+  }
+
+  @Override
+  public void start(final OutputStream output) throws IOException {
+    generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.writeStartObject();
+    section = -1;
+  }
+
+  @Override
+  public void visit(final BankAccount account) throws IOException {
+    enterSection(ACCOUNTS);
+    accountWriter.writeValue(generator, account);
+  }
+
+  @Override
+  public void visit(final Category category) throws IOException {
+    enterSection(CATEGORIES);
+    categoryWriter.writeValue(generator, category);
+  }
+
+  @Override
+  public void visit(final Operation operation) throws IOException {
+    enterSection(OPERATIONS);
+    operationWriter.writeValue(generator, operation);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    enterSection(OPERATIONS);
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.close();
+  }
+
+  private void enterSection(final int target) throws IOException {
+    if (target < section) {
+      throw new IllegalStateException("Сущности должны посещаться по типам: "
+          + "сначала счета, затем категории, затем операции");
+    }
+    while (section < target) {
+      if (section >= 0) {
+        generator.writeEndArray();
+      }
+      section++;
+      generator.writeArrayFieldStart(SECTIONS[section]);
+    }
+  }
+
+  private ObjectWriter writerFor(final Class<?> type) {
+    return objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+}
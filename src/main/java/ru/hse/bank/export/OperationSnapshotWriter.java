@@ -0,0 +1,282 @@
+package ru.hse.bank.export;
+
+import static ru.hse.bank.facade.OperationSnapshotFormat.BIG_AMOUNT;
+import static ru.hse.bank.facade.OperationSnapshotFormat.HAS_CATEGORY_ID;
+import static ru.hse.bank.facade.OperationSnapshotFormat.HEADER_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.INDEX_ENTRY_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.MAGIC;
+import static ru.hse.bank.facade.OperationSnapshotFormat.RECORD_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.VERSION;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import ru.hse.bank.facade.OperationSnapshotFormat;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.MoneyAccumulator;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Writes snapshots in the {@link OperationSnapshotFormat}, which
+ * {@link ru.hse.bank.facade.MappedOperationSnapshot} serves without loading them.
+ * The indexes are sorted in memory, so the written operations must fit into memory.
+ */
+public class OperationSnapshotWriter {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final Comparator<UUID> UUID_ORDER = Comparator
+      .comparingLong(UUID::getMostSignificantBits)
+      .thenComparingLong(UUID::getLeastSignificantBits);
+  private static final Comparator<Operation> CHRONOLOGICAL = Comparator
+      .comparing(Operation::getDate)
+      .thenComparing(Operation::getId, UUID_ORDER);
+
+  /**
+   * Writes a snapshot of the given entities. The snapshot is written to a temporary file
+   * next to the target and then moved into place, so a snapshot that is currently mapped
+   * from the target path keeps its old content instead of being truncated under the mapping.
+   *
+   * @param filePath the path to the snapshot file
+   * @param accounts the accounts to store in the catalog
+   * @param categories the categories to store in the catalog
+   * @param operations the operations to store as fixed-width records
+   * @throws IOException if an I/O error occurs
+   * @throws IllegalArgumentException if an operation lacks an ID, type, account, amount or date
+   */
+  public void write(final Path filePath, final Collection<BankAccount> accounts,
+                    final Collection<Category> categories,
+                    final Collection<Operation> operations) throws IOException {
+    writeInPlace(filePath, accounts, categories, new ArrayList<>(operations));
+  }
+
+  /**
+   * Writes a snapshot like {@link #write}, sorting the given list of operations in place
+   * instead of copying it first.
+   */
+  void writeInPlace(final Path filePath, final Collection<BankAccount> accounts,
+                    final Collection<Category> categories,
+                    final List<Operation> records) throws IOException {
+    for (Operation operation : records) {
+      if (operation.getId() == null || operation.getType() == null
+          || operation.getBankAccountId() == null || !operation.hasAmount()
+          || operation.getDate() == null) {
+        throw new IllegalArgumentException(
+            "Операция без идентификатора, типа, счета, суммы или даты не может быть записана");
+      }
+    }
+    Path directory = filePath.toAbsolutePath().getParent();
+    Path temporaryFile = Files.createTempFile(directory, filePath.getFileName() + ".", ".tmp");
+    try {
+      writeFile(temporaryFile, accounts, categories, records);
+      Files.move(temporaryFile, filePath, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException exception) {
+      Files.deleteIfExists(temporaryFile);
+      throw exception;
+    }
+  }
+
+  private static void writeFile(final Path filePath, final Collection<BankAccount> accounts,
+                                final Collection<Category> categories,
+                                final List<Operation> records) throws IOException {
+    records.sort(CHRONOLOGICAL);
+    List<Integer> byId = sortedRecords(records, Operation::getId);
+    List<Integer> byAccount = sortedRecords(records, Operation::getBankAccountId);
+    List<Integer> byCategory = sortedRecords(records, Operation::getCategoryId);
+
+    long idIndexOffset = HEADER_SIZE + (long) records.size() * RECORD_SIZE;
+    long accountIndexOffset = idIndexOffset + (long) records.size() * INDEX_ENTRY_SIZE;
+    long categoryIndexOffset = accountIndexOffset + (long) records.size() * INDEX_ENTRY_SIZE;
+    long heapOffset = categoryIndexOffset + (long) byCategory.size() * INDEX_ENTRY_SIZE;
+
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+          Channels.newOutputStream(channel), BUFFER_SIZE));
+      output.write(new byte[HEADER_SIZE]);
+      long heapSize = 0;
+      Map<UUID, Totals> totals = new LinkedHashMap<>();
+      for (Operation operation : records) {
+        heapSize = writeRecord(output, operation, heapSize);
+        if (operation.getCategoryId() != null) {
+          totals.computeIfAbsent(operation.getCategoryId(), id -> new Totals()).add(operation);
+        }
+      }
+      writeIndex(output, records, byId, Operation::getId);
+      writeIndex(output, records, byAccount, Operation::getBankAccountId);
+      writeIndex(output, records, byCategory, Operation::getCategoryId);
+      for (Operation operation : records) {
+        writeHeapEntries(output, operation);
+      }
+      writeTotals(output, totals);
+      output.flush();
+      long catalogOffset = channel.position();
+      BinaryStreamingDataVisitor catalog = new BinaryStreamingDataVisitor();
+      catalog.start(output);
+      for (BankAccount account : accounts) {
+        catalog.visit(account);
+      }
+      for (Category category : categories) {
+        catalog.visit(category);
+      }
+      catalog.finish();
+      output.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+          .putInt(MAGIC).putInt(VERSION).putLong(records.size())
+          .putLong(idIndexOffset).putLong(accountIndexOffset).putLong(categoryIndexOffset)
+          .putLong(heapOffset).putLong(heapOffset + heapSize).putLong(catalogOffset)
+          .flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+    }
+  }
+
+  /**
+   * Returns the numbers of the records that have a key, ordered by the key. Records with
+   * equal keys keep their chronological order.
+   */
+  private static List<Integer> sortedRecords(final List<Operation> records,
+                                             final Function<Operation, UUID> key) {
+    List<Integer> sorted = new ArrayList<>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      if (key.apply(records.get(i)) != null) {
+        sorted.add(i);
+      }
+    }
+    sorted.sort(Comparator.comparing(index -> key.apply(records.get(index)), UUID_ORDER));
+    return sorted;
+  }
+
+  /**
+   * Writes a fixed-width record and returns the heap size including its heap entries.
+   */
+  private static long writeRecord(final DataOutputStream output, final Operation operation,
+                                  final long heapSize) throws IOException {
+    long heapPosition = heapSize;
+    writeUuid(output, operation.getId());
+    writeUuid(output, operation.getBankAccountId());
+    writeUuid(output, operation.getCategoryId());
+    LocalDateTime date = operation.getDate();
+    output.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+    output.writeInt(date.getNano());
+
+    boolean big = !operation.hasCompactAmount();
+    if (big) {
+      BigDecimal amount = operation.getAmount();
+      output.writeLong(heapPosition);
+      heapPosition += Integer.BYTES + amount.unscaledValue().toByteArray().length;
+      output.writeInt(amount.scale());
+    } else {
+      output.writeLong(operation.amountUnits());
+      output.writeInt(operation.amountScale());
+    }
+
+    String description = operation.getDescription();
+    if (description == null) {
+      output.writeLong(0);
+      output.writeInt(-1);
+    } else {
+      int length = description.getBytes(StandardCharsets.UTF_8).length;
+      output.writeLong(heapPosition);
+      output.writeInt(length);
+      heapPosition += length;
+    }
+    output.writeByte(typeCode(operation.getType()));
+    output.writeByte((operation.getCategoryId() != null ? HAS_CATEGORY_ID : 0)
+        | (big ? BIG_AMOUNT : 0));
+    output.writeShort(0);
+    return heapPosition;
+  }
+
+  private static void writeHeapEntries(final DataOutputStream output, final Operation operation)
+      throws IOException {
+    if (!operation.hasCompactAmount()) {
+      byte[] bytes = operation.getAmount().unscaledValue().toByteArray();
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+    if (operation.getDescription() != null) {
+      output.write(operation.getDescription().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void writeIndex(final DataOutputStream output, final List<Operation> records,
+                                 final List<Integer> sorted,
+                                 final Function<Operation, UUID> key) throws IOException {
+    for (int index : sorted) {
+      writeUuid(output, key.apply(records.get(index)));
+      output.writeInt(index);
+    }
+  }
+
+  private static void writeTotals(final DataOutputStream output, final Map<UUID, Totals> totals)
+      throws IOException {
+    output.writeInt(totals.size());
+    for (Map.Entry<UUID, Totals> entry : totals.entrySet()) {
+      Totals categoryTotals = entry.getValue();
+      writeUuid(output, entry.getKey());
+      output.writeLong(categoryTotals.incomeCount);
+      output.writeLong(categoryTotals.expenseCount);
+      writeDecimal(output, categoryTotals.incomeSum.toBigDecimal());
+      writeDecimal(output, categoryTotals.expenseSum.toBigDecimal());
+    }
+  }
+
+  private static void writeUuid(final DataOutputStream output, final UUID id) throws IOException {
+    output.writeLong(id == null ? 0 : id.getMostSignificantBits());
+    output.writeLong(id == null ? 0 : id.getLeastSignificantBits());
+  }
+
+  private static void writeDecimal(final DataOutputStream output, final BigDecimal value)
+      throws IOException {
+    byte[] bytes = value.toString().getBytes(StandardCharsets.US_ASCII);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static int typeCode(final CategoryType type) {
+    return type.ordinal() + 1;
+  }
+
+  /**
+   * Income and expense totals of a category.
+   */
+  private static final class Totals {
+    private final MoneyAccumulator incomeSum = new MoneyAccumulator();
+    private final MoneyAccumulator expenseSum = new MoneyAccumulator();
+    private long incomeCount;
+    private long expenseCount;
+
+    private void add(final Operation operation) {
+      if (operation.getType() == CategoryType.INCOME) {
+        incomeSum.add(operation);
+        incomeCount++;
+      } else {
+        expenseSum.add(operation);
+        expenseCount++;
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package ru.hse.bank.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Visitor that writes visited objects to an output stream as they arrive,
+ * instead of collecting them into a single result.
+ * Objects are visited grouped by type: accounts first, then categories, then operations.
+ */
+public interface StreamingDataVisitor {
+  /**
+   * Starts writing to the output stream.
+   *
+   * @param output the stream to write to
+   * @throws IOException if an I/O error occurs
+   */
+  void start(OutputStream output) throws IOException;
+
+  /**
+   * Visits a bank account.
+   *
+   * @param account the bank account to visit
+   * @throws IOException if an I/O error occurs
+   */
+  void visit(BankAccount account) throws IOException;
+
+  /**
+   * Visits a category.
+   *
+   * @param category the category to visit
+   * @throws IOException if an I/O error occurs
+   */
+  void visit(Category category) throws IOException;
+
+  /**
+   * Visits an operation.
+   *
+   * @param operation the operation to visit
+   * @throws IOException if an I/O error occurs
+   */
+  void visit(Operation operation) throws IOException;
+
+  /**
+   * Completes the output and flushes it to the stream.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  void finish() throws IOException;
+}
@@ -0,0 +1,152 @@
+package ru.hse.bank.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Streaming visitor for exporting data to YAML format.
+ * Emits snakeyaml events straight to the output, so the document is never built in memory.
+ * The document has the same structure as the JSON export: a mapping with
+ * the accounts, categories and operations sequences. Missing values are omitted.
+ */
+public class YamlStreamingDataVisitor implements StreamingDataVisitor {
+  private static final String[] SECTIONS = {"accounts", "categories", "operations"};
+  private static final int ACCOUNTS = 0;
+  private static final int CATEGORIES = 1;
+  private static final int OPERATIONS = 2;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final ImplicitTuple PLAIN = new ImplicitTuple(true, true);
+  private static final ImplicitTuple QUOTED_IF_AMBIGUOUS = new ImplicitTuple(false, true);
+
+  private final Resolver resolver = new Resolver();
+  private Writer writer;
+  private Emitter emitter;
+  private int section;
+
+  @Override
+  public void start(final OutputStream output) throws IOException {
+    DumperOptions options = new DumperOptions();
+    options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8),
+        BUFFER_SIZE);
+    emitter = new Emitter(writer, options);
+    emitter.emit(new StreamStartEvent(null, null));
+    emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+    emitter.emit(new MappingStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
+    section = -1;
+  }
+
+  @Override
+  public void visit(final BankAccount account) throws IOException {
+    enterSection(ACCOUNTS);
+    startEntity();
+    field("id", account.getId());
+    text("name", account.getName());
+    field("balance", account.getBalance() == null ? null : account.getBalance().toPlainString());
+    endEntity();
+  }
+
+  @Override
+  public void visit(final Category category) throws IOException {
+    enterSection(CATEGORIES);
+    startEntity();
+    field("id", category.getId());
+    text("name", category.getName());
+    field("type", category.getType());
+    endEntity();
+  }
+
+  @Override
+  public void visit(final Operation operation) throws IOException {
+    enterSection(OPERATIONS);
+    startEntity();
+    field("id", operation.getId());
+    field("type", operation.getType());
+    field("bankAccountId", operation.getBankAccountId());
+    field("amount", operation.getAmount() == null ? null : operation.getAmount().toPlainString());
+    text("description", operation.getDescription());
+    field("categoryId", operation.getCategoryId());
+    field("date", operation.getDate());
+    endEntity();
+  }
+
+  @Override
+  public void finish() throws IOException {
+    enterSection(OPERATIONS);
+    emitter.emit(new SequenceEndEvent(null, null));
+    emitter.emit(new MappingEndEvent(null, null));
+    emitter.emit(new DocumentEndEvent(null, null, false));
+    emitter.emit(new StreamEndEvent(null, null));
+    writer.flush();
+  }
+
+  private void enterSection(final int target) throws IOException {
+    if (target < section) {
+      throw new IllegalStateException("Сущности должны посещаться по типам: "
+          + "сначала счета, затем категории, затем операции");
+    }
+    while (section < target) {
+      if (section >= 0) {
+        emitter.emit(new SequenceEndEvent(null, null));
+      }
+      section++;
+      scalar(SECTIONS[section], PLAIN);
+      emitter.emit(new SequenceStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
+    }
+  }
+
+  private void startEntity() throws IOException {
+    emitter.emit(new MappingStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
+  }
+
+  private void endEntity() throws IOException {
+    emitter.emit(new MappingEndEvent(null, null));
+  }
+
+  /**
+   * Writes a field whose value is a string; it is quoted if it would otherwise
+   * be read back as a number, a boolean or null.
+   */
+  private void text(final String name, final String value) throws IOException {
+    if (value != null) {
+      scalar(name, PLAIN);
+      boolean plainString = resolver.resolve(NodeId.scalar, value, true).equals(Tag.STR);
+      scalar(value, plainString ? PLAIN : QUOTED_IF_AMBIGUOUS);
+    }
+  }
+
+  private void field(final String name, final Object value) throws IOException {
+    if (value != null) {
+      scalar(name, PLAIN);
+      scalar(value.toString(), PLAIN);
+    }
+  }
+
+  private void scalar(final String value, final ImplicitTuple implicit) throws IOException {
+    emitter.emit(new ScalarEvent(null, null, implicit, value, null, null, DumperOptions.ScalarStyle.PLAIN));
+  }
+}
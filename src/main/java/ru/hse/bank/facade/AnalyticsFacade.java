@@ -2,14 +2,17 @@ package ru.hse.bank.facade;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 
 import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.MoneyAccumulator;
 import ru.hse.bank.model.Operation;
 
 /**
@@ -38,11 +41,10 @@ public class AnalyticsFacade {
    * @return balance difference (positive - increase, negative - decrease)
    */
   public BigDecimal calculateBalanceDifference(final LocalDateTime start, final LocalDateTime end) {
-    List<Operation> operations = operationFacade.getOperationsByPeriod(start, end);
-    return operations.stream()
-        .map(operation -> operation.getType() == CategoryType.INCOME 
-        ? operation.getAmount() : operation.getAmount().negate())
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    MoneyAccumulator difference = new MoneyAccumulator();
+    operationFacade.forEachOperationInPeriod(start, end,
+        operation -> addSigned(difference, operation));
+    return difference.toBigDecimal();
   }
 
   /**
@@ -55,18 +57,21 @@ public class AnalyticsFacade {
   public Map<UUID, BigDecimal> groupOperationsByCategory(
         final LocalDateTime start, 
         final LocalDateTime end) {
-    List<Operation> operations = operationFacade.getOperationsByPeriod(start, end);
-    return operations.stream()
-        .collect(Collectors.groupingBy(
-          Operation::getCategoryId,
-          Collectors.reducing(
-            BigDecimal.ZERO,
-            operation -> operation.getType() == CategoryType.INCOME 
-                ? operation.getAmount() 
-                : operation.getAmount().negate(),
-            BigDecimal::add
-          )
-        ));
+    Map<UUID, MoneyAccumulator> sums = new HashMap<>();
+    operationFacade.forEachOperationInPeriod(start, end, operation -> addSigned(
+        sums.computeIfAbsent(operation.getCategoryId(), id -> new MoneyAccumulator()), operation));
+    return toBigDecimals(sums, new HashMap<>());
+  }
+
+  /**
+   * Groups all operations by categories.
+   * Answered from the running category totals without visiting individual operations.
+   *
+   * @return map where key is category ID, value is sum of operations for that category
+   */
+  public Map<UUID, BigDecimal> groupOperationsByCategory() {
+    return operationFacade.getCategoryTotals().entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getNet()));
   }
 
   /**
@@ -78,15 +83,74 @@ public class AnalyticsFacade {
    */
   public Map<CategoryType, BigDecimal> groupOperationsByType(final LocalDateTime start,
                                                              final LocalDateTime end) {
-    List<Operation> operations = operationFacade.getOperationsByPeriod(start, end);
-    return operations.stream()
-        .collect(Collectors.groupingBy(
-          Operation::getType,
-          Collectors.reducing(
-            BigDecimal.ZERO,
-            Operation::getAmount,
-            BigDecimal::add
-          )
-        ));
+    Map<CategoryType, MoneyAccumulator> sums = new EnumMap<>(CategoryType.class);
+    operationFacade.forEachOperationInPeriod(start, end, operation ->
+        sums.computeIfAbsent(operation.getType(), type -> new MoneyAccumulator()).add(operation));
+    return toBigDecimals(sums, new EnumMap<>(CategoryType.class));
+  }
+
+  /**
+   * Builds a combined report for the specified period in a single pass over its operations.
+   *
+   * @param start start date of the period
+   * @param end end date of the period
+   * @return report with balance difference, groupings, counts and amount extremes
+   */
+  public AnalyticsReport buildReport(final LocalDateTime start, final LocalDateTime end) {
+    ReportAccumulator accumulator = new ReportAccumulator();
+    operationFacade.forEachOperationInPeriod(start, end, accumulator);
+    return accumulator.toReport();
+  }
+
+  private static void addSigned(final MoneyAccumulator target, final Operation operation) {
+    if (operation.getType() == CategoryType.INCOME) {
+      target.add(operation);
+    } else {
+      target.subtract(operation);
+    }
+  }
+
+  private static <K> Map<K, BigDecimal> toBigDecimals(final Map<K, MoneyAccumulator> sums,
+                                                      final Map<K, BigDecimal> target) {
+    sums.forEach((key, sum) -> target.put(key, sum.toBigDecimal()));
+    return target;
+  }
+
+  private static final class ReportAccumulator implements Consumer<Operation> {
+    private final Map<UUID, MoneyAccumulator> byCategory = new HashMap<>();
+    private final Map<CategoryType, MoneyAccumulator> byType = new EnumMap<>(CategoryType.class);
+    private final MoneyAccumulator balanceDifference = new MoneyAccumulator();
+    private long incomeCount;
+    private long expenseCount;
+    private Operation minOperation;
+    private Operation maxOperation;
+
+    @Override
+    public void accept(final Operation operation) {
+      if (operation.getType() == CategoryType.INCOME) {
+        incomeCount++;
+      } else {
+        expenseCount++;
+      }
+      addSigned(balanceDifference, operation);
+      addSigned(byCategory.computeIfAbsent(operation.getCategoryId(), id -> new MoneyAccumulator()),
+          operation);
+      byType.computeIfAbsent(operation.getType(), type -> new MoneyAccumulator()).add(operation);
+      if (minOperation == null || MoneyAccumulator.compareAmounts(operation, minOperation) < 0) {
+        minOperation = operation;
+      }
+      if (maxOperation == null || MoneyAccumulator.compareAmounts(operation, maxOperation) > 0) {
+        maxOperation = operation;
+      }
+    }
+
+    private AnalyticsReport toReport() {
+      return new AnalyticsReport(balanceDifference.toBigDecimal(),
+          toBigDecimals(byCategory, new HashMap<>()),
+          toBigDecimals(byType, new EnumMap<>(CategoryType.class)),
+          incomeCount, expenseCount,
+          minOperation == null ? null : minOperation.getAmount(),
+          maxOperation == null ? null : maxOperation.getAmount());
+    }
   }
-} 
\ No newline at end of file
+}
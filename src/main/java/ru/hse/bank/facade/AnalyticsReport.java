@@ -0,0 +1,82 @@
+package ru.hse.bank.facade;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import ru.hse.bank.model.CategoryType;
+
+/**
+ * Combined analytics for a period.
+ * Contains the balance difference, sums grouped by category and by type,
+ * operation counts and the smallest and largest operation amounts.
+ */
+public final class AnalyticsReport {
+  private final BigDecimal balanceDifference;
+  private final Map<UUID, BigDecimal> byCategory;
+  private final Map<CategoryType, BigDecimal> byType;
+  private final long incomeCount;
+  private final long expenseCount;
+  private final BigDecimal minAmount;
+  private final BigDecimal maxAmount;
+
+  /**
+   * Constructor for AnalyticsReport.
+   *
+   * @param balanceDifferenceParam the balance difference for the period
+   * @param byCategoryParam sums of operations grouped by category ID
+   * @param byTypeParam sums of operations grouped by type
+   * @param incomeCountParam the number of income operations
+   * @param expenseCountParam the number of expense operations
+   * @param minAmountParam the smallest operation amount, or null if there are no operations
+   * @param maxAmountParam the largest operation amount, or null if there are no operations
+   */
+  public AnalyticsReport(final BigDecimal balanceDifferenceParam,
+                         final Map<UUID, BigDecimal> byCategoryParam,
+                         final Map<CategoryType, BigDecimal> byTypeParam,
+                         final long incomeCountParam,
+                         final long expenseCountParam,
+                         final BigDecimal minAmountParam,
+                         final BigDecimal maxAmountParam) {
+    this.balanceDifference = balanceDifferenceParam;
+    this.byCategory = Collections.unmodifiableMap(byCategoryParam);
+    this.byType = Collections.unmodifiableMap(byTypeParam);
+    this.incomeCount = incomeCountParam;
+    this.expenseCount = expenseCountParam;
+    this.minAmount = minAmountParam;
+    this.maxAmount = maxAmountParam;
+  }
+
+  public BigDecimal getBalanceDifference() {
+    return balanceDifference;
+  }
+
+  public Map<UUID, BigDecimal> getByCategory() {
+    return byCategory;
+  }
+
+  public Map<CategoryType, BigDecimal> getByType() {
+    return byType;
+  }
+
+  public long getIncomeCount() {
+    return incomeCount;
+  }
+
+  public long getExpenseCount() {
+    return expenseCount;
+  }
+
+  public long getOperationCount() {
+    return incomeCount + expenseCount;
+  }
+
+  public BigDecimal getMinAmount() {
+    return minAmount;
+  }
+
+  public BigDecimal getMaxAmount() {
+    return maxAmount;
+  }
+}
@@ -2,10 +2,11 @@ package ru.hse.bank.facade;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Service;
 
@@ -18,11 +19,14 @@ import ru.hse.bank.model.Operation;
  * Facade for bank account operations.
  * Provides a high-level interface for managing bank accounts,
  * including account creation and balance management.
+ * The facade is thread-safe: balance updates lock only the affected account,
+ * so updates to different accounts proceed in parallel.
  */
 @Service
 public class BankAccountFacade {
   private final DomainFactory domainFactory;
-  private final Map<UUID, BankAccount> accounts = new HashMap<>();
+  private final Map<UUID, BankAccount> accounts = new ConcurrentHashMap<>();
+  private volatile ChangeJournal journal = ChangeJournal.DISABLED;
 
   /**
    * Constructor for BankAccountFacade.
@@ -33,6 +37,15 @@ public class BankAccountFacade {
     this.domainFactory = domainFactoryParam;
   }
 
+  /**
+   * Sets the journal that records the changes made through the facade.
+   *
+   * @param journalParam the journal
+   */
+  public void setJournal(final ChangeJournal journalParam) {
+    this.journal = journalParam;
+  }
+
   /**
    * Creates a new bank account with the specified name and initial balance.
    *
@@ -43,9 +56,25 @@ public class BankAccountFacade {
   public BankAccount createAccount(final String name, final BigDecimal initialBalance) {
     BankAccount account = domainFactory.createBankAccount(name, initialBalance);
     accounts.put(account.getId(), account);
+    journal.awaitDurable(journal.accountSaved(account));
     return account;
   }
 
+  /**
+   * Bulk-loads bank accounts with their original IDs and balances, e.g. when restoring a snapshot.
+   * The accounts are stored as given, without validation.
+   *
+   * @param loadedAccounts the accounts to load
+   */
+  public void loadAccounts(final Collection<BankAccount> loadedAccounts) {
+    long position = 0;
+    for (BankAccount account : loadedAccounts) {
+      accounts.put(account.getId(), account);
+      position = journal.accountSaved(account);
+    }
+    journal.awaitDurable(position);
+  }
+
   /**
    * Retrieves a bank account by its ID.
    *
@@ -53,7 +82,7 @@ public class BankAccountFacade {
    * @return the bank account with the specified ID, or null if it does not exist
    */
   public BankAccount getAccount(final UUID id) {
-    return accounts.get(id);
+    return id == null ? null : accounts.get(id);
   }
 
   /**
@@ -72,6 +101,7 @@ public class BankAccountFacade {
    */
   public void deleteAccount(final UUID id) {
     accounts.remove(id);
+    journal.awaitDurable(journal.accountDeleted(id));
   }
 
   /**
@@ -83,22 +113,30 @@ public class BankAccountFacade {
    * @throws IllegalStateException if the operation would result in a negative balance
    */
   public void updateBalance(final UUID accountId, final Operation operation) {
-    BankAccount account = accounts.get(accountId);
+    BankAccount account = accountId == null ? null : accounts.get(accountId);
     if (account == null) {
       throw new IllegalArgumentException("Счет не найден");
     }
 
-    BigDecimal newBalance = account.getBalance();
-    if (operation.getType() == CategoryType.INCOME) {
-      newBalance = newBalance.add(operation.getAmount());
-    } else {
-      newBalance = newBalance.subtract(operation.getAmount());
-    }
-
-    if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
+    if (!account.adjustBalance(operation, operation.getType() != CategoryType.INCOME)) {
       throw new IllegalStateException("Недостаточно средств на счете");
     }
+  }
 
-    account.setBalance(newBalance);
+  /**
+   * Updates the balance of an account based on a batch of operations, applied in order.
+   * Operations that would result in a negative balance are skipped.
+   *
+   * @param accountId the ID of the account to update
+   * @param operations the operations to apply to the account
+   * @return for every operation, whether it was applied
+   * @throws IllegalArgumentException if the account is not found
+   */
+  public boolean[] updateBalance(final UUID accountId, final List<Operation> operations) {
+    BankAccount account = accountId == null ? null : accounts.get(accountId);
+    if (account == null) {
+      throw new IllegalArgumentException("Счет не найден");
+    }
+    return account.adjustBalance(operations);
   }
 } 
\ No newline at end of file
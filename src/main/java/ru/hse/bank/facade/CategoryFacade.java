@@ -1,10 +1,11 @@
 package ru.hse.bank.facade;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Service;
 
@@ -20,7 +21,8 @@ import ru.hse.bank.model.CategoryType;
 @Service
 public class CategoryFacade {
   private final DomainFactory domainFactory;
-  private final Map<UUID, Category> categories = new HashMap<>();
+  private final Map<UUID, Category> categories = new ConcurrentHashMap<>();
+  private volatile ChangeJournal journal = ChangeJournal.DISABLED;
 
   /**
    * Constructor for CategoryFacade.
@@ -31,6 +33,15 @@ public class CategoryFacade {
     this.domainFactory = domainFactoryParam;
   }
 
+  /**
+   * Sets the journal that records the changes made through the facade.
+   *
+   * @param journalParam the journal
+   */
+  public void setJournal(final ChangeJournal journalParam) {
+    this.journal = journalParam;
+  }
+
   /**
    * Creates a new category with the specified name and type.
    *
@@ -41,9 +52,25 @@ public class CategoryFacade {
   public Category createCategory(final String name, final CategoryType type) {
     Category category = domainFactory.createCategory(name, type);
     categories.put(category.getId(), category);
+    journal.awaitDurable(journal.categorySaved(category));
     return category;
   }
 
+  /**
+   * Bulk-loads categories with their original IDs, e.g. when restoring a snapshot.
+   * The categories are stored as given, without validation.
+   *
+   * @param loadedCategories the categories to load
+   */
+  public void loadCategories(final Collection<Category> loadedCategories) {
+    long position = 0;
+    for (Category category : loadedCategories) {
+      categories.put(category.getId(), category);
+      position = journal.categorySaved(category);
+    }
+    journal.awaitDurable(position);
+  }
+
   public Category getCategory(final UUID id) {
     return categories.get(id);
   }
@@ -76,5 +103,6 @@ public class CategoryFacade {
    */
   public void deleteCategory(final UUID id) {
     categories.remove(id);
+    journal.awaitDurable(journal.categoryDeleted(id));
   }
 } 
\ No newline at end of file
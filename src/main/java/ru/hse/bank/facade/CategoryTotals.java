@@ -0,0 +1,58 @@
+package ru.hse.bank.facade;
+
+import java.math.BigDecimal;
+
+/**
+ * Snapshot of the running totals of operations within a single category.
+ */
+public final class CategoryTotals {
+  private final BigDecimal incomeSum;
+  private final long incomeCount;
+  private final BigDecimal expenseSum;
+  private final long expenseCount;
+
+  /**
+   * Constructor for CategoryTotals.
+   *
+   * @param incomeSumParam the sum of income operations
+   * @param incomeCountParam the number of income operations
+   * @param expenseSumParam the sum of expense operations
+   * @param expenseCountParam the number of expense operations
+   */
+  public CategoryTotals(final BigDecimal incomeSumParam, final long incomeCountParam,
+                        final BigDecimal expenseSumParam, final long expenseCountParam) {
+    this.incomeSum = incomeSumParam;
+    this.incomeCount = incomeCountParam;
+    this.expenseSum = expenseSumParam;
+    this.expenseCount = expenseCountParam;
+  }
+
+  public BigDecimal getIncomeSum() {
+    return incomeSum;
+  }
+
+  public long getIncomeCount() {
+    return incomeCount;
+  }
+
+  public BigDecimal getExpenseSum() {
+    return expenseSum;
+  }
+
+  public long getExpenseCount() {
+    return expenseCount;
+  }
+
+  public long getCount() {
+    return incomeCount + expenseCount;
+  }
+
+  /**
+   * Returns the income sum minus the expense sum.
+   *
+   * @return net total of the category
+   */
+  public BigDecimal getNet() {
+    return incomeSum.subtract(expenseSum);
+  }
+}
@@ -0,0 +1,167 @@
+package ru.hse.bank.facade;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Journal of the changes made through the facades.
+ * A facade records a change as soon as it is applied, possibly while holding a lock, and
+ * then calls {@link #awaitDurable} outside of the lock before returning, so that a change
+ * is durable once the method that made it returns. Recording methods return the position
+ * of the record to wait for.
+ */
+public interface ChangeJournal {
+  /**
+   * Journal that records nothing.
+   */
+  ChangeJournal DISABLED = new ChangeJournal() {
+    @Override
+    public long accountSaved(final BankAccount account) {
+      return 0;
+    }
+
+    @Override
+    public long accountDeleted(final UUID id) {
+      return 0;
+    }
+
+    @Override
+    public long categorySaved(final Category category) {
+      return 0;
+    }
+
+    @Override
+    public long categoryDeleted(final UUID id) {
+      return 0;
+    }
+
+    @Override
+    public long operationPosted(final Operation operation) {
+      return 0;
+    }
+
+    @Override
+    public long operationsPosted(final List<Operation> operations) {
+      return 0;
+    }
+
+    @Override
+    public long operationLoaded(final Operation operation) {
+      return 0;
+    }
+
+    @Override
+    public long operationDeleted(final Operation operation) {
+      return 0;
+    }
+
+    @Override
+    public long snapshotAttached(final Path filePath, final int operations) {
+      return 0;
+    }
+
+    @Override
+    public long snapshotDetached() {
+      return 0;
+    }
+
+    @Override
+    public void awaitDurable(final long position) {
+    }
+  };
+
+  /**
+   * Records a created or loaded account with its current balance.
+   *
+   * @param account the account
+   * @return the position of the record
+   */
+  long accountSaved(BankAccount account);
+
+  /**
+   * Records a deleted account.
+   *
+   * @param id the ID of the account
+   * @return the position of the record
+   */
+  long accountDeleted(UUID id);
+
+  /**
+   * Records a created or loaded category.
+   *
+   * @param category the category
+   * @return the position of the record
+   */
+  long categorySaved(Category category);
+
+  /**
+   * Records a deleted category.
+   *
+   * @param id the ID of the category
+   * @return the position of the record
+   */
+  long categoryDeleted(UUID id);
+
+  /**
+   * Records an operation that was applied to the balance of its account.
+   *
+   * @param operation the operation
+   * @return the position of the record
+   */
+  long operationPosted(Operation operation);
+
+  /**
+   * Records operations of one account that were applied to its balance together, as one
+   * append of a record per operation.
+   *
+   * @param operations the operations, in the order they were applied
+   * @return the position of the record of the last operation
+   */
+  long operationsPosted(List<Operation> operations);
+
+  /**
+   * Records a bulk-loaded operation, which is not applied to the balance of its account.
+   *
+   * @param operation the operation
+   * @return the position of the record
+   */
+  long operationLoaded(Operation operation);
+
+  /**
+   * Records a cancelled operation, whose reversal was applied to the balance of its account.
+   *
+   * @param operation the cancelled operation
+   * @return the position of the record
+   */
+  long operationDeleted(Operation operation);
+
+  /**
+   * Records an attached operation snapshot. Its operations are not journaled one by one,
+   * so the snapshot file must still be present when the journal is replayed.
+   *
+   * @param filePath the absolute path to the snapshot file
+   * @param operations the number of operations in the snapshot
+   * @return the position of the record
+   */
+  long snapshotAttached(Path filePath, int operations);
+
+  /**
+   * Records a detached operation snapshot.
+   *
+   * @return the position of the record
+   */
+  long snapshotDetached();
+
+  /**
+   * Waits until the record at the given position and all records before it are durable.
+   *
+   * @param position the position returned when the record was made
+   * @throws java.io.UncheckedIOException if the journal cannot be written
+   */
+  void awaitDurable(long position);
+}
@@ -0,0 +1,483 @@
+package ru.hse.bank.facade;
+
+import static ru.hse.bank.facade.OperationSnapshotFormat.ACCOUNT_ID;
+import static ru.hse.bank.facade.OperationSnapshotFormat.AMOUNT_SCALE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.AMOUNT_UNITS;
+import static ru.hse.bank.facade.OperationSnapshotFormat.BIG_AMOUNT;
+import static ru.hse.bank.facade.OperationSnapshotFormat.CATEGORY_ID;
+import static ru.hse.bank.facade.OperationSnapshotFormat.DESCRIPTION_LENGTH;
+import static ru.hse.bank.facade.OperationSnapshotFormat.DESCRIPTION_OFFSET;
+import static ru.hse.bank.facade.OperationSnapshotFormat.EPOCH_SECOND;
+import static ru.hse.bank.facade.OperationSnapshotFormat.FLAGS;
+import static ru.hse.bank.facade.OperationSnapshotFormat.HAS_CATEGORY_ID;
+import static ru.hse.bank.facade.OperationSnapshotFormat.HEADER_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.ID;
+import static ru.hse.bank.facade.OperationSnapshotFormat.INDEX_ENTRY_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.MAGIC;
+import static ru.hse.bank.facade.OperationSnapshotFormat.NANO;
+import static ru.hse.bank.facade.OperationSnapshotFormat.RECORD_SIZE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.TYPE;
+import static ru.hse.bank.facade.OperationSnapshotFormat.VERSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Read-only view of an operation snapshot written in the {@link OperationSnapshotFormat}.
+ * The file is mapped into memory rather than read, so opening it costs the same regardless
+ * of its size: lookups by ID, account, category and period are binary searches over the
+ * mapped indexes, and {@link Operation} objects are materialised only when a returned list
+ * element is accessed. Large files are mapped as several regions of at most 1 GiB.
+ * The view is thread-safe. The mapping stays valid until the view is garbage collected,
+ * even after {@link #close()}.
+ */
+public final class MappedOperationSnapshot implements Closeable {
+  private static final int REGION_SHIFT = 30;
+  private static final long REGION_SIZE = 1L << REGION_SHIFT;
+  private static final int REGION_OVERLAP = Long.BYTES;
+  private static final CategoryType[] TYPES = CategoryType.values();
+
+  private final Path filePath;
+  private final FileChannel channel;
+  private final MappedByteBuffer[] regions;
+  private final int size;
+  private final long idIndexOffset;
+  private final long accountIndexOffset;
+  private final long categoryIndexOffset;
+  private final int categorized;
+  private final long heapOffset;
+  private final Map<UUID, CategoryTotals> categoryTotals;
+  private final byte[] catalog;
+
+  private MappedOperationSnapshot(final Path filePathParam, final FileChannel channelParam)
+      throws IOException {
+    this.filePath = filePathParam;
+    this.channel = channelParam;
+    long fileSize = channel.size();
+    if (fileSize < HEADER_SIZE) {
+      throw new IOException("Файл не является снимком операций");
+    }
+    int regionCount = (int) ((fileSize + REGION_SIZE - 1) >>> REGION_SHIFT);
+    regions = new MappedByteBuffer[regionCount];
+    for (int i = 0; i < regionCount; i++) {
+      long start = (long) i << REGION_SHIFT;
+      regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+          Math.min(REGION_SIZE + REGION_OVERLAP, fileSize - start));
+    }
+
+    if (getInt(0) != MAGIC) {
+      throw new IOException("Файл не является снимком операций");
+    }
+    if (getInt(Integer.BYTES) != VERSION) {
+      throw new IOException("Неподдерживаемая версия снимка");
+    }
+    long count = getLong(2 * Integer.BYTES);
+    idIndexOffset = getLong(2 * Integer.BYTES + Long.BYTES);
+    accountIndexOffset = getLong(2 * Integer.BYTES + 2 * Long.BYTES);
+    categoryIndexOffset = getLong(2 * Integer.BYTES + 3 * Long.BYTES);
+    heapOffset = getLong(2 * Integer.BYTES + 4 * Long.BYTES);
+    long totalsOffset = getLong(2 * Integer.BYTES + 5 * Long.BYTES);
+    long catalogOffset = getLong(2 * Integer.BYTES + 6 * Long.BYTES);
+    if (count < 0 || count > Integer.MAX_VALUE
+        || idIndexOffset != HEADER_SIZE + count * RECORD_SIZE
+        || accountIndexOffset != idIndexOffset + count * INDEX_ENTRY_SIZE
+        || categoryIndexOffset != accountIndexOffset + count * INDEX_ENTRY_SIZE
+        || heapOffset < categoryIndexOffset || totalsOffset < heapOffset
+        || catalogOffset < totalsOffset || catalogOffset > fileSize
+        || (heapOffset - categoryIndexOffset) % INDEX_ENTRY_SIZE != 0) {
+      throw new IOException("Некорректный заголовок снимка операций");
+    }
+    size = (int) count;
+    categorized = (int) ((heapOffset - categoryIndexOffset) / INDEX_ENTRY_SIZE);
+    categoryTotals = readTotals(totalsOffset);
+    catalog = new byte[(int) (fileSize - catalogOffset)];
+    getBytes(catalogOffset, catalog);
+  }
+
+  /**
+   * Opens and maps an operation snapshot.
+   *
+   * @param filePath the path to the snapshot file
+   * @return the mapped snapshot
+   * @throws IOException if the file cannot be read or is not an operation snapshot
+   */
+  public static MappedOperationSnapshot open(final Path filePath) throws IOException {
+    FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+    try {
+      return new MappedOperationSnapshot(filePath.toAbsolutePath().normalize(), channel);
+    } catch (IOException | RuntimeException exception) {
+      channel.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Returns the number of operations in the snapshot.
+   *
+   * @return the number of operations
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Finds an operation by its ID.
+   *
+   * @param id the ID of the operation
+   * @return the materialised operation, or null if the snapshot does not contain it
+   */
+  public Operation find(final UUID id) {
+    int position = lowerBound(idIndexOffset, size, id);
+    if (position < size && compareIndexEntry(idIndexOffset, position, id) == 0) {
+      return read(recordAt(idIndexOffset, position));
+    }
+    return null;
+  }
+
+  /**
+   * Returns all operations in chronological order.
+   *
+   * @return lazy list that materialises operations on access
+   */
+  public List<Operation> operations() {
+    return new RecordList(0, size);
+  }
+
+  /**
+   * Returns the operations of an account in chronological order.
+   *
+   * @param bankAccountId the ID of the account
+   * @return lazy list that materialises operations on access
+   */
+  public List<Operation> operationsOfAccount(final UUID bankAccountId) {
+    return indexRange(accountIndexOffset, size, bankAccountId);
+  }
+
+  /**
+   * Returns the operations of the accounts in a partition, grouped by account and in
+   * chronological order within an account.
+   *
+   * @param partition the number of the partition
+   * @param partitions the number of partitions
+   * @return lazy list that materialises operations on access
+   * @see OperationFacade#partitionOf(UUID, int)
+   */
+  public List<Operation> operationsOfPartition(final int partition, final int partitions) {
+    int[] records = new int[size];
+    int selected = 0;
+    int entry = 0;
+    while (entry < size) {
+      UUID accountId = getUuid(accountIndexOffset + (long) entry * INDEX_ENTRY_SIZE);
+      boolean matches = OperationFacade.partitionOf(accountId, partitions) == partition;
+      while (entry < size && compareIndexEntry(accountIndexOffset, entry, accountId) == 0) {
+        if (matches) {
+          records[selected++] = recordAt(accountIndexOffset, entry);
+        }
+        entry++;
+      }
+    }
+    return new SelectedList(Arrays.copyOf(records, selected));
+  }
+
+  /**
+   * Returns the operations of a category in chronological order.
+   *
+   * @param categoryId the ID of the category
+   * @return lazy list that materialises operations on access
+   */
+  public List<Operation> operationsOfCategory(final UUID categoryId) {
+    return indexRange(categoryIndexOffset, categorized, categoryId);
+  }
+
+  /**
+   * Returns the operations of a period in chronological order. Both bounds are exclusive.
+   *
+   * @param start the start date of the period
+   * @param end the end date of the period
+   * @return lazy list that materialises operations on access
+   */
+  public List<Operation> operationsInPeriod(final LocalDateTime start, final LocalDateTime end) {
+    int from = firstAfter(start, false);
+    int to = Math.max(from, firstAfter(end, true));
+    return new RecordList(from, to);
+  }
+
+  /**
+   * Returns the totals of the snapshot operations grouped by category.
+   *
+   * @return map where key is category ID, value is the totals for that category
+   */
+  public Map<UUID, CategoryTotals> getCategoryTotals() {
+    return new HashMap<>(categoryTotals);
+  }
+
+  /**
+   * Opens the accounts and categories stored with the operations.
+   *
+   * @return stream of the catalog in the binary snapshot format
+   */
+  public InputStream openCatalog() {
+    return new ByteArrayInputStream(catalog);
+  }
+
+  /**
+   * Returns the absolute path to the snapshot file.
+   *
+   * @return the path the snapshot was opened from
+   */
+  public Path getFilePath() {
+    return filePath;
+  }
+
+  /**
+   * Closes the file. Operations already returned stay usable.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private List<Operation> indexRange(final long indexOffset, final int entries, final UUID id) {
+    int from = lowerBound(indexOffset, entries, id);
+    int to = from;
+    while (to < entries && compareIndexEntry(indexOffset, to, id) == 0) {
+      to++;
+    }
+    return new IndexedList(indexOffset, from, to);
+  }
+
+  private int lowerBound(final long indexOffset, final int entries, final UUID id) {
+    int low = 0;
+    int high = entries;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compareIndexEntry(indexOffset, middle, id) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compareIndexEntry(final long indexOffset, final int entry, final UUID id) {
+    long position = indexOffset + (long) entry * INDEX_ENTRY_SIZE;
+    int byMost = Long.compare(getLong(position), id.getMostSignificantBits());
+    return byMost != 0 ? byMost
+        : Long.compare(getLong(position + Long.BYTES), id.getLeastSignificantBits());
+  }
+
+  private int recordAt(final long indexOffset, final int entry) {
+    return getInt(indexOffset + (long) entry * INDEX_ENTRY_SIZE + 2 * Long.BYTES);
+  }
+
+  /**
+   * Returns the first record whose date is after the given one, or not before it if
+   * {@code inclusive} is set.
+   */
+  private int firstAfter(final LocalDateTime date, final boolean inclusive) {
+    long epochSecond = date.toEpochSecond(ZoneOffset.UTC);
+    int nano = date.getNano();
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      long record = recordOffset(middle);
+      int comparison = Long.compare(getLong(record + EPOCH_SECOND), epochSecond);
+      if (comparison == 0) {
+        comparison = Integer.compare(getInt(record + NANO), nano);
+      }
+      if (comparison < 0 || comparison == 0 && !inclusive) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Operation read(final int index) {
+    long record = recordOffset(index);
+    int flags = get(record + FLAGS);
+    long units = getLong(record + AMOUNT_UNITS);
+    int scale = getInt(record + AMOUNT_SCALE);
+    BigDecimal amount;
+    if ((flags & BIG_AMOUNT) != 0) {
+      byte[] unscaled = new byte[getInt(heapOffset + units)];
+      getBytes(heapOffset + units + Integer.BYTES, unscaled);
+      amount = new BigDecimal(new BigInteger(unscaled), scale);
+    } else {
+      amount = BigDecimal.valueOf(units, scale);
+    }
+    int descriptionLength = getInt(record + DESCRIPTION_LENGTH);
+    String description = null;
+    if (descriptionLength >= 0) {
+      byte[] bytes = new byte[descriptionLength];
+      getBytes(heapOffset + getLong(record + DESCRIPTION_OFFSET), bytes);
+      description = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return new Operation(
+        getUuid(record + ID),
+        TYPES[get(record + TYPE) - 1],
+        getUuid(record + ACCOUNT_ID),
+        amount,
+        description,
+        (flags & HAS_CATEGORY_ID) != 0 ? getUuid(record + CATEGORY_ID) : null,
+        LocalDateTime.ofEpochSecond(getLong(record + EPOCH_SECOND), getInt(record + NANO),
+            ZoneOffset.UTC));
+  }
+
+  private Map<UUID, CategoryTotals> readTotals(final long totalsOffset) {
+    Map<UUID, CategoryTotals> totals = new HashMap<>();
+    int count = getInt(totalsOffset);
+    long position = totalsOffset + Integer.BYTES;
+    for (int i = 0; i < count; i++) {
+      UUID categoryId = getUuid(position);
+      long incomeCount = getLong(position + 2 * Long.BYTES);
+      long expenseCount = getLong(position + 3 * Long.BYTES);
+      position += 4 * Long.BYTES;
+      byte[] incomeSum = new byte[getInt(position)];
+      getBytes(position + Integer.BYTES, incomeSum);
+      position += Integer.BYTES + incomeSum.length;
+      byte[] expenseSum = new byte[getInt(position)];
+      getBytes(position + Integer.BYTES, expenseSum);
+      position += Integer.BYTES + expenseSum.length;
+      totals.put(categoryId, new CategoryTotals(
+          new BigDecimal(new String(incomeSum, StandardCharsets.US_ASCII)), incomeCount,
+          new BigDecimal(new String(expenseSum, StandardCharsets.US_ASCII)), expenseCount));
+    }
+    return totals;
+  }
+
+  private static long recordOffset(final int index) {
+    return HEADER_SIZE + (long) index * RECORD_SIZE;
+  }
+
+  private UUID getUuid(final long position) {
+    return new UUID(getLong(position), getLong(position + Long.BYTES));
+  }
+
+  private byte get(final long position) {
+    return regions[(int) (position >>> REGION_SHIFT)].get((int) (position & (REGION_SIZE - 1)));
+  }
+
+  private int getInt(final long position) {
+    return regions[(int) (position >>> REGION_SHIFT)]
+        .getInt((int) (position & (REGION_SIZE - 1)));
+  }
+
+  private long getLong(final long position) {
+    return regions[(int) (position >>> REGION_SHIFT)]
+        .getLong((int) (position & (REGION_SIZE - 1)));
+  }
+
+  private void getBytes(final long position, final byte[] target) {
+    int copied = 0;
+    while (copied < target.length) {
+      long current = position + copied;
+      int offset = (int) (current & (REGION_SIZE - 1));
+      int length = (int) Math.min(target.length - copied, REGION_SIZE - offset);
+      regions[(int) (current >>> REGION_SHIFT)].get(offset, target, copied, length);
+      copied += length;
+    }
+  }
+
+  /**
+   * Consecutive records materialised on access.
+   */
+  private final class RecordList extends AbstractList<Operation> implements RandomAccess {
+    private final int from;
+    private final int to;
+
+    private RecordList(final int fromParam, final int toParam) {
+      this.from = fromParam;
+      this.to = toParam;
+    }
+
+    @Override
+    public Operation get(final int index) {
+      return read(from + checkedIndex(index, size()));
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /**
+   * Records referenced by a range of index entries, materialised on access.
+   */
+  private final class IndexedList extends AbstractList<Operation> implements RandomAccess {
+    private final long indexOffset;
+    private final int from;
+    private final int to;
+
+    private IndexedList(final long indexOffsetParam, final int fromParam, final int toParam) {
+      this.indexOffset = indexOffsetParam;
+      this.from = fromParam;
+      this.to = toParam;
+    }
+
+    @Override
+    public Operation get(final int index) {
+      return read(recordAt(indexOffset, from + checkedIndex(index, size())));
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+
+  /**
+   * Records with the given numbers, materialised on access.
+   */
+  private final class SelectedList extends AbstractList<Operation> implements RandomAccess {
+    private final int[] records;
+
+    private SelectedList(final int[] recordsParam) {
+      this.records = recordsParam;
+    }
+
+    @Override
+    public Operation get(final int index) {
+      return read(records[checkedIndex(index, size())]);
+    }
+
+    @Override
+    public int size() {
+      return records.length;
+    }
+  }
+
+  private static int checkedIndex(final int index, final int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return index;
+  }
+}
@@ -1,30 +1,62 @@
 package ru.hse.bank.facade;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 
 import ru.hse.bank.factory.DomainFactory;
 import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.MoneyAccumulator;
 import ru.hse.bank.model.Operation;
 
 /**
  * Facade for operation management.
  * Provides a high-level interface for managing financial operations,
  * including operation creation, retrieval, and cancellation.
+ * The facade is thread-safe. Posting or cancelling an operation holds a lock striped
+ * by account, so the balance change and the operation record are applied together,
+ * while operations on different accounts proceed in parallel.
+ * Historical operations can be served from an attached {@link MappedOperationSnapshot}
+ * instead of being loaded; they are materialised only when a query returns them.
+ * Changes are recorded in the {@link ChangeJournal} set with {@link #setJournal}.
  */
 @Service
 public class OperationFacade {
+  private static final int LOCK_STRIPES = 256;
+  private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+  private static final UUID MAX_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
   private final DomainFactory domainFactory;
   private final BankAccountFacade bankAccountFacade;
-  private final Map<UUID, Operation> operations = new HashMap<>();
+  private final Object[] accountLocks = new Object[LOCK_STRIPES];
+  private final Map<UUID, Operation> operations = new ConcurrentHashMap<>();
+  private final NavigableMap<DateKey, Operation> operationsByDate = new ConcurrentSkipListMap<>();
+  private final Map<UUID, List<Operation>> operationsByAccount = new ConcurrentHashMap<>();
+  private final Map<UUID, Queue<Operation>> operationsByCategory = new ConcurrentHashMap<>();
+  private final Map<UUID, RunningTotals> categoryTotals = new ConcurrentHashMap<>();
+  private final Set<UUID> deletedSnapshotOperations = ConcurrentHashMap.newKeySet();
+  private volatile MappedOperationSnapshot snapshot;
+  private volatile ChangeJournal journal = ChangeJournal.DISABLED;
 
   /**
    * Constructor for OperationFacade.
@@ -36,6 +68,18 @@ public class OperationFacade {
                          final BankAccountFacade bankAccountFacadeParam) {
     this.domainFactory = domainFactoryParam;
     this.bankAccountFacade = bankAccountFacadeParam;
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      accountLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * Sets the journal that records the changes made through the facade.
+   *
+   * @param journalParam the journal
+   */
+  public void setJournal(final ChangeJournal journalParam) {
+    this.journal = journalParam;
   }
 
   /**
@@ -52,11 +96,197 @@ public class OperationFacade {
                    final BigDecimal amount, final String description, final UUID categoryId) {
     Operation operation = domainFactory.createOperation(type, bankAccountId, amount, 
                                                         description, categoryId);
-    bankAccountFacade.updateBalance(bankAccountId, operation);
-    operations.put(operation.getId(), operation);
+    postOperation(operation);
     return operation;
   }
 
+  /**
+   * Posts an operation that already has its ID and date, e.g. when replaying a journal.
+   * Unlike {@link #loadOperations}, the operation is applied to the balance of its account.
+   *
+   * @param operation the operation to post
+   * @throws IllegalArgumentException if the account is not found
+   * @throws IllegalStateException if the operation would result in a negative balance
+   */
+  public void postOperation(final Operation operation) {
+    UUID bankAccountId = operation.getBankAccountId();
+    long position;
+    synchronized (lockFor(bankAccountId)) {
+      bankAccountFacade.updateBalance(bankAccountId, operation);
+      position = indexPosted(operation);
+    }
+    journal.awaitDurable(position);
+  }
+
+  /**
+   * Posts a batch of operations that already have their IDs and dates. The operations are
+   * grouped by account, and every account is locked, has its balance updated, its group
+   * indexed and its posted operations journaled once for its whole group, in the order of
+   * the batch. A group is visible in every index once its lock is released, as if its
+   * operations were posted one by one. The journal is awaited once for the batch.
+   * An operation of an unknown account, one that would make the balance of its account
+   * negative, or one whose ID is already present in the facade, is rejected without
+   * affecting the others.
+   *
+   * @param batch the operations to post
+   * @return the result for every operation, in the order of the batch
+   */
+  public List<PostingResult> postOperations(final List<Operation> batch) {
+    Map<UUID, AccountBatch> accountBatches = new LinkedHashMap<>();
+    for (int i = 0; i < batch.size(); i++) {
+      Operation operation = batch.get(i);
+      accountBatches.computeIfAbsent(operation.getBankAccountId(), accountId -> new AccountBatch())
+          .add(operation, i);
+    }
+
+    PostingResult[] results = new PostingResult[batch.size()];
+    long position = 0;
+    for (Map.Entry<UUID, AccountBatch> entry : accountBatches.entrySet()) {
+      UUID bankAccountId = entry.getKey();
+      AccountBatch accountBatch = entry.getValue();
+      synchronized (lockFor(bankAccountId)) {
+        AccountBatch claimed = claim(accountBatch, results);
+        boolean[] applied;
+        try {
+          applied = bankAccountFacade.updateBalance(bankAccountId, claimed.operations);
+        } catch (IllegalArgumentException exception) {
+          for (int i = 0; i < claimed.operations.size(); i++) {
+            Operation operation = claimed.operations.get(i);
+            operations.remove(operation.getId(), operation);
+            results[claimed.indexes[i]] = PostingResult.rejected(operation,
+                exception.getMessage());
+          }
+          continue;
+        }
+        List<Operation> posted = new ArrayList<>(claimed.operations.size());
+        for (int i = 0; i < applied.length; i++) {
+          Operation operation = claimed.operations.get(i);
+          if (applied[i]) {
+            posted.add(operation);
+            results[claimed.indexes[i]] = PostingResult.posted(operation);
+          } else {
+            operations.remove(operation.getId(), operation);
+            results[claimed.indexes[i]] = PostingResult.rejected(operation,
+                "Недостаточно средств на счете");
+          }
+        }
+        if (!posted.isEmpty()) {
+          operationsByAccount.computeIfAbsent(bankAccountId, accountId -> new ArrayList<>())
+              .addAll(posted);
+          IndexBatch index = new IndexBatch();
+          for (Operation operation : posted) {
+            index.add(operation);
+          }
+          index.merge();
+          position = journal.operationsPosted(posted);
+        }
+      }
+    }
+    journal.awaitDurable(position);
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Bulk-loads operations with their original IDs, amounts and dates, e.g. when restoring
+   * a snapshot. The operations are neither validated nor applied to account balances:
+   * the loaded balances are expected to include them already. The indexes are updated once
+   * for the whole batch rather than per operation. If an ID is already present in the facade
+   * or its snapshot, or repeats within the batch, nothing is loaded.
+   *
+   * @param loadedOperations the operations to load
+   * @throws IllegalArgumentException if an ID of a loaded operation is already present
+   */
+  public void loadOperations(final Collection<Operation> loadedOperations) {
+    List<Operation> chronological = new ArrayList<>(loadedOperations);
+    chronological.sort(Comparator.comparing(Operation::getDate));
+    claimAll(chronological);
+    IndexBatch index = new IndexBatch();
+    Map<UUID, List<Operation>> byAccount = new HashMap<>();
+    for (Operation operation : chronological) {
+      index.add(operation);
+      byAccount.computeIfAbsent(operation.getBankAccountId(), accountId -> new ArrayList<>())
+          .add(operation);
+    }
+
+    index.merge();
+    byAccount.forEach((accountId, accountOperations) -> {
+      synchronized (lockFor(accountId)) {
+        operationsByAccount.computeIfAbsent(accountId, id -> new ArrayList<>())
+            .addAll(accountOperations);
+      }
+    });
+
+    long position = 0;
+    for (Operation operation : chronological) {
+      position = journal.operationLoaded(operation);
+    }
+    journal.awaitDurable(position);
+  }
+
+  /**
+   * Attaches a snapshot of historical operations, which are then served by the read queries
+   * without being loaded. Like {@link #loadOperations}, the snapshot operations are not
+   * applied to account balances, and their IDs must not be present in the facade.
+   * Only one snapshot can be attached. The journal records the path to the snapshot file
+   * rather than its operations, so the file must be kept for the journal to be replayed.
+   *
+   * @param mappedSnapshot the snapshot to serve
+   * @throws IllegalStateException if a snapshot is already attached
+   */
+  public void attachSnapshot(final MappedOperationSnapshot mappedSnapshot) {
+    long position;
+    synchronized (this) {
+      if (snapshot != null) {
+        throw new IllegalStateException("Снимок операций уже подключен");
+      }
+      mappedSnapshot.getCategoryTotals().forEach((categoryId, totals) ->
+          categoryTotals.merge(categoryId, RunningTotals.of(totals), RunningTotals::addAll));
+      snapshot = mappedSnapshot;
+      position = journal.snapshotAttached(mappedSnapshot.getFilePath(), mappedSnapshot.size());
+    }
+    journal.awaitDurable(position);
+  }
+
+  /**
+   * Detaches and closes the attached snapshot, whose operations are no longer served by the
+   * read queries and whose category totals are removed. Account balances are left as they
+   * are, like they were left when the snapshot was attached. Lists already returned by the
+   * read queries stay usable.
+   *
+   * @return true if a snapshot was attached
+   * @throws IOException if the snapshot file cannot be closed
+   */
+  public boolean detachSnapshot() throws IOException {
+    MappedOperationSnapshot current;
+    long position;
+    synchronized (this) {
+      current = snapshot;
+      if (current == null) {
+        return false;
+      }
+      snapshot = null;
+      removeSnapshotTotals(current);
+      position = journal.snapshotDetached();
+    }
+    journal.awaitDurable(position);
+    current.close();
+    return true;
+  }
+
+  private void removeSnapshotTotals(final MappedOperationSnapshot current) {
+    for (UUID id : deletedSnapshotOperations) {
+      Operation deleted = current.find(id);
+      if (deleted != null && deleted.getCategoryId() != null) {
+        categoryTotals.computeIfAbsent(deleted.getCategoryId(), categoryId -> new RunningTotals())
+            .add(deleted);
+      }
+    }
+    deletedSnapshotOperations.clear();
+    current.getCategoryTotals().forEach((categoryId, totals) ->
+        categoryTotals.computeIfPresent(categoryId,
+            (id, running) -> running.removeAll(totals) ? null : running));
+  }
+
   /**
    * Retrieves an operation by its ID.
    *
@@ -64,7 +294,8 @@ public class OperationFacade {
    * @return the operation with the specified ID, or null if it does not exist
    */
   public Operation getOperation(final UUID id) {
-    return operations.get(id);
+    Operation operation = operations.get(id);
+    return operation != null ? operation : findInSnapshot(id);
   }
 
   /**
@@ -73,19 +304,119 @@ public class OperationFacade {
    * @return list of all operations
    */
   public List<Operation> getAllOperations() {
-    return new ArrayList<>(operations.values());
+    if (snapshot == null) {
+      return new ArrayList<>(operations.values());
+    }
+    List<Operation> all = new ArrayList<>();
+    forEachOperation(all::add);
+    return all;
   }
 
   /**
-   * Returns a list of operations for a specific account.
+   * Passes every operation to the given action without copying them into a list.
+   *
+   * @param action the action to apply to each operation
+   */
+  public void forEachOperation(final Consumer<Operation> action) {
+    MappedOperationSnapshot current = snapshot;
+    if (current != null) {
+      forEachLive(current.operations(), action);
+    }
+    operations.values().forEach(action);
+  }
+
+  /**
+   * Passes the operations of the accounts in a partition to the given action, operations
+   * of one account in the order they were created. Every operation belongs to exactly one
+   * of the partitions, so the partitions can be processed by separate threads.
+   *
+   * @param partition the number of the partition, from 0 to {@code partitions - 1}
+   * @param partitions the number of partitions
+   * @param action the action to apply to each operation
+   * @throws IllegalArgumentException if the partition number is out of range
+   */
+  public void forEachOperationInPartition(final int partition, final int partitions,
+                                          final Consumer<Operation> action) {
+    if (partition < 0 || partition >= partitions) {
+      throw new IllegalArgumentException("Некорректный номер части: " + partition);
+    }
+    MappedOperationSnapshot current = snapshot;
+    if (current != null) {
+      forEachLive(current.operationsOfPartition(partition, partitions), action);
+    }
+    for (Map.Entry<UUID, List<Operation>> entry : operationsByAccount.entrySet()) {
+      if (partitionOf(entry.getKey(), partitions) == partition) {
+        List<Operation> accountOperations;
+        synchronized (lockFor(entry.getKey())) {
+          accountOperations = new ArrayList<>(entry.getValue());
+        }
+        accountOperations.forEach(action);
+      }
+    }
+  }
+
+  /**
+   * Returns the partition the operations of an account belong to.
+   *
+   * @param bankAccountId the ID of the account
+   * @param partitions the number of partitions
+   * @return the number of the partition, from 0 to {@code partitions - 1}
+   */
+  public static int partitionOf(final UUID bankAccountId, final int partitions) {
+    return Math.floorMod(bankAccountId.hashCode(), partitions);
+  }
+
+  /**
+   * Returns a list of operations for a specific account in the order they were created.
    *
    * @param bankAccountId the ID of the account
    * @return list of operations for the specified account
    */
   public List<Operation> getOperationsByAccount(final UUID bankAccountId) {
-    return operations.values().stream()
-        .filter(operation -> operation.getBankAccountId().equals(bankAccountId))
-        .collect(Collectors.toList());
+    List<Operation> result = new ArrayList<>();
+    MappedOperationSnapshot current = snapshot;
+    if (current != null) {
+      forEachLive(current.operationsOfAccount(bankAccountId), result::add);
+    }
+    List<Operation> accountOperations = operationsByAccount.get(bankAccountId);
+    if (accountOperations != null) {
+      synchronized (lockFor(bankAccountId)) {
+        result.addAll(accountOperations);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a page of operations for a specific account in the order they were created.
+   *
+   * @param bankAccountId the ID of the account
+   * @param offset the number of operations to skip
+   * @param limit the maximum number of operations to return
+   * @return page of operations for the specified account
+   * @throws IllegalArgumentException if offset or limit is negative
+   */
+  public List<Operation> getOperationsByAccount(final UUID bankAccountId,
+                                                final int offset, final int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Смещение и размер страницы не могут быть отрицательными");
+    }
+    MappedOperationSnapshot current = snapshot;
+    if (current != null) {
+      List<Operation> historic = current.operationsOfAccount(bankAccountId);
+      if (!historic.isEmpty()) {
+        return page(historic, bankAccountId, offset, limit);
+      }
+    }
+    List<Operation> accountOperations = operationsByAccount.get(bankAccountId);
+    if (accountOperations == null) {
+      return new ArrayList<>();
+    }
+    synchronized (lockFor(bankAccountId)) {
+      int from = Math.min(offset, accountOperations.size());
+      int to = (int) Math.min((long) from + limit, accountOperations.size());
+      return new ArrayList<>(accountOperations.subList(from, to));
+    }
   }
 
   /**
@@ -95,23 +426,84 @@ public class OperationFacade {
    * @return list of operations for the specified category
    */
   public List<Operation> getOperationsByCategory(final UUID categoryId) {
-    return operations.values().stream()
-        .filter(operation -> operation.getCategoryId().equals(categoryId))
-        .collect(Collectors.toList());
+    List<Operation> result = new ArrayList<>();
+    MappedOperationSnapshot current = snapshot;
+    if (current != null) {
+      forEachLive(current.operationsOfCategory(categoryId), result::add);
+    }
+    Queue<Operation> categoryOperations = operationsByCategory.get(categoryId);
+    if (categoryOperations != null) {
+      result.addAll(categoryOperations);
+    }
+    return result;
+  }
+
+  /**
+   * Returns running totals of all operations grouped by category.
+   *
+   * @return map where key is category ID, value is the totals for that category
+   */
+  public Map<UUID, CategoryTotals> getCategoryTotals() {
+    Map<UUID, CategoryTotals> snapshot = new HashMap<>();
+    categoryTotals.forEach((categoryId, totals) -> snapshot.put(categoryId, totals.snapshot()));
+    return snapshot;
   }
 
   /**
    * Returns a list of operations for a specific period.
+   * Both bounds are exclusive; operations are returned in chronological order.
    *
    * @param start the start date of the period
    * @param end the end date of the period
    * @return list of operations for the specified period
    */
   public List<Operation> getOperationsByPeriod(final LocalDateTime start, final LocalDateTime end) {
-    return operations.values().stream()
-        .filter(operation -> operation.getDate().isAfter(start) 
-                && operation.getDate().isBefore(end))
-        .collect(Collectors.toList());
+    if (!start.isBefore(end)) {
+      return new ArrayList<>();
+    }
+    if (snapshot == null) {
+      return new ArrayList<>(periodView(start, end).values());
+    }
+    List<Operation> result = new ArrayList<>();
+    forEachOperationInPeriod(start, end, result::add);
+    return result;
+  }
+
+  /**
+   * Passes every operation of a specific period to the given action in chronological order,
+   * without collecting them into a list. Both bounds are exclusive.
+   *
+   * @param start the start date of the period
+   * @param end the end date of the period
+   * @param action the action to apply to each operation
+   */
+  public void forEachOperationInPeriod(final LocalDateTime start, final LocalDateTime end,
+                                       final Consumer<Operation> action) {
+    if (!start.isBefore(end)) {
+      return;
+    }
+    MappedOperationSnapshot current = snapshot;
+    if (current == null) {
+      periodView(start, end).values().forEach(action);
+      return;
+    }
+    Iterator<Operation> recent = periodView(start, end).values().iterator();
+    Operation next = recent.hasNext() ? recent.next() : null;
+    for (Operation historic : current.operationsInPeriod(start, end)) {
+      if (deletedSnapshotOperations.contains(historic.getId())) {
+        continue;
+      }
+      DateKey historicKey = DateKey.of(historic);
+      while (next != null && DateKey.of(next).compareTo(historicKey) < 0) {
+        action.accept(next);
+        next = recent.hasNext() ? recent.next() : null;
+      }
+      action.accept(historic);
+    }
+    while (next != null) {
+      action.accept(next);
+      next = recent.hasNext() ? recent.next() : null;
+    }
   }
 
   /**
@@ -121,16 +513,339 @@ public class OperationFacade {
    */
   public void deleteOperation(final UUID id) {
     Operation operation = operations.get(id);
-    if (operation != null) {
-      Operation reverseOperation = domainFactory.createOperation(
-          operation.getType() == CategoryType.INCOME ? CategoryType.EXPENSE : CategoryType.INCOME,
-          operation.getBankAccountId(),
-          operation.getAmount(),
-          "Отмена операции: " + operation.getDescription(),
-          operation.getCategoryId()
-      );
-      bankAccountFacade.updateBalance(operation.getBankAccountId(), reverseOperation);
-      operations.remove(id);
+    if (operation == null) {
+      deleteFromSnapshot(id);
+    } else {
+      Operation reverseOperation = reverseOf(operation);
+      long position;
+      synchronized (lockFor(operation.getBankAccountId())) {
+        if (!operations.containsKey(id)) {
+          return;
+        }
+        bankAccountFacade.updateBalance(operation.getBankAccountId(), reverseOperation);
+        operations.remove(id);
+        operationsByAccount.get(operation.getBankAccountId()).remove(operation);
+        operationsByDate.remove(DateKey.of(operation));
+        removeFromCategoryIndex(operation);
+        position = journal.operationDeleted(operation);
+      }
+      journal.awaitDurable(position);
+    }
+  }
+
+  private void deleteFromSnapshot(final UUID id) {
+    Operation operation = findInSnapshot(id);
+    if (operation == null) {
+      return;
+    }
+    long position;
+    synchronized (lockFor(operation.getBankAccountId())) {
+      if (!deletedSnapshotOperations.add(id)) {
+        return;
+      }
+      bankAccountFacade.updateBalance(operation.getBankAccountId(), reverseOf(operation));
+      removeFromCategoryIndex(operation);
+      position = journal.operationDeleted(operation);
+    }
+    journal.awaitDurable(position);
+  }
+
+  private Operation reverseOf(final Operation operation) {
+    return domainFactory.createOperation(
+        operation.getType() == CategoryType.INCOME ? CategoryType.EXPENSE : CategoryType.INCOME,
+        operation.getBankAccountId(),
+        operation.getAmount(),
+        "Отмена операции: " + operation.getDescription(),
+        operation.getCategoryId()
+    );
+  }
+
+  private Operation findInSnapshot(final UUID id) {
+    MappedOperationSnapshot current = snapshot;
+    if (current == null || deletedSnapshotOperations.contains(id)) {
+      return null;
+    }
+    return current.find(id);
+  }
+
+  private void forEachLive(final List<Operation> historic, final Consumer<Operation> action) {
+    for (Operation operation : historic) {
+      if (deletedSnapshotOperations.isEmpty()
+          || !deletedSnapshotOperations.contains(operation.getId())) {
+        action.accept(operation);
+      }
+    }
+  }
+
+  /**
+   * Returns a page of the snapshot operations of an account followed by its recent ones.
+   * Unless some snapshot operations were deleted, only the operations of the page are
+   * materialised.
+   */
+  private List<Operation> page(final List<Operation> historic, final UUID bankAccountId,
+                               final int offset, final int limit) {
+    List<Operation> live = historic;
+    if (!deletedSnapshotOperations.isEmpty()) {
+      live = new ArrayList<>();
+      forEachLive(historic, live::add);
+    }
+    List<Operation> result = new ArrayList<>();
+    int from = Math.min(offset, live.size());
+    int to = (int) Math.min((long) from + limit, live.size());
+    result.addAll(live.subList(from, to));
+    if (result.size() < limit) {
+      List<Operation> recent = operationsByAccount.get(bankAccountId);
+      if (recent != null) {
+        synchronized (lockFor(bankAccountId)) {
+          int recentFrom = Math.min(Math.max(offset - live.size(), 0), recent.size());
+          int recentTo = Math.min(recentFrom + limit - result.size(), recent.size());
+          result.addAll(recent.subList(recentFrom, recentTo));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Claims the IDs of a group of operations in the index by ID, so that an operation
+   * posted concurrently with the same ID cannot replace it; operations whose IDs are
+   * already present, in the facade or its snapshot, are rejected. The claims of operations
+   * that are not posted in the end must be released.
+   *
+   * @return the operations whose IDs are claimed, with their positions in the batch
+   */
+  private AccountBatch claim(final AccountBatch accountBatch, final PostingResult[] results) {
+    AccountBatch claimed = new AccountBatch();
+    for (int i = 0; i < accountBatch.operations.size(); i++) {
+      Operation operation = accountBatch.operations.get(i);
+      if (findInSnapshot(operation.getId()) == null
+          && operations.putIfAbsent(operation.getId(), operation) == null) {
+        claimed.add(operation, accountBatch.indexes[i]);
+      } else {
+        results[accountBatch.indexes[i]] = PostingResult.rejected(operation,
+            "Операция с таким ID уже существует");
+      }
+    }
+    return claimed;
+  }
+
+  /**
+   * Claims the IDs of loaded operations in the index by ID, all or none of them.
+   *
+   * @throws IllegalArgumentException if an ID is already present
+   */
+  private void claimAll(final List<Operation> loaded) {
+    for (int i = 0; i < loaded.size(); i++) {
+      Operation operation = loaded.get(i);
+      if (findInSnapshot(operation.getId()) != null
+          || operations.putIfAbsent(operation.getId(), operation) != null) {
+        for (Operation claimed : loaded.subList(0, i)) {
+          operations.remove(claimed.getId(), claimed);
+        }
+        throw new IllegalArgumentException("Операция " + operation.getId() + " уже существует");
+      }
+    }
+  }
+
+  /**
+   * Indexes and journals an operation whose balance change is applied.
+   * Must be called while holding the lock of its account.
+   *
+   * @return the position of the journal record
+   */
+  private long indexPosted(final Operation operation) {
+    UUID categoryId = operation.getCategoryId();
+    operations.put(operation.getId(), operation);
+    operationsByAccount.computeIfAbsent(operation.getBankAccountId(),
+        accountId -> new ArrayList<>()).add(operation);
+    operationsByDate.put(DateKey.of(operation), operation);
+    if (categoryId != null) {
+      operationsByCategory.computeIfAbsent(categoryId, category -> new ConcurrentLinkedQueue<>())
+          .add(operation);
+      categoryTotals.compute(categoryId, (id, totals) -> {
+        RunningTotals running = totals == null ? new RunningTotals() : totals;
+        running.add(operation);
+        return running;
+      });
+    }
+    return journal.operationPosted(operation);
+  }
+
+  private void removeFromCategoryIndex(final Operation operation) {
+    if (operation.getCategoryId() == null) {
+      return;
+    }
+    Queue<Operation> categoryOperations = operationsByCategory.get(operation.getCategoryId());
+    if (categoryOperations != null) {
+      categoryOperations.remove(operation);
+    }
+    categoryTotals.computeIfPresent(operation.getCategoryId(),
+        (categoryId, totals) -> totals.remove(operation) ? null : totals);
+  }
+
+  private Object lockFor(final UUID bankAccountId) {
+    int hash = Objects.hashCode(bankAccountId);
+    return accountLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+  }
+
+  private NavigableMap<DateKey, Operation> periodView(final LocalDateTime start,
+                                                     final LocalDateTime end) {
+    return operationsByDate.subMap(new DateKey(start, MAX_ID), false,
+        new DateKey(end, MIN_ID), false);
+  }
+
+  /**
+   * Operations of one account within a batch, with their positions in the batch.
+   */
+  private static final class AccountBatch {
+    private final List<Operation> operations = new ArrayList<>(2);
+    private int[] indexes = new int[2];
+
+    void add(final Operation operation, final int index) {
+      if (operations.size() == indexes.length) {
+        indexes = Arrays.copyOf(indexes, indexes.length * 2);
+      }
+      indexes[operations.size()] = index;
+      operations.add(operation);
+    }
+  }
+
+  /**
+   * Index entries of a batch of operations, merged into the indexes by date and category
+   * at once; the callers maintain the index by ID. The concurrent index by date inserts
+   * entries one by one anyway, so the batch keeps just the list of its operations for it;
+   * category queues and totals are grouped, so that each category is updated once.
+   */
+  private final class IndexBatch {
+    private final List<Operation> added = new ArrayList<>();
+    private final Map<UUID, List<Operation>> byCategory = new HashMap<>();
+    private final Map<UUID, RunningTotals> totals = new HashMap<>();
+
+    void add(final Operation operation) {
+      added.add(operation);
+      if (operation.getCategoryId() != null) {
+        byCategory.computeIfAbsent(operation.getCategoryId(), categoryId -> new ArrayList<>())
+            .add(operation);
+        totals.computeIfAbsent(operation.getCategoryId(), categoryId -> new RunningTotals())
+            .add(operation);
+      }
+    }
+
+    void merge() {
+      for (Operation operation : added) {
+        operationsByDate.put(DateKey.of(operation), operation);
+      }
+      byCategory.forEach((categoryId, categoryOperations) -> operationsByCategory
+          .computeIfAbsent(categoryId, id -> new ConcurrentLinkedQueue<>())
+          .addAll(categoryOperations));
+      totals.forEach((categoryId, batchTotals) -> categoryTotals.merge(categoryId, batchTotals,
+          RunningTotals::addAll));
+    }
+  }
+
+  /**
+   * Mutable per-category totals kept as fixed-point accumulators.
+   */
+  private static final class RunningTotals {
+    private final MoneyAccumulator incomeSum = new MoneyAccumulator();
+    private final MoneyAccumulator expenseSum = new MoneyAccumulator();
+    private long incomeCount;
+    private long expenseCount;
+
+    static RunningTotals of(final CategoryTotals totals) {
+      RunningTotals running = new RunningTotals();
+      running.incomeSum.add(totals.getIncomeSum());
+      running.expenseSum.add(totals.getExpenseSum());
+      running.incomeCount = totals.getIncomeCount();
+      running.expenseCount = totals.getExpenseCount();
+      return running;
+    }
+
+    synchronized void add(final Operation operation) {
+      if (operation.getType() == CategoryType.INCOME) {
+        incomeSum.add(operation);
+        incomeCount++;
+      } else {
+        expenseSum.add(operation);
+        expenseCount++;
+      }
+    }
+
+    /**
+     * Removes an operation from the totals.
+     *
+     * @return true if no operations are left
+     */
+    synchronized boolean remove(final Operation operation) {
+      if (operation.getType() == CategoryType.INCOME) {
+        incomeSum.subtract(operation);
+        incomeCount--;
+      } else {
+        expenseSum.subtract(operation);
+        expenseCount--;
+      }
+      return incomeCount + expenseCount == 0;
+    }
+
+    /**
+     * Removes totals of several operations.
+     *
+     * @return true if no operations are left
+     */
+    synchronized boolean removeAll(final CategoryTotals totals) {
+      incomeSum.add(totals.getIncomeSum().negate());
+      expenseSum.add(totals.getExpenseSum().negate());
+      incomeCount -= totals.getIncomeCount();
+      expenseCount -= totals.getExpenseCount();
+      return incomeCount + expenseCount == 0;
+    }
+
+    synchronized RunningTotals addAll(final RunningTotals other) {
+      synchronized (other) {
+        incomeSum.add(other.incomeSum.toBigDecimal());
+        expenseSum.add(other.expenseSum.toBigDecimal());
+        incomeCount += other.incomeCount;
+        expenseCount += other.expenseCount;
+      }
+      return this;
+    }
+
+    synchronized CategoryTotals snapshot() {
+      return new CategoryTotals(incomeSum.toBigDecimal(), incomeCount,
+          expenseSum.toBigDecimal(), expenseCount);
+    }
+  }
+
+  /**
+   * Key of the time-ordered index: operations are ordered by date, ties broken by ID.
+   */
+  private static final class DateKey implements Comparable<DateKey> {
+    private final LocalDateTime date;
+    private final UUID id;
+
+    private DateKey(final LocalDateTime dateParam, final UUID idParam) {
+      this.date = dateParam;
+      this.id = idParam;
+    }
+
+    static DateKey of(final Operation operation) {
+      return new DateKey(operation.getDate(), operation.getId());
+    }
+
+    @Override
+    public int compareTo(final DateKey other) {
+      int byDate = date.compareTo(other.date);
+      return byDate != 0 ? byDate : id.compareTo(other.id);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof DateKey && compareTo((DateKey) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(date, id);
     }
   }
 }
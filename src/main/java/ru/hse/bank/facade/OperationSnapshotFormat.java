@@ -0,0 +1,42 @@
+package ru.hse.bank.facade;
+
+/**
+ * Constants of the memory-mapped operation snapshot format read by
+ * {@link MappedOperationSnapshot}.
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: {@link #MAGIC},
+ * {@link #VERSION}, the number of operations and the offsets of the ID index, the account
+ * index, the category index, the heap, the category totals and the catalog. Operations
+ * follow the header as fixed-width records of {@link #RECORD_SIZE} bytes in chronological
+ * order (by date, ties broken by ID). Each index is a sorted array of
+ * {@link #INDEX_ENTRY_SIZE}-byte entries holding a UUID and a record number; within
+ * an account or a category the entries keep the chronological order. The heap holds
+ * descriptions and amounts that do not fit into a long, the totals hold the income and
+ * expense sums per category, and the catalog holds the accounts and categories in the
+ * binary snapshot format. All numbers are big-endian.
+ */
+public final class OperationSnapshotFormat {
+  public static final int MAGIC = 0x4853454d;
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 2 * Integer.BYTES + 7 * Long.BYTES;
+
+  public static final int RECORD_SIZE = 88;
+  public static final int ID = 0;
+  public static final int ACCOUNT_ID = 16;
+  public static final int CATEGORY_ID = 32;
+  public static final int EPOCH_SECOND = 48;
+  public static final int NANO = 56;
+  public static final int AMOUNT_UNITS = 60;
+  public static final int AMOUNT_SCALE = 68;
+  public static final int DESCRIPTION_OFFSET = 72;
+  public static final int DESCRIPTION_LENGTH = 80;
+  public static final int TYPE = 84;
+  public static final int FLAGS = 85;
+
+  public static final int INDEX_ENTRY_SIZE = 2 * Long.BYTES + Integer.BYTES;
+
+  public static final int HAS_CATEGORY_ID = 1;
+  public static final int BIG_AMOUNT = 1 << 1;
+
+  private OperationSnapshotFormat() {
+  }
+}
@@ -0,0 +1,49 @@
+package ru.hse.bank.facade;
+
+import ru.hse.bank.model.Operation;
+
+/**
+ * Result of posting one operation of a batch with {@link OperationFacade#postOperations}.
+ */
+public final class PostingResult {
+  private final Operation operation;
+  private final String error;
+
+  private PostingResult(final Operation operationParam, final String errorParam) {
+    this.operation = operationParam;
+    this.error = errorParam;
+  }
+
+  /**
+   * Creates the result of a posted operation.
+   *
+   * @param operation the posted operation
+   * @return the result
+   */
+  public static PostingResult posted(final Operation operation) {
+    return new PostingResult(operation, null);
+  }
+
+  /**
+   * Creates the result of a rejected operation.
+   *
+   * @param operation the rejected operation, or null if it could not be created
+   * @param error the reason of the rejection
+   * @return the result
+   */
+  public static PostingResult rejected(final Operation operation, final String error) {
+    return new PostingResult(operation, error);
+  }
+
+  public boolean isPosted() {
+    return error == null;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
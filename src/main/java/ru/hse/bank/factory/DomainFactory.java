@@ -60,10 +60,14 @@ public class DomainFactory {
    * @param description the description of the operation
    * @param categoryId the ID of the category
    * @return the created operation
+   * @throws IllegalArgumentException if the type is missing or the amount is not positive
    */
   public Operation createOperation(final CategoryType type, final UUID bankAccountId, 
                    final BigDecimal amount, final String description, final UUID categoryId) {
-    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    if (type == null) {
+      throw new IllegalArgumentException("Не указан тип операции");
+    }
+    if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
       throw new IllegalArgumentException("Сумма операции должна быть положительной");
     }
     return Operation.builder()
@@ -0,0 +1,709 @@
+package ru.hse.bank.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.ChangeJournal;
+import ru.hse.bank.facade.MappedOperationSnapshot;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+/**
+ * Append-only journal file with group commit.
+ * Callers encode their records and queue them; a single writer thread appends everything
+ * queued since its previous pass with one write and makes it durable with one fsync,
+ * so concurrent changes share the cost of a sync. Every record carries its length and
+ * a CRC32 checksum, which lets {@link #recover} detect a record torn by a crash.
+ * An attached operation snapshot is journaled as the path to its file, which is opened
+ * again when the journal is replayed.
+ * Record positions are numbers of records in the file, so they stay valid across restarts,
+ * and the file header carries a random journal ID that tells positions of different
+ * journals apart.
+ */
+public final class FileChangeJournal implements ChangeJournal, Closeable {
+  private static final int MAGIC = 0x4853454a;
+  private static final int VERSION = 2;
+  private static final int LEGACY_VERSION = 1;
+  private static final int LEGACY_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int FILE_HEADER_SIZE = LEGACY_HEADER_SIZE + 2 * Long.BYTES;
+  private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final CategoryType[] TYPES = CategoryType.values();
+
+  private static final byte ACCOUNT_SAVED = 1;
+  private static final byte ACCOUNT_DELETED = 2;
+  private static final byte CATEGORY_SAVED = 3;
+  private static final byte CATEGORY_DELETED = 4;
+  private static final byte OPERATION_POSTED = 5;
+  private static final byte OPERATION_LOADED = 6;
+  private static final byte OPERATION_DELETED = 7;
+  private static final byte SNAPSHOT_ATTACHED = 8;
+  private static final byte SNAPSHOT_DETACHED = 9;
+
+  private final FileChannel channel;
+  private final UUID journalId;
+  private final int headerSize;
+  private final Thread writer;
+  private boolean replaying = true;
+  private long replayPosition;
+  private long recoveredRecords;
+  private List<byte[]> pending = new ArrayList<>();
+  private long appended;
+  private long durable;
+  private long syncs;
+  private IOException failure;
+  private boolean closed;
+
+  private FileChangeJournal(final FileChannel channelParam, final UUID journalIdParam,
+                            final int headerSizeParam) {
+    this.channel = channelParam;
+    this.journalId = journalIdParam;
+    this.headerSize = headerSizeParam;
+    this.writer = new Thread(this::writeLoop, "hse-bank-journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Opens a journal, replays its records into the facades and attaches the journal to them.
+   * A record torn by a crash at the end of the file is discarded; a damaged record followed
+   * by other records fails the recovery and leaves the file untouched. The facades must not
+   * be changed before the replay, and the journal must not be attached to them yet.
+   *
+   * @param filePath the path to the journal file, created if it does not exist
+   * @param bankAccountFacade the bank account facade
+   * @param categoryFacade the category facade
+   * @param operationFacade the operation facade
+   * @return the opened journal
+   * @throws IOException if the journal cannot be read or its records cannot be replayed
+   */
+  public static FileChangeJournal recover(final Path filePath,
+                                          final BankAccountFacade bankAccountFacade,
+                                          final CategoryFacade categoryFacade,
+                                          final OperationFacade operationFacade)
+      throws IOException {
+    FileChangeJournal journal = open(filePath);
+    try {
+      journal.replay(journal, bankAccountFacade, categoryFacade, operationFacade);
+      return journal;
+    } catch (IOException | RuntimeException exception) {
+      journal.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Opens a journal without replaying it. Nothing is written to the journal until
+   * {@link #replay} has run.
+   *
+   * @param filePath the path to the journal file, created if it does not exist
+   * @return the opened journal
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public static FileChangeJournal open(final Path filePath) throws IOException {
+    FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      if (channel.size() == 0) {
+        UUID journalId = UUID.randomUUID();
+        channel.write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION)
+            .putLong(journalId.getMostSignificantBits())
+            .putLong(journalId.getLeastSignificantBits()).flip(), 0);
+        channel.force(true);
+        return new FileChangeJournal(channel, journalId, FILE_HEADER_SIZE);
+      }
+      ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+      while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        // reads until the header is complete or the file ends
+      }
+      header.flip();
+      if (header.remaining() < LEGACY_HEADER_SIZE || header.getInt() != MAGIC) {
+        throw new IOException("Файл не является журналом");
+      }
+      int version = header.getInt();
+      if (version == LEGACY_VERSION) {
+        return new FileChangeJournal(channel, UUID.randomUUID(), LEGACY_HEADER_SIZE);
+      }
+      if (version != VERSION || header.remaining() < 2 * Long.BYTES) {
+        throw new IOException("Неподдерживаемая версия журнала");
+      }
+      return new FileChangeJournal(channel, new UUID(header.getLong(), header.getLong()),
+          FILE_HEADER_SIZE);
+    } catch (IOException | RuntimeException exception) {
+      channel.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Replays the records of the journal into the facades and attaches a journal to them.
+   * The facades record the replayed changes into the attached journal as they would record
+   * new ones, with the positions of the replayed records, but nothing is written; this lets
+   * a decorator in front of this journal see the whole history. A record torn by a crash at
+   * the end of the file is discarded; a damaged record followed by other records fails the
+   * replay and leaves the file untouched. The facades must not be changed before the replay.
+   *
+   * @param front the journal to attach to the facades, this journal or a decorator of it
+   * @param bankAccountFacade the bank account facade
+   * @param categoryFacade the category facade
+   * @param operationFacade the operation facade
+   * @throws IOException if the records cannot be read or replayed
+   * @throws IllegalStateException if the journal has already been replayed
+   */
+  public void replay(final ChangeJournal front, final BankAccountFacade bankAccountFacade,
+                     final CategoryFacade categoryFacade, final OperationFacade operationFacade)
+      throws IOException {
+    synchronized (this) {
+      if (!replaying) {
+        throw new IllegalStateException("Журнал уже воспроизведен");
+      }
+    }
+    bankAccountFacade.setJournal(front);
+    categoryFacade.setJournal(front);
+    operationFacade.setJournal(front);
+    Replay replay = new Replay(this, bankAccountFacade, categoryFacade, operationFacade);
+    long end = replay.run(channel, headerSize);
+    channel.truncate(end);
+    channel.position(channel.size());
+    synchronized (this) {
+      recoveredRecords = replay.records;
+      appended = replay.records;
+      durable = replay.records;
+      replaying = false;
+    }
+  }
+
+  /**
+   * Returns the ID of the journal, which is kept in the file and does not change between
+   * runs. Journals written before the ID was introduced get a new ID on every run.
+   *
+   * @return the journal ID
+   */
+  public UUID getJournalId() {
+    return journalId;
+  }
+
+  /**
+   * Returns the number of records replayed when the journal was opened.
+   *
+   * @return the number of recovered records
+   */
+  public synchronized long getRecoveredRecords() {
+    return recoveredRecords;
+  }
+
+  /**
+   * Returns the number of records appended since the journal was opened.
+   *
+   * @return the number of appended records
+   */
+  public synchronized long getAppendedRecords() {
+    return appended - recoveredRecords;
+  }
+
+  /**
+   * Returns the number of fsyncs made since the journal was opened; with concurrent
+   * writers it is lower than the number of appended records.
+   *
+   * @return the number of fsyncs
+   */
+  public synchronized long getSyncs() {
+    return syncs;
+  }
+
+  @Override
+  public long accountSaved(final BankAccount account) {
+    return append(ACCOUNT_SAVED, output -> {
+      writeUuid(output, account.getId());
+      writeString(output, account.getName());
+      writeAmount(output, account.getBalance());
+    });
+  }
+
+  @Override
+  public long accountDeleted(final UUID id) {
+    return append(ACCOUNT_DELETED, output -> writeUuid(output, id));
+  }
+
+  @Override
+  public long categorySaved(final Category category) {
+    return append(CATEGORY_SAVED, output -> {
+      writeUuid(output, category.getId());
+      writeString(output, category.getName());
+      writeType(output, category.getType());
+    });
+  }
+
+  @Override
+  public long categoryDeleted(final UUID id) {
+    return append(CATEGORY_DELETED, output -> writeUuid(output, id));
+  }
+
+  @Override
+  public long operationPosted(final Operation operation) {
+    return append(OPERATION_POSTED, output -> writeOperation(output, operation));
+  }
+
+  @Override
+  public long operationsPosted(final List<Operation> operations) {
+    List<byte[]> records = new ArrayList<>(operations.size());
+    for (Operation operation : operations) {
+      records.add(encode(OPERATION_POSTED, output -> writeOperation(output, operation)));
+    }
+    return enqueue(records);
+  }
+
+  @Override
+  public long operationLoaded(final Operation operation) {
+    return append(OPERATION_LOADED, output -> writeOperation(output, operation));
+  }
+
+  @Override
+  public long operationDeleted(final Operation operation) {
+    return append(OPERATION_DELETED, output -> writeUuid(output, operation.getId()));
+  }
+
+  @Override
+  public long snapshotAttached(final Path filePath, final int operations) {
+    return append(SNAPSHOT_ATTACHED, output -> {
+      writeString(output, filePath.toString());
+      output.writeInt(operations);
+    });
+  }
+
+  @Override
+  public long snapshotDetached() {
+    return append(SNAPSHOT_DETACHED, output -> { });
+  }
+
+  @Override
+  public synchronized void awaitDurable(final long position) {
+    if (replaying) {
+      return;
+    }
+    boolean interrupted = false;
+    while (durable < position && failure == null) {
+      try {
+        wait();
+      } catch (InterruptedException exception) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (durable < position) {
+      throw new UncheckedIOException("Не удалось записать журнал", failure);
+    }
+  }
+
+  /**
+   * Makes all queued records durable and closes the file.
+   *
+   * @throws IOException if the remaining records cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+    synchronized (this) {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Makes the records journaled during the replay get positions following the given one.
+   */
+  private synchronized void replayFrom(final long position) {
+    replayPosition = position;
+  }
+
+  private long append(final byte type, final RecordWriter body) {
+    return enqueue(List.of(encode(type, body)));
+  }
+
+  private static byte[] encode(final byte type, final RecordWriter body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    DataOutputStream output = new DataOutputStream(bytes);
+    try {
+      output.writeInt(0);
+      output.writeInt(0);
+      output.writeByte(type);
+      body.write(output);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    byte[] record = bytes.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+    ByteBuffer.wrap(record).putInt(record.length - RECORD_HEADER_SIZE).putInt((int) crc.getValue());
+    return record;
+  }
+
+  /**
+   * Queues encoded records for the writer thread and returns the position of the last one.
+   */
+  private synchronized long enqueue(final List<byte[]> records) {
+    if (closed) {
+      throw new IllegalStateException("Журнал закрыт");
+    }
+    if (replaying) {
+      replayPosition += records.size();
+      return replayPosition;
+    }
+    if (failure != null) {
+      throw new UncheckedIOException("Не удалось записать журнал", failure);
+    }
+    pending.addAll(records);
+    appended += records.size();
+    notifyAll();
+    return appended;
+  }
+
+  private void writeLoop() {
+    while (true) {
+      List<byte[]> batch;
+      long batchEnd;
+      synchronized (this) {
+        while (pending.isEmpty() && !closed) {
+          try {
+            wait();
+          } catch (InterruptedException exception) {
+            // the loop ends only when the journal is closed
+          }
+        }
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        pending = new ArrayList<>();
+        batchEnd = appended;
+      }
+
+      try {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+          buffers[i] = ByteBuffer.wrap(batch.get(i));
+        }
+        while (buffers[buffers.length - 1].hasRemaining()) {
+          channel.write(buffers);
+        }
+        channel.force(false);
+      } catch (IOException exception) {
+        synchronized (this) {
+          failure = exception;
+          notifyAll();
+        }
+        return;
+      }
+
+      synchronized (this) {
+        durable = batchEnd;
+        syncs++;
+        notifyAll();
+      }
+    }
+  }
+
+  private static void writeOperation(final DataOutputStream output, final Operation operation)
+      throws IOException {
+    writeUuid(output, operation.getId());
+    writeType(output, operation.getType());
+    writeUuid(output, operation.getBankAccountId());
+    writeAmount(output, operation.getAmount());
+    writeString(output, operation.getDescription());
+    writeUuid(output, operation.getCategoryId());
+    LocalDateTime date = operation.getDate();
+    output.writeBoolean(date != null);
+    if (date != null) {
+      output.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(date.getNano());
+    }
+  }
+
+  private static void writeUuid(final DataOutputStream output, final UUID id)
+      throws IOException {
+    output.writeBoolean(id != null);
+    if (id != null) {
+      output.writeLong(id.getMostSignificantBits());
+      output.writeLong(id.getLeastSignificantBits());
+    }
+  }
+
+  private static void writeAmount(final DataOutputStream output, final BigDecimal amount)
+      throws IOException {
+    writeString(output, amount == null ? null : amount.toString());
+  }
+
+  private static void writeType(final DataOutputStream output, final CategoryType type)
+      throws IOException {
+    output.writeByte(type == null ? 0 : type.ordinal() + 1);
+  }
+
+  private static void writeString(final DataOutputStream output, final String value)
+      throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  /**
+   * Writes the body of a record.
+   */
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream output) throws IOException;
+  }
+
+  /**
+   * Reads the records of a journal file and applies them to the facades.
+   */
+  private static final class Replay {
+    private final FileChangeJournal journal;
+    private final BankAccountFacade bankAccountFacade;
+    private final CategoryFacade categoryFacade;
+    private final OperationFacade operationFacade;
+    private final List<Operation> loadedOperations = new ArrayList<>();
+    private long records;
+    private long loadedFrom;
+
+    private Replay(final FileChangeJournal journalParam,
+                   final BankAccountFacade bankAccountFacadeParam,
+                   final CategoryFacade categoryFacadeParam,
+                   final OperationFacade operationFacadeParam) {
+      this.journal = journalParam;
+      this.bankAccountFacade = bankAccountFacadeParam;
+      this.categoryFacade = categoryFacadeParam;
+      this.operationFacade = operationFacadeParam;
+    }
+
+    /**
+     * Replays the records and returns the end of the last complete record.
+     */
+    private long run(final FileChannel channel, final int headerSize) throws IOException {
+      DataInputStream input = new DataInputStream(new BufferedInputStream(
+          Channels.newInputStream(channel.position(headerSize)), BUFFER_SIZE));
+      long size = channel.size();
+      long position = headerSize;
+      while (size - position >= RECORD_HEADER_SIZE) {
+        int length = input.readInt();
+        int checksum = input.readInt();
+        if (length <= 0 || length > size - position - RECORD_HEADER_SIZE) {
+          checkTornTail(channel, position, length);
+          break;
+        }
+        byte[] body = new byte[length];
+        input.readFully(body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+          checkTornTail(channel, position, length);
+          break;
+        }
+        if (body[0] != OPERATION_LOADED) {
+          flushLoadedOperations();
+        } else if (loadedOperations.isEmpty()) {
+          loadedFrom = records;
+        }
+        journal.replayFrom(records);
+        apply(body);
+        records++;
+        position += RECORD_HEADER_SIZE + length;
+      }
+      flushLoadedOperations();
+      return position;
+    }
+
+    /**
+     * Checks that an invalid record at the given position is the tail left by an interrupted
+     * write: it runs to the end of the file or is followed only by zeros. An invalid record
+     * followed by other data is corruption, which must not be discarded with the records
+     * after it.
+     */
+    private static void checkTornTail(final FileChannel channel, final long position,
+                                      final int length) throws IOException {
+      long size = channel.size();
+      long end = position + RECORD_HEADER_SIZE + length;
+      if (length > 0 && end >= size) {
+        return;
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+      long offset = Math.max(position + RECORD_HEADER_SIZE, end);
+      while (offset < size) {
+        buffer.clear();
+        int read = channel.read(buffer, offset);
+        if (read < 0) {
+          break;
+        }
+        for (int i = 0; i < read; i++) {
+          if (buffer.get(i) != 0) {
+            throw new IOException("Запись журнала в позиции " + position
+                + " повреждена, за ней следуют другие записи");
+          }
+        }
+        offset += read;
+      }
+    }
+
+    private void apply(final byte[] body) throws IOException {
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+      byte type = input.readByte();
+      try {
+        switch (type) {
+          case ACCOUNT_SAVED:
+            bankAccountFacade.loadAccounts(List.of(new BankAccount(
+                readUuid(input), readString(input), readAmount(input))));
+            break;
+          case ACCOUNT_DELETED:
+            bankAccountFacade.deleteAccount(readUuid(input));
+            break;
+          case CATEGORY_SAVED:
+            categoryFacade.loadCategories(List.of(new Category(
+                readUuid(input), readString(input), readType(input))));
+            break;
+          case CATEGORY_DELETED:
+            categoryFacade.deleteCategory(readUuid(input));
+            break;
+          case OPERATION_POSTED:
+            operationFacade.postOperation(readOperation(input));
+            break;
+          case OPERATION_LOADED:
+            loadedOperations.add(readOperation(input));
+            break;
+          case OPERATION_DELETED:
+            deleteOperation(readUuid(input));
+            break;
+          case SNAPSHOT_ATTACHED:
+            attachSnapshot(Path.of(readString(input)), input.readInt());
+            break;
+          case SNAPSHOT_DETACHED:
+            operationFacade.detachSnapshot();
+            break;
+          default:
+            throw new IOException("Неизвестный тип записи журнала: " + type);
+        }
+      } catch (EOFException | NumberFormatException | DateTimeException exception) {
+        throw new IOException("Некорректная запись журнала", exception);
+      } catch (IllegalArgumentException | IllegalStateException exception) {
+        throw new IOException("Не удалось воспроизвести журнал: " + exception.getMessage(),
+            exception);
+      }
+    }
+
+    private void deleteOperation(final UUID id) throws IOException {
+      if (operationFacade.getOperation(id) == null) {
+        throw new IOException("Не удалось воспроизвести журнал: удаленная операция " + id
+            + " не найдена");
+      }
+      operationFacade.deleteOperation(id);
+    }
+
+    private void attachSnapshot(final Path filePath, final int operations) throws IOException {
+      MappedOperationSnapshot snapshot = MappedOperationSnapshot.open(filePath);
+      try {
+        if (snapshot.size() != operations) {
+          throw new IOException("Снимок операций " + filePath + " изменился после подключения");
+        }
+        operationFacade.attachSnapshot(snapshot);
+      } catch (IOException | RuntimeException exception) {
+        snapshot.close();
+        throw exception;
+      }
+    }
+
+    /**
+     * Loads the pending operations, which are journaled again with the positions of their
+     * records.
+     */
+    private void flushLoadedOperations() {
+      if (!loadedOperations.isEmpty()) {
+        journal.replayFrom(loadedFrom);
+        operationFacade.loadOperations(new ArrayList<>(loadedOperations));
+        loadedOperations.clear();
+      }
+    }
+
+    private static Operation readOperation(final DataInputStream input) throws IOException {
+      UUID id = readUuid(input);
+      CategoryType type = readType(input);
+      UUID bankAccountId = readUuid(input);
+      BigDecimal amount = readAmount(input);
+      String description = readString(input);
+      UUID categoryId = readUuid(input);
+      LocalDateTime date = input.readBoolean()
+          ? LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC)
+          : null;
+      return new Operation(id, type, bankAccountId, amount, description, categoryId, date);
+    }
+
+    private static UUID readUuid(final DataInputStream input) throws IOException {
+      return input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+    }
+
+    private static BigDecimal readAmount(final DataInputStream input) throws IOException {
+      String amount = readString(input);
+      return amount == null ? null : new BigDecimal(amount);
+    }
+
+    private static CategoryType readType(final DataInputStream input) throws IOException {
+      int code = input.readUnsignedByte();
+      if (code > TYPES.length) {
+        throw new IOException("Некорректная запись журнала");
+      }
+      return code == 0 ? null : TYPES[code - 1];
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+      int length = input.readInt();
+      if (length < 0) {
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      input.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
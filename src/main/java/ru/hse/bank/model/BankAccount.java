@@ -1,16 +1,19 @@
 package ru.hse.bank.model;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Represents a bank account in the bank system.
  * This class contains information about the bank account, including its ID, name, and balance.
+ * The balance is kept in a {@link MoneyAccumulator} guarded by the account's monitor,
+ * so balance updates do not allocate.
  */
 public class BankAccount {
   private UUID id;
   private String name;
-  private BigDecimal balance;
+  private MoneyAccumulator balance;
 
   public BankAccount() {
   }
@@ -25,7 +28,7 @@ public class BankAccount {
   public BankAccount(final UUID idParam, final String nameParam, final BigDecimal balanceParam) {
     this.id = idParam;
     this.name = nameParam;
-    this.balance = balanceParam;
+    this.balance = balanceParam == null ? null : new MoneyAccumulator(balanceParam);
   }
 
   public UUID getId() {
@@ -44,12 +47,42 @@ public class BankAccount {
     this.name = nameParam;
   }
 
-  public BigDecimal getBalance() {
-    return balance;
+  public synchronized BigDecimal getBalance() {
+    return balance == null ? null : balance.toBigDecimal();
   }
 
-  public void setBalance(final BigDecimal balanceParam) {
-    this.balance = balanceParam;
+  public synchronized void setBalance(final BigDecimal balanceParam) {
+    this.balance = balanceParam == null ? null : new MoneyAccumulator(balanceParam);
+  }
+
+  /**
+   * Adds the amount of an operation to the balance, or subtracts it,
+   * unless the balance would become negative.
+   *
+   * @param operation the operation whose amount is applied
+   * @param subtract whether the amount is subtracted instead of added
+   * @return true if the balance was changed, false if it would have become negative
+   */
+  public synchronized boolean adjustBalance(final Operation operation, final boolean subtract) {
+    return balance.addIfNonNegative(operation, subtract);
+  }
+
+  /**
+   * Applies the amounts of operations to the balance in order, under a single acquisition
+   * of the monitor: income is added and expenses are subtracted, and every operation that
+   * would make the balance negative is skipped.
+   *
+   * @param operations the operations to apply
+   * @return for every operation, whether it was applied
+   */
+  public synchronized boolean[] adjustBalance(final List<Operation> operations) {
+    boolean[] applied = new boolean[operations.size()];
+    for (int i = 0; i < applied.length; i++) {
+      Operation operation = operations.get(i);
+      applied[i] = balance.addIfNonNegative(operation,
+          operation.getType() != CategoryType.INCOME);
+    }
+    return applied;
   }
 
   public static BankAccountBuilder builder() {
@@ -0,0 +1,191 @@
+package ru.hse.bank.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Mutable money amount stored as an unscaled long and a decimal scale.
+ * Additions follow {@link BigDecimal#add} semantics (the result keeps the larger scale)
+ * but do not allocate while the value fits into a long. On overflow the accumulator
+ * falls back to {@link BigDecimal} arithmetic.
+ * Instances are not thread-safe.
+ */
+public final class MoneyAccumulator {
+  private static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private long units;
+  private int scale;
+  private BigDecimal overflow;
+
+  /**
+   * Creates an accumulator holding zero.
+   */
+  public MoneyAccumulator() {
+  }
+
+  /**
+   * Creates an accumulator holding the given value.
+   *
+   * @param initial the initial value
+   */
+  public MoneyAccumulator(final BigDecimal initial) {
+    set(initial);
+  }
+
+  /**
+   * Replaces the current value.
+   *
+   * @param value the new value
+   */
+  public void set(final BigDecimal value) {
+    BigInteger unscaled = value.unscaledValue();
+    if (unscaled.bitLength() < Long.SIZE) {
+      units = unscaled.longValue();
+      scale = value.scale();
+      overflow = null;
+    } else {
+      overflow = value;
+    }
+  }
+
+  /**
+   * Adds a value.
+   *
+   * @param value the value to add
+   */
+  public void add(final BigDecimal value) {
+    addBig(value, false);
+  }
+
+  /**
+   * Adds the amount of an operation.
+   *
+   * @param operation the operation whose amount is added
+   */
+  public void add(final Operation operation) {
+    add(operation, false);
+  }
+
+  /**
+   * Subtracts the amount of an operation.
+   *
+   * @param operation the operation whose amount is subtracted
+   */
+  public void subtract(final Operation operation) {
+    add(operation, true);
+  }
+
+  /**
+   * Adds or subtracts the amount of an operation unless the result would be negative.
+   *
+   * @param operation the operation whose amount is applied
+   * @param negate whether the amount is subtracted instead of added
+   * @return true if the amount was applied, false if the value was left unchanged
+   */
+  public boolean addIfNonNegative(final Operation operation, final boolean negate) {
+    long previousUnits = units;
+    int previousScale = scale;
+    BigDecimal previousOverflow = overflow;
+    add(operation, negate);
+    if (signum() < 0) {
+      units = previousUnits;
+      scale = previousScale;
+      overflow = previousOverflow;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the signum of the current value.
+   *
+   * @return -1, 0 or 1 as the value is negative, zero or positive
+   */
+  public int signum() {
+    return overflow != null ? overflow.signum() : Long.signum(units);
+  }
+
+  /**
+   * Returns the current value.
+   *
+   * @return the current value as a BigDecimal
+   */
+  public BigDecimal toBigDecimal() {
+    return overflow != null ? overflow : BigDecimal.valueOf(units, scale);
+  }
+
+  /**
+   * Compares the amounts of two operations without materialising them as BigDecimal.
+   *
+   * @param first the first operation
+   * @param second the second operation
+   * @return a negative number, zero or a positive number as the first amount is less than,
+   *     equal to or greater than the second
+   */
+  public static int compareAmounts(final Operation first, final Operation second) {
+    if (first.hasCompactAmount() && second.hasCompactAmount()) {
+      int commonScale = Math.max(first.amountScale(), second.amountScale());
+      try {
+        return Long.compare(
+            rescale(first.amountUnits(), commonScale - first.amountScale()),
+            rescale(second.amountUnits(), commonScale - second.amountScale()));
+      } catch (ArithmeticException exception) {
+        // fall back to BigDecimal comparison
+      }
+    }
+    return first.getAmount().compareTo(second.getAmount());
+  }
+
+  private void add(final Operation operation, final boolean negate) {
+    if (operation.hasCompactAmount()) {
+      addCompact(operation.amountUnits(), operation.amountScale(), negate);
+    } else {
+      addBig(operation.getAmount(), negate);
+    }
+  }
+
+  private void addCompact(final long otherUnits, final int otherScale, final boolean negate) {
+    if (overflow == null) {
+      try {
+        long other = negate ? Math.negateExact(otherUnits) : otherUnits;
+        if (scale >= otherScale) {
+          units = Math.addExact(units, rescale(other, scale - otherScale));
+        } else {
+          units = Math.addExact(rescale(units, otherScale - scale), other);
+          scale = otherScale;
+        }
+        return;
+      } catch (ArithmeticException exception) {
+        // fall back to BigDecimal arithmetic below
+      }
+    }
+    BigDecimal other = BigDecimal.valueOf(otherUnits, otherScale);
+    overflow = toBigDecimal().add(negate ? other.negate() : other);
+  }
+
+  private void addBig(final BigDecimal value, final boolean negate) {
+    BigDecimal addend = negate ? value.negate() : value;
+    if (overflow == null) {
+      BigInteger unscaled = addend.unscaledValue();
+      if (unscaled.bitLength() < Long.SIZE) {
+        addCompact(unscaled.longValue(), addend.scale(), false);
+        return;
+      }
+    }
+    overflow = toBigDecimal().add(addend);
+  }
+
+  private static long rescale(final long value, final int scaleIncrease) {
+    if (scaleIncrease < 0 || scaleIncrease >= POWERS_OF_TEN.length) {
+      throw new ArithmeticException("Масштаб суммы вне допустимого диапазона");
+    }
+    return Math.multiplyExact(value, POWERS_OF_TEN[scaleIncrease]);
+  }
+}
@@ -1,6 +1,7 @@
 package ru.hse.bank.model;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -8,11 +9,19 @@ import java.util.UUID;
  * Represents an operation in the bank system.
  * This class contains information about the operation, 
  * including its ID, type, bank account ID, amount, description, category ID, and date.
+ * Amounts whose unscaled value fits into a long are stored as a long and a scale
+ * instead of a BigDecimal instance. {@link #getAmount()} then creates a new BigDecimal on
+ * every call, so hot loops read the compact form through {@link #hasCompactAmount()},
+ * {@link #amountUnits()} and {@link #amountScale()} instead. These are not bean getters,
+ * so the compact form is never serialised in place of the amount.
  */
 public class Operation {
   private UUID id;
   private CategoryType type;
   private UUID bankAccountId;
+  private boolean compactAmount;
+  private long amountUnits;
+  private int amountScale;
   private BigDecimal amount;
   private String description;
   private UUID categoryId;
@@ -38,7 +47,7 @@ public class Operation {
     this.id = idParam;
     this.type = typeParam;
     this.bankAccountId = bankAccountIdParam;
-    this.amount = amountParam;
+    storeAmount(amountParam);
     this.description = descriptionParam;
     this.categoryId = categoryIdParam;
     this.date = dateParam;
@@ -69,11 +78,70 @@ public class Operation {
   }
 
   public BigDecimal getAmount() {
-    return amount;
+    return compactAmount ? BigDecimal.valueOf(amountUnits, amountScale) : amount;
   }
 
   public void setAmount(final BigDecimal amountParam) {
-    this.amount = amountParam;
+    storeAmount(amountParam);
+  }
+
+  /**
+   * Returns whether the amount is stored as an unscaled long and a scale.
+   *
+   * @return true if {@link #amountUnits()} and {@link #amountScale()} hold the amount
+   */
+  public boolean hasCompactAmount() {
+    return compactAmount;
+  }
+
+  /**
+   * Returns the unscaled value of a compact amount.
+   *
+   * @return the unscaled value; meaningful only if {@link #hasCompactAmount()}
+   */
+  public long amountUnits() {
+    return amountUnits;
+  }
+
+  /**
+   * Returns the scale of a compact amount.
+   *
+   * @return the scale; meaningful only if {@link #hasCompactAmount()}
+   */
+  public int amountScale() {
+    return amountScale;
+  }
+
+  /**
+   * Returns whether the operation has an amount, without materialising it.
+   *
+   * @return true if the amount is not null
+   */
+  public boolean hasAmount() {
+    return compactAmount || amount != null;
+  }
+
+  /**
+   * Returns the signum of the amount, without materialising it.
+   *
+   * @return -1, 0 or 1 as the amount is negative, zero or positive
+   * @throws NullPointerException if the operation has no amount
+   */
+  public int amountSignum() {
+    return compactAmount ? Long.signum(amountUnits) : amount.signum();
+  }
+
+  private void storeAmount(final BigDecimal amountParam) {
+    BigInteger unscaled = amountParam == null ? null : amountParam.unscaledValue();
+    if (unscaled != null && unscaled.bitLength() < Long.SIZE) {
+      this.compactAmount = true;
+      this.amountUnits = unscaled.longValue();
+      this.amountScale = amountParam.scale();
+      this.amount = null;
+    } else {
+      this.compactAmount = false;
+      this.amount = amountParam;
+    }
   }
 
   public String getDescription() {
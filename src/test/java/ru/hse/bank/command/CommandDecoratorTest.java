@@ -0,0 +1,75 @@
+package ru.hse.bank.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandDecoratorTest {
+
+    @Test
+    void noneShouldReturnCommandUnchanged() {
+
+        Command<String> command = () -> "result";
+
+
+        Command<String> decorated = CommandDecorator.NONE.decorate(command);
+
+
+        assertSame(command, decorated);
+    }
+
+    @Test
+    void andThenShouldWrapResultOfFirstDecorator() {
+
+        List<String> calls = new ArrayList<>();
+        CommandDecorator decorator = tracing("inner", calls).andThen(tracing("outer", calls));
+
+
+        String result = decorator.decorate(() -> {
+            calls.add("command");
+            return "result";
+        }).execute();
+
+
+        assertEquals("result", result);
+        assertEquals(List.of("outer", "inner", "command"), calls);
+    }
+
+    @Test
+    void timingShouldRecordUnderTypeOfDecoratedCommand() {
+
+        CommandMetrics metrics = new CommandMetrics();
+        Command<Integer> command = new ConstantCommand();
+        CommandDecorator decorator = CommandDecorator.timing(metrics)
+                .andThen(tracing("outer", new ArrayList<>()));
+
+
+        Integer result = decorator.decorate(command).execute();
+
+
+        assertEquals(42, result);
+        assertEquals(1, metrics.snapshot().get("ConstantCommand").getCount());
+    }
+
+    private static CommandDecorator tracing(final String name, final List<String> calls) {
+        return new CommandDecorator() {
+            @Override
+            public <T> Command<T> decorate(final Command<T> command) {
+                return () -> {
+                    calls.add(name);
+                    return command.execute();
+                };
+            }
+        };
+    }
+
+    private static final class ConstantCommand implements Command<Integer> {
+        @Override
+        public Integer execute() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ru.hse.bank.command;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.hse.bank.command.operation.CreateOperationCommand;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandExecutorTest {
+
+    private CommandExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new CommandExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void submitShouldCompleteWithResultOfCommand() {
+
+        Command<String> command = () -> "result";
+
+
+        CompletableFuture<String> result = executor.submit(command);
+
+
+        assertEquals("result", result.join());
+    }
+
+    @Test
+    void submitShouldCompleteExceptionallyWhenCommandFails() {
+
+        Command<String> command = () -> {
+            throw new IllegalStateException("failure");
+        };
+
+
+        CompletableFuture<String> result = executor.submit(UUID.randomUUID(), command);
+
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void submitShouldExecuteCommandsOfSameAccountOneAtATimeInOrder() {
+
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+
+        for (int i = 0; i < 200; i++) {
+            int number = i;
+            results.add(executor.submit(accountId, () -> {
+                assertEquals(1, running.incrementAndGet());
+                executed.add(number);
+                running.decrementAndGet();
+                return number;
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, executed);
+    }
+
+    @Test
+    void submitShouldContinueWithNextCommandOfAccountAfterFailure() {
+
+        UUID accountId = UUID.randomUUID();
+        CompletableFuture<String> failed = executor.submit(accountId, () -> {
+            throw new IllegalStateException("failure");
+        });
+
+
+        CompletableFuture<String> next = executor.submit(accountId, () -> "next");
+
+
+        assertThrows(CompletionException.class, failed::join);
+        assertEquals("next", next.join());
+    }
+
+    @Test
+    void submitShouldRunCommandsOfDifferentAccountsInParallel() throws InterruptedException {
+
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Command<Boolean> command = () -> {
+            bothStarted.countDown();
+            try {
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                throw new IllegalStateException(exception);
+            }
+        };
+
+
+        CompletableFuture<Boolean> first = executor.submit(UUID.randomUUID(), command);
+        CompletableFuture<Boolean> second = executor.submit(UUID.randomUUID(), command);
+
+
+        assertTrue(first.join());
+        assertTrue(second.join());
+    }
+
+    @Test
+    void submitShouldOrderOperationCommandsByAccount() {
+
+        UUID accountId = UUID.randomUUID();
+        CreateOperationCommand command = new CreateOperationCommand(new DomainFactory(),
+                CategoryType.INCOME, accountId, new BigDecimal("10.00"), "Зарплата", null);
+
+
+        Operation operation = executor.submit(command).join();
+
+
+        assertEquals(accountId, operation.getBankAccountId());
+        assertEquals(new BigDecimal("10.00"), operation.getAmount());
+    }
+
+    @Test
+    void closeShouldCompleteCommandsQueuedBehindTheRunningCommandOfTheirAccount()
+            throws InterruptedException {
+
+        UUID accountId = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(accountId, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                throw new IllegalStateException(exception);
+            }
+            executed.add(0);
+            return 0;
+        }));
+        for (int i = 1; i < 5; i++) {
+            int index = i;
+            results.add(executor.submit(accountId, () -> {
+                executed.add(index);
+                return index;
+            }));
+        }
+        Thread closing = new Thread(executor::close);
+
+
+        closing.start();
+        closing.join(100);
+        release.countDown();
+        closing.join();
+
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, results.get(i).join());
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), executed);
+        CompletableFuture<String> rejected = executor.submit(accountId, () -> "late");
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+}
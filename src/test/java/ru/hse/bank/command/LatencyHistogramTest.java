@@ -0,0 +1,92 @@
+package ru.hse.bank.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void snapshot_ShouldReportPercentilesWithinRelativeError() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+
+
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000_000L, snapshot.getMax());
+        assertWithinError(50_000_000L, snapshot.getP50());
+        assertWithinError(99_000_000L, snapshot.getP99());
+        assertWithinError(99_900_000L, snapshot.getP999());
+    }
+
+    @Test
+    void snapshot_Empty_ShouldReportZeros() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getP50());
+        assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    void bucketOf_ShouldCoverWholeRangeOfLong() {
+
+        long[] values = {0, 31, 32, 33, 1_000_000, Long.MAX_VALUE};
+
+
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+
+
+            assertTrue(LatencyHistogram.highestValueOf(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    void record_ConcurrentThreads_ShouldCountEveryValue() throws Exception {
+
+        CommandMetrics metrics = new CommandMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+
+        for (int thread = 0; thread < 4; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.record("CreateOperationCommand", i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+
+        assertEquals(40_000, metrics.snapshot().get("CreateOperationCommand").getCount());
+        assertEquals(9_999, metrics.snapshot().get("CreateOperationCommand").getMax());
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32,
+                "Expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,193 @@
+package ru.hse.bank.command;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.hse.bank.command.operation.PostOperationCommand;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.CategoryType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCommandExecutorTest {
+
+    private ShardedCommandExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ShardedCommandExecutor(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void constructorShouldRejectNonPositiveShardCount() {
+
+        int shardCount = 0;
+
+
+        assertThrows(IllegalArgumentException.class, () -> new ShardedCommandExecutor(shardCount));
+    }
+
+    @Test
+    void submitShouldExecuteCommandsOfAccountInOrder() {
+
+        UUID accountId = UUID.randomUUID();
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+
+        for (int i = 0; i < 1000; i++) {
+            int number = i;
+            results.add(executor.submit(accountId, () -> {
+                executed.add(number);
+                return number;
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, executed.get(i));
+            assertEquals(i, results.get(i).join());
+        }
+    }
+
+    @Test
+    void submitShouldCompleteExceptionallyWhenCommandFailsAndContinue() {
+
+        UUID accountId = UUID.randomUUID();
+        CompletableFuture<String> failed = executor.submit(accountId, () -> {
+            throw new IllegalStateException("failure");
+        });
+
+
+        CompletableFuture<String> next = executor.submit(accountId, () -> "next");
+
+
+        CompletionException exception = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals("next", next.join());
+    }
+
+    @Test
+    void submitShouldRejectCommandsAfterClose() {
+
+        executor.close();
+
+
+        CompletableFuture<String> result = executor.submit(UUID.randomUUID(), () -> "result");
+
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+
+    @Test
+    void closeShouldExecuteCommandsSubmittedBeforeIt() {
+
+        UUID accountId = UUID.randomUUID();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int number = i;
+            results.add(executor.submit(accountId, () -> number));
+        }
+
+
+        executor.close();
+
+
+        for (CompletableFuture<Integer> result : results) {
+            assertTrue(result.isDone());
+            assertFalse(result.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    void closeConcurrentWithSubmitShouldLeaveNoCommandPending() throws Exception {
+
+        UUID accountId = UUID.randomUUID();
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+
+        for (int round = 0; round < 200; round++) {
+            ShardedCommandExecutor shortLived = new ShardedCommandExecutor(1);
+            Future<List<CompletableFuture<Integer>>> submitted = producer.submit(() -> {
+                List<CompletableFuture<Integer>> futures = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    int number = i;
+                    futures.add(shortLived.submit(accountId, () -> number));
+                }
+                return futures;
+            });
+            shortLived.close();
+            results.addAll(submitted.get(5, TimeUnit.SECONDS));
+        }
+        producer.shutdown();
+
+
+        for (CompletableFuture<Integer> result : results) {
+            assertTrue(result.isDone());
+        }
+    }
+
+    @Test
+    void submitFromConcurrentThreadsShouldKeepBalancesConsistent() throws Exception {
+
+        DomainFactory domainFactory = new DomainFactory();
+        BankAccountFacade bankAccountFacade = new BankAccountFacade(domainFactory);
+        OperationFacade operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            accountIds.add(bankAccountFacade.createAccount("Счет " + i, BigDecimal.ZERO).getId());
+        }
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<Future<List<CompletableFuture<?>>>> submitted = new ArrayList<>();
+
+
+        for (int producer = 0; producer < 4; producer++) {
+            submitted.add(producers.submit(() -> {
+                List<CompletableFuture<?>> results = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                    results.add(executor.submit(new PostOperationCommand(operationFacade,
+                            CategoryType.INCOME, accountIds.get(i % accountIds.size()),
+                            new BigDecimal("1.00"), "Пополнение", null)));
+                }
+                return results;
+            }));
+        }
+        for (Future<List<CompletableFuture<?>>> future : submitted) {
+            for (CompletableFuture<?> result : future.get()) {
+                result.join();
+            }
+        }
+        producers.shutdown();
+        assertTrue(producers.awaitTermination(10, TimeUnit.SECONDS));
+
+
+        for (UUID accountId : accountIds) {
+            assertEquals(new BigDecimal("200.00"), bankAccountFacade.getAccount(accountId).getBalance());
+            assertEquals(200, operationFacade.getOperationsByAccount(accountId).size());
+        }
+    }
+}
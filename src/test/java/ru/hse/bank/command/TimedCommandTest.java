@@ -18,6 +18,7 @@ class TimedCommandTest {
     private Command<String> mockCommand;
 
     private TimedCommand<String> timedCommand;
+    private CommandMetrics metrics;
     private ByteArrayOutputStream outputStream;
     private PrintStream originalOut;
 
@@ -30,7 +31,9 @@ class TimedCommandTest {
         outputStream = new ByteArrayOutputStream();
         System.setOut(new PrintStream(outputStream));
 
-        timedCommand = new TimedCommand<>(mockCommand);
+        metrics = new CommandMetrics();
+
+        timedCommand = new TimedCommand<>(mockCommand, metrics);
     }
 
     @AfterEach
@@ -61,9 +64,10 @@ class TimedCommandTest {
         timedCommand.execute();
 
 
-        String output = outputStream.toString();
-        assertTrue(output.contains("Выполнение команды заняло:"));
-        assertTrue(output.contains("мс"));
+        LatencySnapshot latencies = metrics.histogram(mockCommand.getClass().getSimpleName())
+                .snapshot();
+        assertEquals(1, latencies.getCount());
+        assertEquals("", outputStream.toString());
     }
 
     @Test
@@ -79,12 +83,48 @@ class TimedCommandTest {
         timedCommand.execute();
 
 
-        String output = outputStream.toString();
-        assertTrue(output.contains("Выполнение команды заняло:"));
+        LatencySnapshot latencies = metrics.snapshot().get(mockCommand.getClass().getSimpleName());
+        assertTrue(latencies.getMax() >= 100_000_000L, "Execution time should be at least 100ms");
+        assertTrue(latencies.getP50() >= 100_000_000L);
+        assertEquals("", outputStream.toString());
+    }
+
+    @Test
+    void executeShouldRecordFailedExecution() {
+
+        when(mockCommand.execute()).thenThrow(new IllegalStateException("failure"));
+
+
+        assertThrows(IllegalStateException.class, () -> timedCommand.execute());
+
+
+        assertEquals(1, metrics.snapshot().get(mockCommand.getClass().getSimpleName()).getCount());
+    }
+
+    @Test
+    void executeShouldNotRecordWhenMetricsAreDisabled() {
+
+        when(mockCommand.execute()).thenReturn("test");
+        metrics.setEnabled(false);
+
+
+        String result = timedCommand.execute();
+
+
+        assertEquals("test", result);
+        assertEquals(0, metrics.snapshot().get(mockCommand.getClass().getSimpleName()).getCount());
+    }
+
+    @Test
+    void executeShouldRecordUnderGivenCommandType() {
+
+        when(mockCommand.execute()).thenReturn("test");
+        TimedCommand<String> namedCommand = new TimedCommand<>(mockCommand, metrics, "Named");
+
+
+        namedCommand.execute();
 
 
-        String timeString = output.substring(output.indexOf(":") + 1, output.indexOf("мс")).trim();
-        int executionTime = Integer.parseInt(timeString);
-        assertTrue(executionTime >= 100, "Execution time should be at least 100ms");
+        assertEquals(1, metrics.snapshot().get("Named").getCount());
     }
-} 
\ No newline at end of file
+}
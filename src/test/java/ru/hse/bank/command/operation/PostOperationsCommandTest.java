@@ -0,0 +1,110 @@
+package ru.hse.bank.command.operation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.facade.PostingResult;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.CategoryType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostOperationsCommandTest {
+
+    private DomainFactory domainFactory;
+    private BankAccountFacade bankAccountFacade;
+    private OperationFacade operationFacade;
+    private UUID firstAccountId;
+    private UUID secondAccountId;
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        domainFactory = new DomainFactory();
+        bankAccountFacade = new BankAccountFacade(domainFactory);
+        operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+        firstAccountId = bankAccountFacade.createAccount("Первый", new BigDecimal("100.00")).getId();
+        secondAccountId = bankAccountFacade.createAccount("Второй", new BigDecimal("50.00")).getId();
+        categoryId = UUID.randomUUID();
+    }
+
+    @Test
+    void executeShouldPostAllOperationsAndUpdateBalances() {
+
+        PostOperationsCommand command = new PostOperationsCommand(domainFactory, operationFacade, List.of(
+                request(CategoryType.INCOME, firstAccountId, "20.00"),
+                request(CategoryType.EXPENSE, secondAccountId, "30.00"),
+                request(CategoryType.EXPENSE, firstAccountId, "70.50")));
+
+
+        List<PostingResult> results = command.execute();
+
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(PostingResult::isPosted));
+        assertEquals(new BigDecimal("49.50"), bankAccountFacade.getAccount(firstAccountId).getBalance());
+        assertEquals(new BigDecimal("20.00"), bankAccountFacade.getAccount(secondAccountId).getBalance());
+        assertEquals(List.of(results.get(0).getOperation(), results.get(2).getOperation()),
+                operationFacade.getOperationsByAccount(firstAccountId));
+        assertEquals(3, operationFacade.getOperationsByCategory(categoryId).size());
+        assertEquals(1, operationFacade.getCategoryTotals().get(categoryId).getIncomeCount());
+        assertEquals(2, operationFacade.getCategoryTotals().get(categoryId).getExpenseCount());
+    }
+
+    @Test
+    void executeShouldRejectInvalidOperationsWithoutAffectingOthers() {
+
+        PostOperationsCommand command = new PostOperationsCommand(domainFactory, operationFacade, List.of(
+                request(CategoryType.EXPENSE, firstAccountId, "-5.00"),
+                request(CategoryType.EXPENSE, UUID.randomUUID(), "10.00"),
+                request(CategoryType.EXPENSE, secondAccountId, "60.00"),
+                request(CategoryType.EXPENSE, secondAccountId, "40.00")));
+
+
+        List<PostingResult> results = command.execute();
+
+
+        assertEquals("Сумма операции должна быть положительной", results.get(0).getError());
+        assertNull(results.get(0).getOperation());
+        assertEquals("Счет не найден", results.get(1).getError());
+        assertEquals("Недостаточно средств на счете", results.get(2).getError());
+        assertTrue(results.get(3).isPosted());
+        assertEquals(new BigDecimal("10.00"), bankAccountFacade.getAccount(secondAccountId).getBalance());
+        assertEquals(List.of(results.get(3).getOperation()), operationFacade.getAllOperations());
+    }
+
+    @Test
+    void executeShouldCreateDistinctVersion4Ids() {
+
+        List<OperationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            requests.add(request(CategoryType.INCOME, firstAccountId, "1.00"));
+        }
+
+
+        List<PostingResult> results = new PostOperationsCommand(domainFactory, operationFacade, requests).execute();
+
+
+        Set<UUID> ids = new HashSet<>();
+        for (PostingResult result : results) {
+            UUID id = result.getOperation().getId();
+            assertEquals(4, id.version());
+            assertEquals(2, id.variant());
+            ids.add(id);
+        }
+        assertEquals(1000, ids.size());
+    }
+
+    private OperationRequest request(final CategoryType type, final UUID accountId, final String amount) {
+        return new OperationRequest(type, accountId, new BigDecimal(amount), "Операция", categoryId);
+    }
+}
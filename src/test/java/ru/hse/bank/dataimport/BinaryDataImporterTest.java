@@ -0,0 +1,249 @@
+package ru.hse.bank.dataimport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.hse.bank.export.BinaryStreamingDataVisitor;
+import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.export.ExportManifest;
+import ru.hse.bank.export.OperationSnapshotWriter;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinaryDataImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BankAccountFacade bankAccountFacade;
+
+    @Mock
+    private CategoryFacade categoryFacade;
+
+    @Mock
+    private OperationFacade operationFacade;
+
+    private BinaryDataImporter importer;
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        importer = new BinaryDataImporter(bankAccountFacade, categoryFacade, operationFacade);
+        snapshotFile = tempDir.resolve("snapshot.bin");
+    }
+
+    @Test
+    void restoreData_ShouldReadSnapshotWrittenByVisitor() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Счет")
+                .balance(new BigDecimal("1500.00"))
+                .build();
+        Category category = Category.builder()
+                .id(UUID.randomUUID())
+                .name(null)
+                .type(CategoryType.EXPENSE)
+                .build();
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.INCOME)
+                .bankAccountId(account.getId())
+                .amount(new BigDecimal("123456789012345678901234567890.12"))
+                .description("Перевод")
+                .date(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999))
+                .build();
+        Operation withoutCategory = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(account.getId())
+                .amount(new BigDecimal("-0.5"))
+                .build();
+        writeSnapshot(List.of(account), List.of(category), List.of(operation, withoutCategory));
+
+
+        ImportStatistics statistics = importer.restoreData(snapshotFile);
+
+
+        assertEquals(4, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat((List<BankAccount> accounts) ->
+                accounts.get(0).getId().equals(account.getId())
+                && accounts.get(0).getName().equals("Счет")
+                && accounts.get(0).getBalance().equals(new BigDecimal("1500.00"))));
+        verify(categoryFacade).loadCategories(argThat((List<Category> categories) ->
+                categories.get(0).getId().equals(category.getId())
+                && categories.get(0).getName() == null
+                && categories.get(0).getType() == CategoryType.EXPENSE));
+        verify(operationFacade).loadOperations(argThat((List<Operation> operations) ->
+                operations.get(0).getId().equals(operation.getId())
+                && operations.get(0).getBankAccountId().equals(account.getId())
+                && operations.get(0).getCategoryId() == null
+                && operations.get(0).getAmount().equals(operation.getAmount())
+                && operations.get(0).getDescription().equals("Перевод")
+                && operations.get(0).getDate().equals(operation.getDate())
+                && operations.get(1).getAmount().equals(new BigDecimal("-0.5"))
+                && operations.get(1).getDate() == null
+                && operations.get(1).getDescription() == null));
+    }
+
+    @Test
+    void importData_ShouldParseEachSectionFromSnapshot() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        writeSnapshot(
+                List.of(new BankAccount(accountId, "Счет", new BigDecimal("1000.00"))),
+                List.of(new Category(categoryId, "Зарплата", CategoryType.INCOME)),
+                List.of(new Operation(UUID.randomUUID(), CategoryType.INCOME, accountId,
+                        new BigDecimal("500.00"), "Зарплата", categoryId, LocalDateTime.now())));
+
+
+        importer.importData(snapshotFile);
+
+
+        verify(bankAccountFacade).createAccount("Счет", new BigDecimal("1000.00"));
+        verify(categoryFacade).createCategory("Зарплата", CategoryType.INCOME);
+        verify(operationFacade).createOperation(
+                CategoryType.INCOME, accountId, new BigDecimal("500.00"), "Зарплата", categoryId);
+    }
+
+    @Test
+    void openSnapshot_ShouldLoadCatalogAndAttachOperations() throws IOException {
+
+        BankAccount account = new BankAccount(UUID.randomUUID(), "Счет", new BigDecimal("1000.00"));
+        Category category = new Category(UUID.randomUUID(), "Зарплата", CategoryType.INCOME);
+        Path operationsFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(operationsFile, List.of(account), List.of(category),
+                List.of(new Operation(UUID.randomUUID(), CategoryType.INCOME, account.getId(),
+                        new BigDecimal("500.00"), "Зарплата", category.getId(), LocalDateTime.now())));
+
+
+        ImportStatistics statistics = importer.openSnapshot(operationsFile);
+
+
+        assertEquals(3, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat((List<BankAccount> accounts) ->
+                accounts.size() == 1 && accounts.get(0).getId().equals(account.getId())));
+        verify(categoryFacade).loadCategories(argThat((List<Category> categories) ->
+                categories.size() == 1 && categories.get(0).getName().equals("Зарплата")));
+        verify(operationFacade).attachSnapshot(argThat(snapshot -> snapshot.size() == 1));
+    }
+
+    @Test
+    void importDataStreaming_TruncatedSnapshot_ShouldThrowException() throws IOException {
+
+        writeSnapshot(List.of(new BankAccount(UUID.randomUUID(), "Счет", BigDecimal.TEN)),
+                List.of(), List.of());
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length - 3));
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(snapshotFile));
+    }
+
+    @Test
+    void importDataStreaming_NotASnapshot_ShouldThrowException() throws IOException {
+
+        Files.writeString(snapshotFile, "{\"accounts\":[]}");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(snapshotFile));
+        verifyNoInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void restorePartitioned_ShouldLoadEveryPartWrittenByExporter() throws IOException {
+
+        DomainFactory domainFactory = new DomainFactory();
+        BankAccountFacade sourceAccounts = new BankAccountFacade(domainFactory);
+        CategoryFacade sourceCategories = new CategoryFacade(domainFactory);
+        OperationFacade sourceOperations = new OperationFacade(domainFactory, sourceAccounts);
+        Category category = sourceCategories.createCategory("Продукты", CategoryType.EXPENSE);
+        Set<UUID> operationIds = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            BankAccount account = sourceAccounts.createAccount("Счет " + i, new BigDecimal("100.00"));
+            for (int j = 0; j < 3; j++) {
+                operationIds.add(sourceOperations.createOperation(CategoryType.EXPENSE,
+                        account.getId(), new BigDecimal("1.00"), "Покупка", category.getId()).getId());
+            }
+        }
+        ExportManifest manifest = new DataExporter(sourceAccounts, sourceCategories, sourceOperations)
+                .exportPartitioned(tempDir, BinaryStreamingDataVisitor::new, "bin.gz", 4);
+
+
+        ImportStatistics statistics = importer.restorePartitioned(
+                tempDir.resolve(ExportManifest.FILE_NAME), 2);
+
+
+        assertEquals(5, manifest.getParts().size());
+        assertEquals(25, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat((List<BankAccount> accounts) -> accounts.size() == 6));
+        verify(categoryFacade).loadCategories(argThat((List<Category> categories) -> categories.size() == 1));
+        ArgumentCaptor<List<Operation>> loaded = ArgumentCaptor.forClass(List.class);
+        verify(operationFacade, atLeastOnce()).loadOperations(loaded.capture());
+        Set<UUID> loadedIds = new HashSet<>();
+        loaded.getAllValues().forEach(part -> part.forEach(operation -> loadedIds.add(operation.getId())));
+        assertEquals(operationIds, loadedIds);
+    }
+
+    @Test
+    void restorePartitioned_PartWithFewerEntities_ShouldThrowBeforeLoading() throws IOException {
+
+        writeSnapshot(List.of(), List.of(), List.of());
+        Path manifestFile = tempDir.resolve(ExportManifest.FILE_NAME);
+        new ExportManifest(List.of(new ExportManifest.Part(snapshotFile.getFileName().toString(), 1)))
+                .write(manifestFile);
+
+
+        assertThrows(IOException.class, () -> importer.restorePartitioned(manifestFile, 2));
+
+
+        verifyNoInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    private void writeSnapshot(List<BankAccount> accounts, List<Category> categories,
+                               List<Operation> operations) throws IOException {
+        BinaryStreamingDataVisitor visitor = new BinaryStreamingDataVisitor();
+        try (OutputStream output = Files.newOutputStream(snapshotFile)) {
+            visitor.start(output);
+            for (BankAccount account : accounts) {
+                visitor.visit(account);
+            }
+            for (Category category : categories) {
+                visitor.visit(category);
+            }
+            for (Operation operation : operations) {
+                visitor.visit(operation);
+            }
+            visitor.finish();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.hse.bank.dataimport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.hse.bank.export.CsvStreamingDataVisitor;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CsvDataImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BankAccountFacade bankAccountFacade;
+
+    @Mock
+    private CategoryFacade categoryFacade;
+
+    @Mock
+    private OperationFacade operationFacade;
+
+    private CsvDataImporter importer;
+    private Path importFile;
+
+    @BeforeEach
+    void setUp() {
+        importer = new CsvDataImporter(bankAccountFacade, categoryFacade, operationFacade);
+        importFile = tempDir.resolve("import.csv");
+    }
+
+    @Test
+    void importDataStreaming_ShouldCreateEntitiesInFileOrder() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Files.writeString(importFile,
+                "ACCOUNT," + accountId + ",Счет,1000.00\n"
+                + "CATEGORY," + categoryId + ",\"Зарплата, премия\",INCOME\n"
+                + "\n"
+                + "OPERATION," + UUID.randomUUID() + ",INCOME," + accountId + ",500.00,"
+                + "\"Зарплата\nза март\"," + categoryId + ",2024-03-01T12:00\n");
+
+
+        importer.importDataStreaming(importFile);
+
+
+        InOrder inOrder = inOrder(bankAccountFacade, categoryFacade, operationFacade);
+        inOrder.verify(bankAccountFacade).createAccount("Счет", new BigDecimal("1000.00"));
+        inOrder.verify(categoryFacade).createCategory("Зарплата, премия", CategoryType.INCOME);
+        inOrder.verify(operationFacade).createOperation(
+                CategoryType.INCOME, accountId, new BigDecimal("500.00"), "Зарплата\nза март", categoryId);
+        verifyNoMoreInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void restoreData_ShouldReadFileWrittenByVisitor() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Счет \"основной\"")
+                .balance(new BigDecimal("1500.00"))
+                .build();
+        Category category = Category.builder()
+                .id(UUID.randomUUID())
+                .name("Зарплата")
+                .type(CategoryType.INCOME)
+                .build();
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.INCOME)
+                .bankAccountId(account.getId())
+                .amount(new BigDecimal("500.00"))
+                .description("Без категории")
+                .date(LocalDateTime.of(2024, 3, 1, 12, 0, 30, 500_000_000))
+                .build();
+        CsvStreamingDataVisitor visitor = new CsvStreamingDataVisitor();
+        try (OutputStream output = Files.newOutputStream(importFile)) {
+            visitor.start(output);
+            visitor.visit(account);
+            visitor.visit(category);
+            visitor.visit(operation);
+            visitor.finish();
+        }
+
+
+        ImportStatistics statistics = importer.restoreData(importFile);
+
+
+        assertEquals(3, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat((List<BankAccount> accounts) ->
+                accounts.get(0).getId().equals(account.getId())
+                && accounts.get(0).getName().equals("Счет \"основной\"")
+                && accounts.get(0).getBalance().equals(new BigDecimal("1500.00"))));
+        verify(categoryFacade).loadCategories(argThat((List<Category> categories) ->
+                categories.get(0).getId().equals(category.getId())
+                && categories.get(0).getType() == CategoryType.INCOME));
+        verify(operationFacade).loadOperations(argThat((List<Operation> operations) ->
+                operations.get(0).getId().equals(operation.getId())
+                && operations.get(0).getCategoryId() == null
+                && operations.get(0).getAmount().equals(new BigDecimal("500.00"))
+                && operations.get(0).getDate().equals(operation.getDate())));
+    }
+
+    @Test
+    void importDataStreaming_UnknownRecordType_ShouldThrowException() throws IOException {
+
+        Files.writeString(importFile, "TRANSFER,1,2\n");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(importFile));
+    }
+
+    @Test
+    void importDataStreaming_MalformedAmount_ShouldThrowException() throws IOException {
+
+        Files.writeString(importFile, "ACCOUNT," + UUID.randomUUID() + ",Счет,много\n");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(importFile));
+        verifyNoInteractions(bankAccountFacade);
+    }
+
+    @Test
+    void parseStream_ShouldHandEveryRowToItsType() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        String content = "ACCOUNT," + accountId + ",Счет,10\n"
+                + "OPERATION," + UUID.randomUUID() + ",EXPENSE," + accountId + ",5,,,2024-03-01T12:00\n";
+        EntityHandler handler = mock(EntityHandler.class);
+
+
+        importer.parseStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), handler);
+
+
+        verify(handler).account(any(BankAccount.class));
+        verify(handler, never()).category(any());
+        verify(handler).operation(any(Operation.class));
+    }
+}
@@ -15,15 +15,25 @@ import ru.hse.bank.model.CategoryType;
 import ru.hse.bank.model.Operation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,7 +56,7 @@ class DataImporterTest {
 
     @BeforeEach
     void setUp() throws IOException {
-        dataImporter = spy(new TestDataImporter(bankAccountFacade, categoryFacade, operationFacade));
+        dataImporter = new TestDataImporter(bankAccountFacade, categoryFacade, operationFacade);
         testFile = tempDir.resolve("test-data.txt");
         Files.writeString(testFile, "Test content");
     }
@@ -54,7 +64,6 @@ class DataImporterTest {
     @Test
     void importData_ShouldImportAccountsCategoriesAndOperations() throws IOException {
 
-        String testContent = "Тестовый контент";
         UUID accountId = UUID.randomUUID();
         UUID categoryId = UUID.randomUUID();
         LocalDateTime now = LocalDateTime.now();
@@ -81,22 +90,13 @@ class DataImporterTest {
                 .date(now)
                 .build();
 
-        List<BankAccount> accounts = new ArrayList<>();
-        accounts.add(account);
-
-        List<Category> categories = new ArrayList<>();
-        categories.add(category);
-
-        List<Operation> operations = new ArrayList<>();
-        operations.add(operation);
-
-        doReturn(testContent).when(dataImporter).readFile(any(Path.class));
-        doReturn(accounts).when(dataImporter).parseAccounts(testContent);
-        doReturn(categories).when(dataImporter).parseCategories(testContent);
-        doReturn(operations).when(dataImporter).parseOperations(testContent);
+        dataImporter.accounts.add(account);
+        dataImporter.categories.add(category);
+        dataImporter.operations.add(operation);
 
         dataImporter.importData(testFile);
 
+
         verify(bankAccountFacade).createAccount("Тестовый счет", new BigDecimal("1000.00"));
         verify(categoryFacade).createCategory("Тестовая категория", CategoryType.INCOME);
         verify(operationFacade).createOperation(
@@ -108,33 +108,143 @@ class DataImporterTest {
         );
     }
 
+    @Test
+    void importDataStreaming_ShouldCreateParsedEntities() throws IOException {
 
-    private static class TestDataImporter extends DataImporter {
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Тестовый счет")
+                .balance(new BigDecimal("1000.00"))
+                .build();
 
-        public TestDataImporter(BankAccountFacade bankAccountFacade, 
-                               CategoryFacade categoryFacade, 
-                               OperationFacade operationFacade) {
-            super(bankAccountFacade, categoryFacade, operationFacade);
-        }
+        dataImporter.accounts.add(account);
 
-        @Override
-        protected String readFile(Path filePath) throws IOException {
-            return ""; 
+
+        dataImporter.importDataStreaming(testFile);
+
+
+        verify(bankAccountFacade).createAccount("Тестовый счет", new BigDecimal("1000.00"));
+        verifyNoInteractions(categoryFacade, operationFacade);
+    }
+
+    @Test
+    void importDataPipelined_ShouldLoadAllEntitiesWithOriginalIdsAndReportStatistics()
+            throws IOException {
+
+        UUID firstAccountId = UUID.randomUUID();
+        UUID secondAccountId = UUID.randomUUID();
+        BankAccount firstAccount = BankAccount.builder()
+                .id(firstAccountId)
+                .name("Первый счет")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+        BankAccount secondAccount = BankAccount.builder()
+                .id(secondAccountId)
+                .name("Второй счет")
+                .balance(new BigDecimal("500.00"))
+                .build();
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            operations.add(Operation.builder()
+                    .id(UUID.randomUUID())
+                    .type(CategoryType.INCOME)
+                    .bankAccountId(i % 2 == 0 ? firstAccountId : secondAccountId)
+                    .amount(BigDecimal.ONE)
+                    .description("Операция " + i)
+                    .date(LocalDateTime.now())
+                    .build());
         }
 
-        @Override
-        protected List<BankAccount> parseAccounts(String content) throws IOException {
-            return new ArrayList<>(); 
+        dataImporter.accounts.addAll(List.of(firstAccount, secondAccount));
+        dataImporter.operations.addAll(operations);
+        when(bankAccountFacade.getAccount(any(UUID.class))).thenReturn(firstAccount);
+        List<Operation> loaded = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> loaded.addAll(invocation.getArgument(0)))
+                .when(operationFacade).loadOperations(anyList());
+
+
+        ImportStatistics statistics = dataImporter.importDataPipelined(testFile, 4);
+
+
+        assertEquals(2, statistics.getAccounts());
+        assertEquals(0, statistics.getCategories());
+        assertEquals(1000, statistics.getOperations());
+        assertEquals(1002, statistics.getEntities());
+        assertTrue(statistics.getEntitiesPerSecond() > 0);
+        verify(bankAccountFacade).loadAccounts(List.of(firstAccount));
+        verify(bankAccountFacade).loadAccounts(List.of(secondAccount));
+        verify(bankAccountFacade, never()).createAccount(anyString(), any());
+        verify(operationFacade, never()).createOperation(any(), any(), any(), any(), any());
+        assertEquals(new HashSet<>(operations), new HashSet<>(loaded));
+        List<Operation> firstAccountOperations = new ArrayList<>();
+        for (Operation operation : loaded) {
+            if (operation.getBankAccountId().equals(firstAccountId)) {
+                firstAccountOperations.add(operation);
+            }
         }
+        List<Operation> expectedOrder = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i += 2) {
+            expectedOrder.add(operations.get(i));
+        }
+        assertEquals(expectedOrder, firstAccountOperations);
+    }
 
-        @Override
-        protected List<Category> parseCategories(String content) throws IOException {
-            return new ArrayList<>(); 
+    @Test
+    void importDataPipelined_OperationOfUnknownAccount_ShouldFailImport() throws IOException {
+
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(UUID.randomUUID())
+                .amount(new BigDecimal("5"))
+                .date(LocalDateTime.now())
+                .build();
+
+        dataImporter.operations.add(operation);
+
+
+        assertThrows(IllegalArgumentException.class,
+                () -> dataImporter.importDataPipelined(testFile, 2));
+        verifyNoInteractions(operationFacade);
+    }
+
+    @Test
+    void importDataPipelined_InvalidOperation_ShouldFailImport() throws IOException {
+
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(UUID.randomUUID())
+                .amount(new BigDecimal("-5"))
+                .date(LocalDateTime.now())
+                .build();
+
+        dataImporter.operations.add(operation);
+
+
+        assertThrows(IllegalArgumentException.class,
+                () -> dataImporter.importDataPipelined(testFile, 2));
+        verifyNoInteractions(operationFacade);
+    }
+
+
+    private static class TestDataImporter extends DataImporter {
+        private final List<BankAccount> accounts = new ArrayList<>();
+        private final List<Category> categories = new ArrayList<>();
+        private final List<Operation> operations = new ArrayList<>();
+
+        public TestDataImporter(BankAccountFacade bankAccountFacade, 
+                               CategoryFacade categoryFacade, 
+                               OperationFacade operationFacade) {
+            super(bankAccountFacade, categoryFacade, operationFacade);
         }
 
         @Override
-        protected List<Operation> parseOperations(String content) throws IOException {
-            return new ArrayList<>(); 
+        protected void parseStream(InputStream input, EntityHandler handler) throws IOException {
+            input.readAllBytes();
+            accounts.forEach(handler::account);
+            categories.forEach(handler::category);
+            operations.forEach(handler::operation);
         }
     }
 } 
\ No newline at end of file
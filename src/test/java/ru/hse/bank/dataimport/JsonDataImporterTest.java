@@ -0,0 +1,205 @@
+package ru.hse.bank.dataimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.CategoryTotals;
+import ru.hse.bank.export.DataExporter;
+import ru.hse.bank.export.JsonStreamingDataVisitor;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JsonDataImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BankAccountFacade bankAccountFacade;
+
+    @Mock
+    private CategoryFacade categoryFacade;
+
+    @Mock
+    private OperationFacade operationFacade;
+
+    private JsonDataImporter importer;
+    private Path importFile;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        importer = new JsonDataImporter(objectMapper, bankAccountFacade, categoryFacade, operationFacade);
+        importFile = tempDir.resolve("import.json");
+    }
+
+    @Test
+    void importDataStreaming_ShouldCreateEntitiesInFileOrder() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Files.writeString(importFile, "{"
+                + "\"accounts\":[{\"id\":\"" + accountId + "\",\"name\":\"Счет\",\"balance\":1000.00}],"
+                + "\"categories\":[{\"id\":\"" + categoryId + "\",\"name\":\"Зарплата\",\"type\":\"INCOME\"}],"
+                + "\"metadata\":{\"version\":[1,2]},"
+                + "\"operations\":[{\"id\":\"" + UUID.randomUUID() + "\",\"type\":\"INCOME\","
+                + "\"bankAccountId\":\"" + accountId + "\",\"amount\":500.00,"
+                + "\"description\":\"Зарплата\",\"categoryId\":\"" + categoryId + "\","
+                + "\"date\":[2024,3,1,12,0]}]"
+                + "}");
+
+
+        importer.importDataStreaming(importFile);
+
+
+        InOrder inOrder = inOrder(bankAccountFacade, categoryFacade, operationFacade);
+        inOrder.verify(bankAccountFacade).createAccount("Счет", new BigDecimal("1000.00"));
+        inOrder.verify(categoryFacade).createCategory("Зарплата", CategoryType.INCOME);
+        inOrder.verify(operationFacade).createOperation(
+                CategoryType.INCOME, accountId, new BigDecimal("500.00"), "Зарплата", categoryId);
+        verifyNoMoreInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void restoreData_ShouldBulkLoadEntitiesWithOriginalIds() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        UUID operationId = UUID.randomUUID();
+        Files.writeString(importFile, "{"
+                + "\"accounts\":[{\"id\":\"" + accountId + "\",\"name\":\"Счет\",\"balance\":1500.00}],"
+                + "\"categories\":[{\"id\":\"" + categoryId + "\",\"name\":\"Зарплата\",\"type\":\"INCOME\"}],"
+                + "\"operations\":[{\"id\":\"" + operationId + "\",\"type\":\"INCOME\","
+                + "\"bankAccountId\":\"" + accountId + "\",\"amount\":500.00,"
+                + "\"description\":\"Зарплата\",\"categoryId\":\"" + categoryId + "\","
+                + "\"date\":[2024,3,1,12,0]}]"
+                + "}");
+
+
+        ImportStatistics statistics = importer.restoreData(importFile);
+
+
+        assertEquals(3, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat(accounts -> accounts.size() == 1
+                && accounts.iterator().next().getId().equals(accountId)
+                && accounts.iterator().next().getBalance().equals(new BigDecimal("1500.00"))));
+        verify(categoryFacade).loadCategories(argThat(categories -> categories.size() == 1
+                && categories.iterator().next().getId().equals(categoryId)));
+        verify(operationFacade).loadOperations(argThat(operations -> operations.size() == 1
+                && operations.iterator().next().getId().equals(operationId)
+                && operations.iterator().next().getDate().equals(LocalDateTime.of(2024, 3, 1, 12, 0))));
+        verifyNoMoreInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void importDataPipelined_ExportOfRealFacades_ShouldRestoreTheSameState() throws IOException {
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        DomainFactory domainFactory = new DomainFactory();
+        BankAccountFacade sourceAccounts = new BankAccountFacade(domainFactory);
+        CategoryFacade sourceCategories = new CategoryFacade(domainFactory);
+        OperationFacade sourceOperations = new OperationFacade(domainFactory, sourceAccounts);
+        BankAccount first = sourceAccounts.createAccount("Основной", new BigDecimal("1000.00"));
+        BankAccount second = sourceAccounts.createAccount("Вклад", new BigDecimal("500.00"));
+        Category food = sourceCategories.createCategory("Продукты", CategoryType.EXPENSE);
+        for (int i = 0; i < 600; i++) {
+            BankAccount account = i % 3 == 0 ? second : first;
+            sourceOperations.createOperation(CategoryType.EXPENSE, account.getId(),
+                    new BigDecimal("1.25"), "Покупка " + i, food.getId());
+        }
+        new DataExporter(sourceAccounts, sourceCategories, sourceOperations)
+                .exportData(importFile, new JsonStreamingDataVisitor(objectMapper));
+        BankAccountFacade targetAccounts = new BankAccountFacade(domainFactory);
+        CategoryFacade targetCategories = new CategoryFacade(domainFactory);
+        OperationFacade targetOperations = new OperationFacade(domainFactory, targetAccounts);
+        JsonDataImporter realImporter = new JsonDataImporter(
+                objectMapper, targetAccounts, targetCategories, targetOperations);
+
+
+        ImportStatistics statistics = realImporter.importDataPipelined(importFile, 4);
+
+
+        assertEquals(603, statistics.getEntities());
+        assertEquals(new BigDecimal("500.00"), targetAccounts.getAccount(first.getId()).getBalance());
+        assertEquals(new BigDecimal("250.00"), targetAccounts.getAccount(second.getId()).getBalance());
+        assertEquals("Продукты", targetCategories.getCategory(food.getId()).getName());
+        Set<UUID> expectedIds = new HashSet<>();
+        sourceOperations.getAllOperations().forEach(operation -> expectedIds.add(operation.getId()));
+        Set<UUID> importedIds = new HashSet<>();
+        targetOperations.getAllOperations().forEach(operation -> importedIds.add(operation.getId()));
+        assertEquals(expectedIds, importedIds);
+        assertEquals(400, targetOperations.getOperationsByAccount(first.getId()).size());
+        assertEquals(600, targetOperations.getOperationsByCategory(food.getId()).size());
+        CategoryTotals totals = targetOperations.getCategoryTotals().get(food.getId());
+        assertEquals(600, totals.getExpenseCount());
+        assertEquals(new BigDecimal("750.00"), totals.getExpenseSum());
+    }
+
+    @Test
+    void importDataStreaming_NullSections_ShouldBeIgnored() throws IOException {
+
+        Files.writeString(importFile, "{\"accounts\":null,\"categories\":[],\"operations\":null}");
+
+
+        importer.importDataStreaming(importFile);
+
+
+        verifyNoInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void importDataStreaming_NotAnObject_ShouldThrowException() throws IOException {
+
+        Files.writeString(importFile, "[]");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(importFile));
+    }
+
+    @Test
+    void importData_GzipFile_ShouldBeDecompressedWhateverItsExtension() throws IOException {
+
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(importFile))) {
+            output.write(("{\"accounts\":[],"
+                    + "\"categories\":[{\"name\":\"Зарплата\",\"type\":\"INCOME\"}],"
+                    + "\"operations\":[]}").getBytes(StandardCharsets.UTF_8));
+        }
+
+
+        importer.importData(importFile);
+        importer.importDataStreaming(importFile);
+
+
+        verify(categoryFacade, times(2)).createCategory("Зарплата", CategoryType.INCOME);
+    }
+}
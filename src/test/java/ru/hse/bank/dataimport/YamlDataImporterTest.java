@@ -0,0 +1,191 @@
+package ru.hse.bank.dataimport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.hse.bank.export.YamlStreamingDataVisitor;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class YamlDataImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BankAccountFacade bankAccountFacade;
+
+    @Mock
+    private CategoryFacade categoryFacade;
+
+    @Mock
+    private OperationFacade operationFacade;
+
+    private YamlDataImporter importer;
+    private Path importFile;
+
+    @BeforeEach
+    void setUp() {
+        importer = new YamlDataImporter(bankAccountFacade, categoryFacade, operationFacade);
+        importFile = tempDir.resolve("import.yaml");
+    }
+
+    @Test
+    void importDataStreaming_ShouldCreateEntitiesInDocumentOrder() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Files.writeString(importFile, String.join("\n",
+                "accounts:",
+                "  - {id: " + accountId + ", name: Счет, balance: 1000.00}",
+                "categories:",
+                "  - id: " + categoryId,
+                "    name: 'Зарплата: март'",
+                "    type: INCOME",
+                "metadata:",
+                "  version: [1, 2]",
+                "operations:",
+                "  - id: " + UUID.randomUUID(),
+                "    type: INCOME",
+                "    bankAccountId: " + accountId,
+                "    amount: 500.00",
+                "    description: |-",
+                "      Зарплата",
+                "      за март",
+                "    categoryId: " + categoryId,
+                "    date: 2024-03-01T12:00",
+                ""));
+
+
+        importer.importDataStreaming(importFile);
+
+
+        InOrder inOrder = inOrder(bankAccountFacade, categoryFacade, operationFacade);
+        inOrder.verify(bankAccountFacade).createAccount("Счет", new BigDecimal("1000.00"));
+        inOrder.verify(categoryFacade).createCategory("Зарплата: март", CategoryType.INCOME);
+        inOrder.verify(operationFacade).createOperation(
+                CategoryType.INCOME, accountId, new BigDecimal("500.00"), "Зарплата\nза март", categoryId);
+        verifyNoMoreInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void restoreData_ShouldReadDocumentWrittenByVisitor() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("true")
+                .balance(new BigDecimal("1500.00"))
+                .build();
+        Category category = Category.builder()
+                .id(UUID.randomUUID())
+                .name("Зарплата")
+                .type(CategoryType.INCOME)
+                .build();
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.INCOME)
+                .bankAccountId(account.getId())
+                .amount(new BigDecimal("500.00"))
+                .description("~")
+                .date(LocalDateTime.of(2024, 3, 1, 12, 0, 30, 500_000_000))
+                .build();
+        YamlStreamingDataVisitor visitor = new YamlStreamingDataVisitor();
+        try (OutputStream output = Files.newOutputStream(importFile)) {
+            visitor.start(output);
+            visitor.visit(account);
+            visitor.visit(category);
+            visitor.visit(operation);
+            visitor.finish();
+        }
+
+
+        ImportStatistics statistics = importer.restoreData(importFile);
+
+
+        assertEquals(3, statistics.getEntities());
+        verify(bankAccountFacade).loadAccounts(argThat((List<BankAccount> accounts) ->
+                accounts.get(0).getId().equals(account.getId())
+                && accounts.get(0).getName().equals("true")
+                && accounts.get(0).getBalance().equals(new BigDecimal("1500.00"))));
+        verify(categoryFacade).loadCategories(argThat((List<Category> categories) ->
+                categories.get(0).getId().equals(category.getId())
+                && categories.get(0).getType() == CategoryType.INCOME));
+        verify(operationFacade).loadOperations(argThat((List<Operation> operations) ->
+                operations.get(0).getId().equals(operation.getId())
+                && operations.get(0).getDescription().equals("~")
+                && operations.get(0).getCategoryId() == null
+                && operations.get(0).getDate().equals(operation.getDate())));
+    }
+
+    @Test
+    void importDataStreaming_NullSectionsAndEmptyDocument_ShouldBeIgnored() throws IOException {
+
+        Files.writeString(importFile, "accounts: null\ncategories: []\noperations: ~\n");
+        importer.importDataStreaming(importFile);
+        Files.writeString(importFile, "");
+        importer.importDataStreaming(importFile);
+
+
+        verifyNoInteractions(bankAccountFacade, categoryFacade, operationFacade);
+    }
+
+    @Test
+    void importDataStreaming_MalformedDocument_ShouldThrowException() throws IOException {
+
+        Files.writeString(importFile, "accounts: [\n");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(importFile));
+    }
+
+    @Test
+    void importDataStreaming_MalformedAmount_ShouldThrowException() throws IOException {
+
+        Files.writeString(importFile, "accounts:\n  - {name: Счет, balance: много}\n");
+
+
+        assertThrows(IOException.class, () -> importer.importDataStreaming(importFile));
+        verifyNoInteractions(bankAccountFacade);
+    }
+
+    @Test
+    void parseStream_ShouldHandEveryEntityToItsSection() throws IOException {
+
+        String content = "accounts:\n  - {name: Счет, balance: 10}\noperations:\n"
+                + "  - {type: EXPENSE, amount: 5, date: 2024-03-01T12:00}\n";
+        EntityHandler handler = mock(EntityHandler.class);
+
+
+        importer.parseStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), handler);
+
+
+        verify(handler).account(any(BankAccount.class));
+        verify(handler, never()).category(any());
+        verify(handler).operation(any(Operation.class));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.hse.bank.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryStreamingDataVisitorTest {
+
+    private BinaryStreamingDataVisitor visitor;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() {
+        visitor = new BinaryStreamingDataVisitor();
+        output = new ByteArrayOutputStream();
+        visitor.start(output);
+    }
+
+    @Test
+    void finish_WithoutEntities_ShouldWriteHeaderAndEndRecord() throws IOException {
+
+        visitor.finish();
+
+
+        ByteBuffer written = ByteBuffer.wrap(output.toByteArray());
+        assertEquals(BinarySnapshotFormat.MAGIC, written.getInt());
+        assertEquals(BinarySnapshotFormat.VERSION, written.getInt());
+        assertEquals(BinarySnapshotFormat.END, written.get());
+        assertEquals(0, written.getInt());
+        assertFalse(written.hasRemaining());
+    }
+
+    @Test
+    void visit_Account_ShouldWriteLengthPrefixedRecord() throws IOException {
+
+        UUID id = UUID.randomUUID();
+        BankAccount account = BankAccount.builder()
+                .id(id)
+                .name("Счет")
+                .balance(new BigDecimal("1000.50"))
+                .build();
+
+
+        visitor.visit(account);
+        visitor.finish();
+
+
+        ByteBuffer written = ByteBuffer.wrap(output.toByteArray());
+        written.position(2 * Integer.BYTES);
+        assertEquals(BinarySnapshotFormat.ACCOUNT, written.get());
+        int length = written.getInt();
+        int payloadStart = written.position();
+        assertEquals(BinarySnapshotFormat.HAS_ID | BinarySnapshotFormat.HAS_AMOUNT, written.get());
+        assertEquals(id, new UUID(written.getLong(), written.getLong()));
+        assertEquals(BinarySnapshotFormat.COMPACT_AMOUNT, written.get());
+        assertEquals(100050, written.getLong());
+        assertEquals(2, written.getInt());
+        byte[] name = new byte[written.getInt()];
+        written.get(name);
+        assertEquals("Счет", new String(name, StandardCharsets.UTF_8));
+        assertEquals(length, written.position() - payloadStart);
+        assertEquals(BinarySnapshotFormat.END, written.get());
+    }
+
+    @Test
+    void visit_ManyLargeRecords_ShouldFlushAndGrowBuffer() throws IOException {
+
+        String longName = "к".repeat(100_000);
+        for (int i = 0; i < 3; i++) {
+            visitor.visit(new Category(UUID.randomUUID(), longName, CategoryType.EXPENSE));
+        }
+        visitor.finish();
+
+
+        int recordSize = BinarySnapshotFormat.RECORD_HEADER_SIZE + 2 + 16 + Integer.BYTES
+                + longName.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(2 * Integer.BYTES + 3 * recordSize + BinarySnapshotFormat.RECORD_HEADER_SIZE,
+                output.size());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.hse.bank.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvStreamingDataVisitorTest {
+
+    private CsvStreamingDataVisitor visitor;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() {
+        visitor = new CsvStreamingDataVisitor();
+        output = new ByteArrayOutputStream();
+        visitor.start(output);
+    }
+
+    @Test
+    void finish_ShouldWriteOneRowPerEntity() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        UUID operationId = UUID.randomUUID();
+        BankAccount account = BankAccount.builder()
+                .id(accountId)
+                .name("Тестовый счет")
+                .balance(new BigDecimal("1E+3"))
+                .build();
+        Category category = Category.builder()
+                .id(categoryId)
+                .name("Продукты \"у дома\", рядом")
+                .type(CategoryType.EXPENSE)
+                .build();
+        Operation operation = Operation.builder()
+                .id(operationId)
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(accountId)
+                .amount(new BigDecimal("300.50"))
+                .description("Покупка")
+                .date(LocalDateTime.of(2024, 3, 1, 12, 30, 15))
+                .build();
+
+
+        visitor.visit(account);
+        visitor.visit(category);
+        visitor.visit(operation);
+        visitor.finish();
+
+
+        assertEquals("ACCOUNT," + accountId + ",Тестовый счет,1000\n"
+                + "CATEGORY," + categoryId + ",\"Продукты \"\"у дома\"\", рядом\",EXPENSE\n"
+                + "OPERATION," + operationId + ",EXPENSE," + accountId + ",300.50,Покупка,,2024-03-01T12:30:15\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void finish_WithoutEntities_ShouldWriteNothing() throws IOException {
+
+        visitor.finish();
+
+
+        assertEquals(0, output.size());
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.hse.bank.facade.BankAccountFacade;
 import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.MappedOperationSnapshot;
 import ru.hse.bank.facade.OperationFacade;
 import ru.hse.bank.model.BankAccount;
 import ru.hse.bank.model.Category;
@@ -15,16 +16,22 @@ import ru.hse.bank.model.CategoryType;
 import ru.hse.bank.model.Operation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -107,7 +114,11 @@ class DataExporterTest {
 
         when(bankAccountFacade.getAllAccounts()).thenReturn(accounts);
         when(categoryFacade.getAllCategories()).thenReturn(categories);
-        when(operationFacade.getAllOperations()).thenReturn(operations);
+        doAnswer(invocation -> {
+            Consumer<Operation> action = invocation.getArgument(0);
+            operations.forEach(action);
+            return null;
+        }).when(operationFacade).forEachOperation(any());
         when(dataVisitor.getResult()).thenReturn("Экспортированные данные");
 
 
@@ -116,7 +127,7 @@ class DataExporterTest {
 
         verify(bankAccountFacade).getAllAccounts();
         verify(categoryFacade).getAllCategories();
-        verify(operationFacade).getAllOperations();
+        verify(operationFacade).forEachOperation(any());
 
         verify(dataVisitor).visit(account1);
         verify(dataVisitor).visit(account2);
@@ -131,4 +142,129 @@ class DataExporterTest {
         String content = Files.readString(exportFile);
         assertEquals("Экспортированные данные", content);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void exportData_WithStreamingVisitor_ShouldVisitEntitiesInOrder() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Счет 1")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+
+        Category category = Category.builder()
+                .id(UUID.randomUUID())
+                .name("Зарплата")
+                .type(CategoryType.INCOME)
+                .build();
+
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.INCOME)
+                .bankAccountId(account.getId())
+                .categoryId(category.getId())
+                .amount(new BigDecimal("500.00"))
+                .description("Зарплата")
+                .date(LocalDateTime.now())
+                .build();
+
+        StreamingDataVisitor streamingVisitor = mock(StreamingDataVisitor.class);
+        when(bankAccountFacade.getAllAccounts()).thenReturn(List.of(account));
+        when(categoryFacade.getAllCategories()).thenReturn(List.of(category));
+        doAnswer(invocation -> {
+            Consumer<Operation> action = invocation.getArgument(0);
+            action.accept(operation);
+            return null;
+        }).when(operationFacade).forEachOperation(any());
+
+
+        dataExporter.exportData(exportFile, streamingVisitor);
+
+
+        var inOrder = inOrder(streamingVisitor);
+        inOrder.verify(streamingVisitor).start(any());
+        inOrder.verify(streamingVisitor).visit(account);
+        inOrder.verify(streamingVisitor).visit(category);
+        inOrder.verify(streamingVisitor).visit(operation);
+        inOrder.verify(streamingVisitor).finish();
+        assertTrue(Files.exists(exportFile));
+    }
+
+    @Test
+    void exportOperationSnapshot_ShouldWriteVisitedOperations() throws IOException {
+
+        Path snapshotFile = tempDir.resolve("export.ops");
+        UUID accountId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        List<Operation> operations = List.of(
+                new Operation(UUID.randomUUID(), CategoryType.INCOME, accountId,
+                        new BigDecimal("500.00"), "Зарплата", null, now),
+                new Operation(UUID.randomUUID(), CategoryType.EXPENSE, accountId,
+                        new BigDecimal("200.00"), "Покупка", null, now.minusDays(1)));
+        when(bankAccountFacade.getAllAccounts()).thenReturn(List.of());
+        when(categoryFacade.getAllCategories()).thenReturn(List.of());
+        doAnswer(invocation -> {
+            Consumer<Operation> action = invocation.getArgument(0);
+            operations.forEach(action);
+            return null;
+        }).when(operationFacade).forEachOperation(any());
+
+
+        dataExporter.exportOperationSnapshot(snapshotFile);
+
+
+        verify(operationFacade, never()).getAllOperations();
+        try (MappedOperationSnapshot snapshot = MappedOperationSnapshot.open(snapshotFile)) {
+            assertEquals(List.of(operations.get(1).getId(), operations.get(0).getId()),
+                    snapshot.operations().stream().map(Operation::getId).toList());
+        }
+    }
+
+    @Test
+    void exportData_GzipExtension_ShouldCompressStreamedOutput() throws IOException {
+
+        Path gzipFile = tempDir.resolve("export-data.csv.gz");
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Счет 1")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+        when(bankAccountFacade.getAllAccounts()).thenReturn(List.of(account));
+        when(categoryFacade.getAllCategories()).thenReturn(List.of());
+        Path plainFile = tempDir.resolve("export-data.csv");
+        dataExporter.exportData(plainFile, new CsvStreamingDataVisitor());
+
+
+        dataExporter.exportData(gzipFile, new CsvStreamingDataVisitor());
+
+
+        byte[] compressed = Files.readAllBytes(gzipFile);
+        assertEquals(0x1f, compressed[0] & 0xff);
+        assertEquals(0x8b, compressed[1] & 0xff);
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(gzipFile))) {
+            assertArrayEquals(Files.readAllBytes(plainFile), input.readAllBytes());
+        }
+    }
+
+    @Test
+    void exportData_ExplicitGzip_ShouldOverrideExtension() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Счет 1")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+        when(bankAccountFacade.getAllAccounts()).thenReturn(List.of(account));
+        when(categoryFacade.getAllCategories()).thenReturn(List.of());
+
+
+        dataExporter.exportData(exportFile, new CsvStreamingDataVisitor(), Compression.GZIP);
+
+
+        assertEquals(0x1f, Files.readAllBytes(exportFile)[0] & 0xff);
+        try (InputStream input = Compression.open(exportFile)) {
+            String content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("ACCOUNT," + account.getId()));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.hse.bank.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hse.bank.dataimport.BinaryDataImporter;
+import ru.hse.bank.dataimport.ImportStatistics;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.ChangeJournal;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.journal.FileChangeJournal;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BankAccountFacade bankAccountFacade;
+    private CategoryFacade categoryFacade;
+    private OperationFacade operationFacade;
+    private DeltaExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        DomainFactory domainFactory = new DomainFactory();
+        bankAccountFacade = new BankAccountFacade(domainFactory);
+        categoryFacade = new CategoryFacade(domainFactory);
+        operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+        ChangeTracker tracker = new ChangeTracker(ChangeJournal.DISABLED);
+        bankAccountFacade.setJournal(tracker);
+        categoryFacade.setJournal(tracker);
+        operationFacade.setJournal(tracker);
+        exporter = new DeltaExporter(bankAccountFacade, categoryFacade, operationFacade, tracker);
+    }
+
+    @Test
+    void restoreData_ShouldRestoreLatestStateFromBaseAndDeltas() throws IOException {
+
+        BankAccount account = bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        Category food = categoryFacade.createCategory("Продукты", CategoryType.EXPENSE);
+        Category salary = categoryFacade.createCategory("Зарплата", CategoryType.INCOME);
+        Operation kept = operationFacade.createOperation(CategoryType.EXPENSE, account.getId(),
+                new BigDecimal("300.00"), "Магазин", food.getId());
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        Operation cancelled = operationFacade.createOperation(CategoryType.INCOME, account.getId(),
+                new BigDecimal("50.00"), "Возврат", salary.getId());
+        categoryFacade.deleteCategory(food.getId());
+        Path first = tempDir.resolve("delta-1.bin");
+        exporter.exportDelta(first, base);
+        operationFacade.deleteOperation(cancelled.getId());
+        BankAccount added = bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+        Path second = tempDir.resolve("delta-2.bin");
+        exporter.exportDelta(second, first);
+        BinaryDataImporter importer = newImporter();
+
+
+        ImportStatistics statistics = importer.restoreData(base, List.of(first, second));
+
+
+        assertEquals(4, statistics.getEntities());
+        assertEquals(new BigDecimal("700.00"),
+                bankAccountFacade.getAccount(account.getId()).getBalance());
+        assertNotNull(bankAccountFacade.getAccount(added.getId()));
+        assertNull(categoryFacade.getCategory(food.getId()));
+        assertNotNull(categoryFacade.getCategory(salary.getId()));
+        assertEquals("Магазин", operationFacade.getOperation(kept.getId()).getDescription());
+        assertNull(operationFacade.getOperation(cancelled.getId()));
+    }
+
+    @Test
+    void exportDelta_ShouldContainOnlyChangedEntities() throws IOException {
+
+        BankAccount account = bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+        Category category = categoryFacade.createCategory("Продукты", CategoryType.EXPENSE);
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        operationFacade.createOperation(CategoryType.EXPENSE, account.getId(),
+                new BigDecimal("300.00"), "Магазин", category.getId());
+        Path delta = tempDir.resolve("delta.bin");
+
+
+        exporter.exportDelta(delta, base);
+
+
+        ImportStatistics statistics = newImporter().restoreData(delta);
+        assertEquals(2, statistics.getEntities());
+        assertEquals(new BigDecimal("700.00"),
+                bankAccountFacade.getAccount(account.getId()).getBalance());
+    }
+
+    @Test
+    void restoreData_ShouldRejectDeltaThatSkipsAnotherDelta() throws IOException {
+
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        Path first = tempDir.resolve("delta-1.bin");
+        exporter.exportDelta(first, base);
+        bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+        Path second = tempDir.resolve("delta-2.bin");
+        exporter.exportDelta(second, first);
+        BinaryDataImporter importer = newImporter();
+
+
+        assertThrows(IOException.class, () -> importer.restoreData(base, List.of(second)));
+
+
+        assertTrue(bankAccountFacade.getAllAccounts().isEmpty());
+    }
+
+    @Test
+    void exportDelta_ShouldRejectCheckpointOfAnotherRun() {
+
+        ExportCheckpoint foreign = new ExportCheckpoint(UUID.randomUUID(), 0);
+
+
+        assertThrows(IllegalArgumentException.class,
+                () -> exporter.exportDelta(tempDir.resolve("delta.bin"), foreign));
+    }
+
+    @Test
+    void exportDelta_ShouldDiscardChangesUpToItsStart() throws IOException {
+
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        Path first = tempDir.resolve("delta-1.bin");
+        exporter.exportDelta(first, base);
+        bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+
+
+        exporter.exportDelta(tempDir.resolve("delta-2.bin"), first);
+
+
+        assertThrows(IllegalArgumentException.class,
+                () -> exporter.exportDelta(tempDir.resolve("delta-3.bin"), base));
+    }
+
+    @Test
+    void exportDelta_ShouldKeepChangesSinceItsStartForARetry() throws IOException {
+
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        exporter.exportDelta(tempDir.resolve("delta-1.bin"), base);
+        bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+        Path retry = tempDir.resolve("delta-1-retry.bin");
+
+
+        exporter.exportDelta(retry, base);
+
+
+        assertEquals(2, newImporter().restoreData(base, List.of(retry)).getAccounts());
+    }
+
+    @Test
+    void exportDelta_AfterRestart_ShouldContinueTheChainOfThePreviousRun() throws IOException {
+
+        Path journalFile = tempDir.resolve("hse-bank.journal");
+        FileChangeJournal journal = openJournal(journalFile);
+        BankAccount account = bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        Path base = tempDir.resolve("base.bin");
+        exporter.exportBase(base);
+        operationFacade.createOperation(CategoryType.EXPENSE, account.getId(),
+                new BigDecimal("300.00"), "Магазин", null);
+        journal.close();
+        newImporter();
+        FileChangeJournal recovered = openJournal(journalFile);
+        BankAccount added = bankAccountFacade.createAccount("Вклад", new BigDecimal("10.00"));
+        Path delta = tempDir.resolve("delta.bin");
+
+
+        exporter.exportDelta(delta, base);
+        recovered.close();
+
+
+        newImporter().restoreData(base, List.of(delta));
+        assertEquals(new BigDecimal("700.00"),
+                bankAccountFacade.getAccount(account.getId()).getBalance());
+        assertNotNull(bankAccountFacade.getAccount(added.getId()));
+        assertEquals(1, operationFacade.getAllOperations().size());
+    }
+
+    private FileChangeJournal openJournal(final Path journalFile) throws IOException {
+        FileChangeJournal journal = FileChangeJournal.open(journalFile);
+        ChangeTracker tracker = new ChangeTracker(journal, journal.getJournalId());
+        journal.replay(tracker, bankAccountFacade, categoryFacade, operationFacade);
+        exporter = new DeltaExporter(bankAccountFacade, categoryFacade, operationFacade, tracker);
+        return journal;
+    }
+
+    private BinaryDataImporter newImporter() {
+        DomainFactory domainFactory = new DomainFactory();
+        bankAccountFacade = new BankAccountFacade(domainFactory);
+        categoryFacade = new CategoryFacade(domainFactory);
+        operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+        return new BinaryDataImporter(bankAccountFacade, categoryFacade, operationFacade);
+    }
+}
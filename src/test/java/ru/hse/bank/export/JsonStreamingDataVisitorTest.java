@@ -0,0 +1,93 @@
+package ru.hse.bank.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStreamingDataVisitorTest {
+
+    private ObjectMapper objectMapper;
+    private JsonStreamingDataVisitor streamingVisitor;
+    private JsonDataVisitor bufferedVisitor;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        streamingVisitor = new JsonStreamingDataVisitor(objectMapper);
+        bufferedVisitor = new JsonDataVisitor(objectMapper);
+        output = new ByteArrayOutputStream();
+        streamingVisitor.start(output);
+    }
+
+    @Test
+    void finish_ShouldProduceSameJsonAsBufferedVisitor() throws IOException {
+
+        BankAccount account = BankAccount.builder()
+                .id(UUID.randomUUID())
+                .name("Тестовый счет")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+        Category category = Category.builder()
+                .id(UUID.randomUUID())
+                .name("Продукты \"у дома\"")
+                .type(CategoryType.EXPENSE)
+                .build();
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(account.getId())
+                .categoryId(category.getId())
+                .amount(new BigDecimal("300.50"))
+                .description("Покупка")
+                .date(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789))
+                .build();
+
+        streamingVisitor.visit(account);
+        streamingVisitor.visit(category);
+        streamingVisitor.visit(operation);
+        streamingVisitor.finish();
+        bufferedVisitor.visit(account);
+        bufferedVisitor.visit(category);
+        bufferedVisitor.visit(operation);
+
+
+        assertEquals(bufferedVisitor.getResult(), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void finish_WithoutEntities_ShouldWriteEmptySections() throws IOException {
+
+        streamingVisitor.finish();
+
+
+        assertEquals(bufferedVisitor.getResult(), output.toString(StandardCharsets.UTF_8));
+        assertEquals("{\"accounts\":[],\"categories\":[],\"operations\":[]}",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void visit_OutOfOrder_ShouldThrowException() throws IOException {
+
+        streamingVisitor.visit(Category.builder().id(UUID.randomUUID()).build());
+
+
+        assertThrows(IllegalStateException.class,
+                () -> streamingVisitor.visit(BankAccount.builder().id(UUID.randomUUID()).build()));
+    }
+}
@@ -0,0 +1,97 @@
+package ru.hse.bank.export;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlStreamingDataVisitorTest {
+
+    private YamlStreamingDataVisitor visitor;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        visitor = new YamlStreamingDataVisitor();
+        output = new ByteArrayOutputStream();
+        visitor.start(output);
+    }
+
+    @Test
+    void finish_ShouldWriteDocumentWithAllSections() throws IOException {
+
+        UUID accountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        BankAccount account = BankAccount.builder()
+                .id(accountId)
+                .name("123")
+                .balance(new BigDecimal("1000.00"))
+                .build();
+        Category category = Category.builder()
+                .id(categoryId)
+                .name("Продукты: \"у дома\"")
+                .type(CategoryType.EXPENSE)
+                .build();
+        Operation operation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(accountId)
+                .amount(new BigDecimal("300.50"))
+                .description("null")
+                .date(LocalDateTime.of(2024, 3, 1, 12, 30))
+                .build();
+
+
+        visitor.visit(account);
+        visitor.visit(category);
+        visitor.visit(operation);
+        visitor.finish();
+
+
+        Map<String, List<Map<String, Object>>> document =
+                new Yaml().load(output.toString(StandardCharsets.UTF_8));
+        Map<String, Object> writtenAccount = document.get("accounts").get(0);
+        assertEquals(accountId.toString(), writtenAccount.get("id"));
+        assertEquals("123", writtenAccount.get("name"));
+        assertEquals(1, document.get("categories").size());
+        assertEquals("Продукты: \"у дома\"", document.get("categories").get(0).get("name"));
+        Map<String, Object> writtenOperation = document.get("operations").get(0);
+        assertEquals("null", writtenOperation.get("description"));
+        assertFalse(writtenOperation.containsKey("categoryId"));
+    }
+
+    @Test
+    void finish_WithoutEntities_ShouldWriteEmptySections() throws IOException {
+
+        visitor.finish();
+
+
+        Map<String, List<Object>> document = new Yaml().load(output.toString(StandardCharsets.UTF_8));
+        assertEquals(Map.of("accounts", List.of(), "categories", List.of(), "operations", List.of()),
+                document);
+    }
+
+    @Test
+    void visit_AccountAfterOperation_ShouldThrowException() throws IOException {
+
+        visitor.visit(Operation.builder().id(UUID.randomUUID()).build());
+
+
+        assertThrows(IllegalStateException.class,
+                () -> visitor.visit(BankAccount.builder().id(UUID.randomUUID()).build()));
+    }
+}
@@ -101,6 +101,46 @@ class AnalyticsFacadeTest {
     assertEquals(new BigDecimal("2000.00"), result.get(categoryId2));
   }
 
+  @Test
+  void groupOperationsByCategory_AllTime_ShouldUseRunningTotals() {
+    BankAccount account = bankAccountFacade.createAccount("Test Account", new BigDecimal("1000.00"));
+
+    UUID categoryId1 = UUID.randomUUID();
+    UUID categoryId2 = UUID.randomUUID();
+
+    operationFacade.createOperation(
+      CategoryType.INCOME,
+      account.getId(),
+      new BigDecimal("1000.00"),
+      "Test income 1",
+      categoryId1
+    );
+
+    operationFacade.createOperation(
+      CategoryType.EXPENSE,
+      account.getId(),
+      new BigDecimal("500.00"),
+      "Test expense 1",
+      categoryId1
+    );
+
+    Operation removed = operationFacade.createOperation(
+      CategoryType.EXPENSE,
+      account.getId(),
+      new BigDecimal("300.00"),
+      "Test expense 2",
+      categoryId2
+    );
+    operationFacade.deleteOperation(removed.getId());
+
+    var result = analyticsFacade.groupOperationsByCategory();
+
+    assertEquals(1, result.size());
+    assertEquals(new BigDecimal("500.00"), result.get(categoryId1));
+    assertEquals(1, operationFacade.getCategoryTotals().get(categoryId1).getIncomeCount());
+    assertEquals(1, operationFacade.getCategoryTotals().get(categoryId1).getExpenseCount());
+  }
+
   @Test
   void groupOperationsByType_ShouldGroupCorrectly() {
     String accountName = "Test Account";
@@ -133,4 +173,64 @@ class AnalyticsFacadeTest {
     assertEquals(new BigDecimal("1000.00"), result.get(CategoryType.INCOME));
     assertEquals(new BigDecimal("500.00"), result.get(CategoryType.EXPENSE));
   }
-} 
\ No newline at end of file
+
+  @Test
+  void buildReport_ShouldMatchIndividualAnalytics() {
+    BankAccount account = bankAccountFacade.createAccount("Test Account", new BigDecimal("1000.00"));
+
+    UUID categoryId1 = UUID.randomUUID();
+    UUID categoryId2 = UUID.randomUUID();
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime start = now.minusDays(1);
+    LocalDateTime end = now.plusDays(1);
+
+    operationFacade.createOperation(
+      CategoryType.INCOME,
+      account.getId(),
+      new BigDecimal("1000.00"),
+      "Test income",
+      categoryId1
+    );
+
+    operationFacade.createOperation(
+      CategoryType.EXPENSE,
+      account.getId(),
+      new BigDecimal("200.00"),
+      "Test expense 1",
+      categoryId1
+    );
+
+    operationFacade.createOperation(
+      CategoryType.EXPENSE,
+      account.getId(),
+      new BigDecimal("300.00"),
+      "Test expense 2",
+      categoryId2
+    );
+
+    AnalyticsReport report = analyticsFacade.buildReport(start, end);
+
+    assertEquals(analyticsFacade.calculateBalanceDifference(start, end), report.getBalanceDifference());
+    assertEquals(analyticsFacade.groupOperationsByCategory(start, end), report.getByCategory());
+    assertEquals(analyticsFacade.groupOperationsByType(start, end), report.getByType());
+    assertEquals(3, report.getOperationCount());
+    assertEquals(1, report.getIncomeCount());
+    assertEquals(2, report.getExpenseCount());
+    assertEquals(new BigDecimal("200.00"), report.getMinAmount());
+    assertEquals(new BigDecimal("1000.00"), report.getMaxAmount());
+  }
+
+  @Test
+  void buildReport_EmptyPeriod_ShouldReturnZeroes() {
+    LocalDateTime now = LocalDateTime.now();
+
+    AnalyticsReport report = analyticsFacade.buildReport(now.minusDays(1), now.plusDays(1));
+
+    assertEquals(BigDecimal.ZERO, report.getBalanceDifference());
+    assertTrue(report.getByCategory().isEmpty());
+    assertTrue(report.getByType().isEmpty());
+    assertEquals(0, report.getOperationCount());
+    assertNull(report.getMinAmount());
+    assertNull(report.getMaxAmount());
+  }
+}
@@ -8,7 +8,15 @@ import ru.hse.bank.model.Operation;
 import ru.hse.bank.model.CategoryType;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +51,21 @@ class BankAccountFacadeTest {
       bankAccountFacade.createAccount(name, negativeBalance));
   }
 
+  @Test
+  void loadAccounts_ShouldKeepOriginalIdsAndBalances() {
+    BankAccount account = BankAccount.builder()
+        .id(UUID.randomUUID())
+        .name("Restored Account")
+        .balance(new BigDecimal("250.00"))
+        .build();
+
+    bankAccountFacade.loadAccounts(List.of(account));
+
+    BankAccount loaded = bankAccountFacade.getAccount(account.getId());
+    assertSame(account, loaded);
+    assertEquals(new BigDecimal("250.00"), loaded.getBalance());
+  }
+
   @Test
   void updateBalance_IncomeOperation_ShouldIncreaseBalance() {
     BankAccount account = bankAccountFacade.createAccount("Test Account", new BigDecimal("1000.00"));
@@ -104,4 +127,80 @@ class BankAccountFacadeTest {
         bankAccountFacade.updateBalance(account.getId(), operation));
     assertEquals("Недостаточно средств на счете", exception.getMessage());
   }
-} 
\ No newline at end of file
+
+  @Test
+  void updateBalance_ConcurrentUpdates_ShouldNotLoseUpdates() throws Exception {
+    int threads = 8;
+    int updatesPerThread = 2_000;
+    BankAccount first = bankAccountFacade.createAccount("First", new BigDecimal("1000.00"));
+    BankAccount second = bankAccountFacade.createAccount("Second", new BigDecimal("1000.00"));
+    Operation income = Operation.builder()
+        .type(CategoryType.INCOME)
+        .amount(new BigDecimal("1.50"))
+        .build();
+    Operation expense = Operation.builder()
+        .type(CategoryType.EXPENSE)
+        .amount(new BigDecimal("0.50"))
+        .build();
+
+    runConcurrently(threads, () -> {
+      for (int i = 0; i < updatesPerThread; i++) {
+        BankAccount target = i % 2 == 0 ? first : second;
+        bankAccountFacade.updateBalance(target.getId(), income);
+        bankAccountFacade.updateBalance(target.getId(), expense);
+      }
+    });
+
+    BigDecimal expected = new BigDecimal("1000.00")
+        .add(BigDecimal.valueOf(threads * updatesPerThread / 2));
+    assertEquals(0, expected.compareTo(first.getBalance()));
+    assertEquals(0, expected.compareTo(second.getBalance()));
+  }
+
+  @Test
+  void updateBalance_ConcurrentWithdrawals_ShouldNeverOverdraw() throws Exception {
+    int threads = 8;
+    int attemptsPerThread = 500;
+    BankAccount account = bankAccountFacade.createAccount("Test Account", new BigDecimal("1000"));
+    Operation withdrawal = Operation.builder()
+        .type(CategoryType.EXPENSE)
+        .amount(BigDecimal.ONE)
+        .build();
+    AtomicInteger succeeded = new AtomicInteger();
+
+    runConcurrently(threads, () -> {
+      for (int i = 0; i < attemptsPerThread; i++) {
+        try {
+          bankAccountFacade.updateBalance(account.getId(), withdrawal);
+          succeeded.incrementAndGet();
+        } catch (IllegalStateException exception) {
+          // insufficient funds is expected once the balance is exhausted
+        }
+      }
+    });
+
+    assertEquals(1000, succeeded.get());
+    assertEquals(0, BigDecimal.ZERO.compareTo(account.getBalance()));
+  }
+
+  private static void runConcurrently(int threads, Runnable task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          startSignal.await();
+          task.run();
+          return null;
+        }));
+      }
+      startSignal.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package ru.hse.bank.facade;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hse.bank.export.OperationSnapshotWriter;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedOperationSnapshotTest {
+
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private final UUID accountId = UUID.randomUUID();
+    private final UUID otherAccountId = UUID.randomUUID();
+    private final UUID categoryId = UUID.randomUUID();
+    private Path snapshotFile;
+    private MappedOperationSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshotFile = tempDir.resolve("operations.ops");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    @Test
+    void find_ShouldMaterialiseStoredOperation() throws IOException {
+
+        Operation big = operation(CategoryType.INCOME, accountId,
+                new BigDecimal("123456789012345678901234567890.12"), categoryId, 1);
+        big.setDescription("Перевод " + "ж".repeat(10_000));
+        Operation plain = operation(CategoryType.EXPENSE, otherAccountId,
+                new BigDecimal("-0.5"), null, 2);
+        plain.setDescription(null);
+        plain.setDate(BASE_DATE.withNano(999_999_999));
+        snapshot = write(List.of(big, plain));
+
+
+        Operation foundBig = snapshot.find(big.getId());
+        Operation foundPlain = snapshot.find(plain.getId());
+
+
+        assertEquals(2, snapshot.size());
+        assertEquals(big.getAmount(), foundBig.getAmount());
+        assertEquals(big.getDescription(), foundBig.getDescription());
+        assertEquals(categoryId, foundBig.getCategoryId());
+        assertEquals(CategoryType.INCOME, foundBig.getType());
+        assertEquals(accountId, foundBig.getBankAccountId());
+        assertEquals(big.getDate(), foundBig.getDate());
+        assertEquals(new BigDecimal("-0.5"), foundPlain.getAmount());
+        assertNull(foundPlain.getDescription());
+        assertNull(foundPlain.getCategoryId());
+        assertEquals(plain.getDate(), foundPlain.getDate());
+        assertNull(snapshot.find(UUID.randomUUID()));
+    }
+
+    @Test
+    void operationsOfAccount_ShouldReturnAccountOperationsInChronologicalOrder() throws IOException {
+
+        Operation third = operation(CategoryType.EXPENSE, accountId, BigDecimal.ONE, categoryId, 3);
+        Operation first = operation(CategoryType.INCOME, accountId, BigDecimal.TEN, null, 1);
+        Operation other = operation(CategoryType.INCOME, otherAccountId, BigDecimal.TEN, null, 2);
+        snapshot = write(List.of(third, first, other));
+
+
+        List<Operation> accountOperations = snapshot.operationsOfAccount(accountId);
+
+
+        assertEquals(List.of(first.getId(), third.getId()), ids(accountOperations));
+        assertEquals(List.of(other.getId()), ids(snapshot.operationsOfAccount(otherAccountId)));
+        assertTrue(snapshot.operationsOfAccount(UUID.randomUUID()).isEmpty());
+        assertEquals(List.of(third.getId()), ids(snapshot.operationsOfCategory(categoryId)));
+    }
+
+    @Test
+    void operationsInPeriod_ShouldExcludeBounds() throws IOException {
+
+        Operation atStart = operation(CategoryType.INCOME, accountId, BigDecimal.ONE, null, 0);
+        Operation inside = operation(CategoryType.INCOME, accountId, BigDecimal.ONE, null, 1);
+        Operation atEnd = operation(CategoryType.INCOME, accountId, BigDecimal.ONE, null, 2);
+        snapshot = write(List.of(atEnd, inside, atStart));
+
+
+        List<Operation> period = snapshot.operationsInPeriod(BASE_DATE, BASE_DATE.plusMinutes(2));
+
+
+        assertEquals(List.of(inside.getId()), ids(period));
+        assertTrue(snapshot.operationsInPeriod(BASE_DATE.plusMinutes(2), BASE_DATE).isEmpty());
+        assertEquals(List.of(atStart.getId(), inside.getId(), atEnd.getId()),
+                ids(snapshot.operations()));
+    }
+
+    @Test
+    void getCategoryTotals_ShouldReturnStoredTotals() throws IOException {
+
+        snapshot = write(List.of(
+                operation(CategoryType.INCOME, accountId, new BigDecimal("100.50"), categoryId, 1),
+                operation(CategoryType.EXPENSE, accountId, new BigDecimal("20"), categoryId, 2),
+                operation(CategoryType.INCOME, accountId, new BigDecimal("5"), null, 3)));
+
+
+        Map<UUID, CategoryTotals> totals = snapshot.getCategoryTotals();
+
+
+        assertEquals(1, totals.size());
+        assertEquals(new BigDecimal("100.50"), totals.get(categoryId).getIncomeSum());
+        assertEquals(new BigDecimal("20"), totals.get(categoryId).getExpenseSum());
+        assertEquals(2, totals.get(categoryId).getCount());
+    }
+
+    @Test
+    void open_NotASnapshot_ShouldThrowException() throws IOException {
+
+        Files.writeString(snapshotFile, "{\"accounts\":[],\"categories\":[],\"operations\":[]}");
+
+
+        assertThrows(IOException.class, () -> MappedOperationSnapshot.open(snapshotFile));
+    }
+
+    @Test
+    void write_OperationWithoutDate_ShouldThrowException() {
+
+        Operation operation = operation(CategoryType.INCOME, accountId, BigDecimal.ONE, null, 0);
+        operation.setDate(null);
+
+
+        assertThrows(IllegalArgumentException.class, () -> write(List.of(operation)));
+    }
+
+    @Test
+    void write_OverMappedFile_ShouldKeepTheOpenSnapshotIntact() throws IOException {
+
+        Operation old = operation(CategoryType.INCOME, accountId, BigDecimal.ONE, categoryId, 1);
+        snapshot = write(List.of(old));
+        Operation first = operation(CategoryType.EXPENSE, accountId, BigDecimal.TEN, null, 2);
+        Operation second = operation(CategoryType.EXPENSE, otherAccountId, BigDecimal.TEN, null, 3);
+
+
+        try (MappedOperationSnapshot rewritten = write(List.of(first, second))) {
+
+
+            assertEquals(1, snapshot.size());
+            assertEquals(old.getId(), snapshot.operations().get(0).getId());
+            assertEquals(2, rewritten.size());
+            assertEquals(first.getId(), rewritten.find(first.getId()).getId());
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(snapshotFile), files.toList());
+        }
+    }
+
+    private MappedOperationSnapshot write(final List<Operation> operations) throws IOException {
+        new OperationSnapshotWriter().write(snapshotFile,
+                List.of(new BankAccount(accountId, "Счет", BigDecimal.TEN)),
+                List.of(new Category(categoryId, "Зарплата", CategoryType.INCOME)),
+                operations);
+        return MappedOperationSnapshot.open(snapshotFile);
+    }
+
+    private static Operation operation(final CategoryType type, final UUID bankAccountId,
+                                       final BigDecimal amount, final UUID categoryId,
+                                       final int minutes) {
+        return new Operation(UUID.randomUUID(), type, bankAccountId, amount, "Операция",
+                categoryId, BASE_DATE.plusMinutes(minutes));
+    }
+
+    private static List<UUID> ids(final List<Operation> operations) {
+        return operations.stream().map(Operation::getId).toList();
+    }
+}
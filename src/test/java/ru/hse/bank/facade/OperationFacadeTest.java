@@ -3,17 +3,27 @@ package ru.hse.bank.facade;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.hse.bank.export.OperationSnapshotWriter;
 import ru.hse.bank.factory.DomainFactory;
 import ru.hse.bank.model.BankAccount;
 import ru.hse.bank.model.CategoryType;
 import ru.hse.bank.model.Operation;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -109,6 +119,27 @@ class OperationFacadeTest {
         assertTrue(account2Operations.contains(operation3));
     }
 
+    @Test
+    void getOperationsByAccount_WithPaging_ShouldReturnRequestedPage() {
+
+        UUID accountId = UUID.randomUUID();
+
+        Operation operation1 = createAndAddOperation(CategoryType.INCOME, accountId,
+                new BigDecimal("100.00"), "Операция 1", UUID.randomUUID());
+        Operation operation2 = createAndAddOperation(CategoryType.EXPENSE, accountId,
+                new BigDecimal("50.00"), "Операция 2", UUID.randomUUID());
+        Operation operation3 = createAndAddOperation(CategoryType.EXPENSE, accountId,
+                new BigDecimal("30.00"), "Операция 3", UUID.randomUUID());
+
+
+        assertEquals(List.of(operation1, operation2), operationFacade.getOperationsByAccount(accountId, 0, 2));
+        assertEquals(List.of(operation3), operationFacade.getOperationsByAccount(accountId, 2, 2));
+        assertTrue(operationFacade.getOperationsByAccount(accountId, 5, 2).isEmpty());
+        assertTrue(operationFacade.getOperationsByAccount(UUID.randomUUID(), 0, 2).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> operationFacade.getOperationsByAccount(accountId, -1, 2));
+    }
+
     @Test
     void getOperationsByCategory_ShouldReturnOperationsForSpecificCategory() {
 
@@ -159,6 +190,292 @@ class OperationFacadeTest {
         assertTrue(allOperations.contains(futureOperation));
     }
 
+    @Test
+    void getOperationsByPeriod_ShouldReturnOperationsInChronologicalOrder() {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        Operation latest = createAndAddOperationWithDate(CategoryType.INCOME, UUID.randomUUID(),
+                new BigDecimal("30.00"), "Поздняя операция", UUID.randomUUID(), now.plusHours(2));
+        Operation earliest = createAndAddOperationWithDate(CategoryType.INCOME, UUID.randomUUID(),
+                new BigDecimal("10.00"), "Ранняя операция", UUID.randomUUID(), now.minusHours(2));
+        Operation middle = createAndAddOperationWithDate(CategoryType.EXPENSE, UUID.randomUUID(),
+                new BigDecimal("20.00"), "Средняя операция", UUID.randomUUID(), now);
+
+
+        List<Operation> periodOperations = operationFacade.getOperationsByPeriod(now.minusDays(1), now.plusDays(1));
+
+
+        assertEquals(List.of(earliest, middle, latest), periodOperations);
+        assertTrue(operationFacade.getOperationsByPeriod(now.plusDays(1), now.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void loadOperations_ShouldIndexOperationsWithoutUpdatingBalances() {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation later = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(bankAccountId)
+                .categoryId(categoryId)
+                .amount(new BigDecimal("30.00"))
+                .description("Поздняя операция")
+                .date(now)
+                .build();
+        Operation earlier = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.INCOME)
+                .bankAccountId(bankAccountId)
+                .categoryId(categoryId)
+                .amount(new BigDecimal("100.00"))
+                .description("Ранняя операция")
+                .date(now.minusDays(3))
+                .build();
+
+
+        operationFacade.loadOperations(List.of(later, earlier));
+
+
+        assertEquals(earlier, operationFacade.getOperation(earlier.getId()));
+        assertEquals(List.of(earlier, later), operationFacade.getOperationsByAccount(bankAccountId));
+        assertEquals(List.of(earlier, later),
+                operationFacade.getOperationsByPeriod(now.minusDays(4), now.plusDays(1)));
+        assertEquals(2, operationFacade.getOperationsByCategory(categoryId).size());
+        CategoryTotals totals = operationFacade.getCategoryTotals().get(categoryId);
+        assertEquals(2, totals.getCount());
+        assertEquals(new BigDecimal("70.00"), totals.getNet());
+        verifyNoInteractions(domainFactory, bankAccountFacade);
+    }
+
+    @Test
+    void loadOperations_PresentId_ShouldRejectWholeBatch() {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation existing = operation(UUID.randomUUID(), bankAccountId, categoryId, "10.00", now);
+        Operation fresh = operation(UUID.randomUUID(), bankAccountId, categoryId, "20.00", now);
+        operationFacade.loadOperations(List.of(existing));
+
+
+        assertThrows(IllegalArgumentException.class, () -> operationFacade.loadOperations(List.of(
+                fresh, operation(existing.getId(), bankAccountId, categoryId, "30.00", now.plusDays(1)))));
+
+
+        assertEquals(existing, operationFacade.getOperation(existing.getId()));
+        assertNull(operationFacade.getOperation(fresh.getId()));
+        assertEquals(List.of(existing), operationFacade.getOperationsByAccount(bankAccountId));
+        assertEquals(List.of(existing), operationFacade.getOperationsByPeriod(now.minusDays(1), now.plusDays(2)));
+        assertEquals(1, operationFacade.getCategoryTotals().get(categoryId).getCount());
+    }
+
+    @Test
+    void postOperations_DuplicateIds_ShouldRejectThemAndKeepTheFirst() {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation existing = operation(UUID.randomUUID(), bankAccountId, categoryId, "10.00", now);
+        Operation fresh = operation(UUID.randomUUID(), bankAccountId, categoryId, "20.00", now);
+        operationFacade.loadOperations(List.of(existing));
+        when(bankAccountFacade.updateBalance(bankAccountId, List.of(fresh))).thenReturn(new boolean[] {true});
+
+
+        List<PostingResult> results = operationFacade.postOperations(List.of(
+                operation(existing.getId(), bankAccountId, categoryId, "30.00", now),
+                fresh,
+                operation(fresh.getId(), bankAccountId, categoryId, "40.00", now)));
+
+
+        assertEquals("Операция с таким ID уже существует", results.get(0).getError());
+        assertTrue(results.get(1).isPosted());
+        assertEquals("Операция с таким ID уже существует", results.get(2).getError());
+        assertEquals(existing, operationFacade.getOperation(existing.getId()));
+        assertEquals(fresh, operationFacade.getOperation(fresh.getId()));
+        assertEquals(List.of(existing, fresh), operationFacade.getOperationsByAccount(bankAccountId));
+        assertEquals(2, operationFacade.getOperationsByPeriod(now.minusDays(1), now.plusDays(1)).size());
+        assertEquals(2, operationFacade.getCategoryTotals().get(categoryId).getCount());
+    }
+
+    @Test
+    void attachSnapshot_ShouldServeSnapshotAndRecentOperationsTogether(@TempDir Path tempDir)
+            throws IOException {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation oldest = snapshotOperation(CategoryType.INCOME, bankAccountId, "100.00",
+                categoryId, now.minusDays(3));
+        Operation older = snapshotOperation(CategoryType.EXPENSE, bankAccountId, "30.00",
+                categoryId, now.minusDays(1));
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(), List.of(),
+                List.of(older, oldest));
+        operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile));
+
+
+        Operation recent = createAndAddOperationWithDate(CategoryType.EXPENSE, bankAccountId,
+                new BigDecimal("20.00"), "Новая операция", categoryId, now.minusDays(2));
+
+
+        assertEquals(List.of(oldest.getId(), recent.getId(), older.getId()),
+                ids(operationFacade.getOperationsByPeriod(now.minusDays(4), now)));
+        assertEquals(List.of(oldest.getId(), older.getId(), recent.getId()),
+                ids(operationFacade.getOperationsByAccount(bankAccountId)));
+        assertEquals(List.of(older.getId(), recent.getId()),
+                ids(operationFacade.getOperationsByAccount(bankAccountId, 1, 5)));
+        assertEquals(3, operationFacade.getOperationsByCategory(categoryId).size());
+        assertEquals(3, operationFacade.getAllOperations().size());
+        assertEquals("Операция", operationFacade.getOperation(oldest.getId()).getDescription());
+        CategoryTotals totals = operationFacade.getCategoryTotals().get(categoryId);
+        assertEquals(3, totals.getCount());
+        assertEquals(new BigDecimal("50.00"), totals.getNet());
+        assertThrows(IllegalStateException.class, () ->
+                operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile)));
+    }
+
+    @Test
+    void detachSnapshot_ShouldStopServingSnapshotAndRemoveItsTotals(@TempDir Path tempDir)
+            throws IOException {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation historic = snapshotOperation(CategoryType.INCOME, bankAccountId, "100.00",
+                categoryId, now.minusDays(3));
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(), List.of(), List.of(historic));
+        operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile));
+        Operation recent = createAndAddOperationWithDate(CategoryType.EXPENSE, bankAccountId,
+                new BigDecimal("20.00"), "Новая операция", categoryId, now);
+
+
+        boolean detached = operationFacade.detachSnapshot();
+
+
+        assertTrue(detached);
+        assertFalse(operationFacade.detachSnapshot());
+        assertNull(operationFacade.getOperation(historic.getId()));
+        assertEquals(List.of(recent.getId()), ids(operationFacade.getAllOperations()));
+        assertEquals(List.of(recent.getId()),
+                ids(operationFacade.getOperationsByAccount(bankAccountId)));
+        CategoryTotals totals = operationFacade.getCategoryTotals().get(categoryId);
+        assertEquals(1, totals.getCount());
+        assertEquals(new BigDecimal("-20.00"), totals.getNet());
+        new OperationSnapshotWriter().write(snapshotFile, List.of(), List.of(), List.of(historic));
+        operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile));
+        assertEquals(2, operationFacade.getCategoryTotals().get(categoryId).getCount());
+    }
+
+    @Test
+    void forEachOperationInPartition_ShouldVisitEveryOperationOnceInAccountOrder(
+            @TempDir Path tempDir) throws IOException {
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> accountIds = new ArrayList<>();
+        List<Operation> snapshotOperations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            UUID bankAccountId = UUID.randomUUID();
+            accountIds.add(bankAccountId);
+            snapshotOperations.add(snapshotOperation(CategoryType.INCOME, bankAccountId, "10.00",
+                    null, now.minusDays(10 - i)));
+        }
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(), List.of(), snapshotOperations);
+        operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile));
+        for (UUID bankAccountId : accountIds) {
+            createAndAddOperationWithDate(CategoryType.EXPENSE, bankAccountId,
+                    new BigDecimal("1.00"), "Новая операция", null, now);
+        }
+
+
+        List<List<Operation>> partitions = new ArrayList<>();
+        for (int partition = 0; partition < 3; partition++) {
+            List<Operation> visited = new ArrayList<>();
+            operationFacade.forEachOperationInPartition(partition, 3, visited::add);
+            partitions.add(visited);
+        }
+
+
+        List<UUID> visitedIds = new ArrayList<>();
+        for (int partition = 0; partition < 3; partition++) {
+            for (Operation operation : partitions.get(partition)) {
+                assertEquals(partition, OperationFacade.partitionOf(operation.getBankAccountId(), 3));
+                visitedIds.add(operation.getId());
+            }
+        }
+        assertEquals(16, visitedIds.size());
+        assertEquals(16, new HashSet<>(visitedIds).size());
+        for (UUID bankAccountId : accountIds) {
+            List<Operation> ofAccount = partitions.get(OperationFacade.partitionOf(bankAccountId, 3))
+                    .stream().filter(operation -> operation.getBankAccountId().equals(bankAccountId))
+                    .toList();
+            assertEquals(ids(operationFacade.getOperationsByAccount(bankAccountId)), ids(ofAccount));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> operationFacade.forEachOperationInPartition(3, 3, operation -> { }));
+    }
+
+    @Test
+    void deleteOperation_SnapshotOperation_ShouldHideItAndReverseBalance(@TempDir Path tempDir)
+            throws IOException {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation operation = snapshotOperation(CategoryType.INCOME, bankAccountId, "100.00",
+                categoryId, now.minusDays(1));
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(), List.of(), List.of(operation));
+        operationFacade.attachSnapshot(MappedOperationSnapshot.open(snapshotFile));
+        Operation reverseOperation = Operation.builder()
+                .id(UUID.randomUUID())
+                .type(CategoryType.EXPENSE)
+                .bankAccountId(bankAccountId)
+                .amount(new BigDecimal("100.00"))
+                .date(now)
+                .build();
+        when(domainFactory.createOperation(CategoryType.EXPENSE, bankAccountId,
+                new BigDecimal("100.00"), "Отмена операции: Операция", categoryId))
+                .thenReturn(reverseOperation);
+
+
+        operationFacade.deleteOperation(operation.getId());
+        operationFacade.deleteOperation(operation.getId());
+
+
+        assertNull(operationFacade.getOperation(operation.getId()));
+        assertTrue(operationFacade.getOperationsByAccount(bankAccountId).isEmpty());
+        assertTrue(operationFacade.getOperationsByAccount(bankAccountId, 0, 10).isEmpty());
+        assertTrue(operationFacade.getOperationsByPeriod(now.minusDays(2), now).isEmpty());
+        assertNull(operationFacade.getCategoryTotals().get(categoryId));
+        verify(bankAccountFacade, times(1)).updateBalance(bankAccountId, reverseOperation);
+    }
+
+    @Test
+    void deleteOperation_ShouldRemoveOperationFromPeriodQueries() {
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID bankAccountId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Operation operation = createAndAddOperationWithDate(CategoryType.EXPENSE, bankAccountId,
+                new BigDecimal("40.00"), "Операция", categoryId, now);
+
+        when(domainFactory.createOperation(CategoryType.INCOME, bankAccountId,
+                new BigDecimal("40.00"), "Отмена операции: Операция", categoryId))
+                .thenReturn(operation);
+
+
+        operationFacade.deleteOperation(operation.getId());
+
+
+        assertTrue(operationFacade.getOperationsByPeriod(now.minusDays(1), now.plusDays(1)).isEmpty());
+        assertTrue(operationFacade.getOperationsByAccount(bankAccountId).isEmpty());
+    }
+
     @Test
     void deleteOperation_ShouldRemoveOperationAndCreateReverseOperation() {
 
@@ -195,6 +512,55 @@ class OperationFacadeTest {
         verify(bankAccountFacade).updateBalance(bankAccountId, reverseOperation);
     }
 
+    @Test
+    void createAndDeleteOperation_ConcurrentThreads_ShouldKeepBalancesAndRecordsConsistent()
+            throws Exception {
+
+        DomainFactory realFactory = new DomainFactory();
+        BankAccountFacade realAccounts = new BankAccountFacade(realFactory);
+        OperationFacade facade = new OperationFacade(realFactory, realAccounts);
+        BankAccount shared = realAccounts.createAccount("Общий счет", BigDecimal.ZERO);
+        int threads = 8;
+        int operationsPerThread = 1_000;
+        UUID categoryId = UUID.randomUUID();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<BankAccount>> futures = new ArrayList<>();
+
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                BankAccount own = realAccounts.createAccount("Счет", BigDecimal.ZERO);
+                for (int i = 0; i < operationsPerThread; i++) {
+                    facade.createOperation(CategoryType.INCOME, own.getId(),
+                            BigDecimal.ONE, "Доход", categoryId);
+                    Operation toCancel = facade.createOperation(CategoryType.INCOME, shared.getId(),
+                            BigDecimal.TEN, "Отменяемый доход", categoryId);
+                    facade.deleteOperation(toCancel.getId());
+                    facade.createOperation(CategoryType.INCOME, shared.getId(),
+                            BigDecimal.ONE, "Доход", categoryId);
+                }
+                return own;
+            }));
+        }
+        List<BankAccount> ownAccounts = new ArrayList<>();
+        for (Future<BankAccount> future : futures) {
+            ownAccounts.add(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+
+        for (BankAccount own : ownAccounts) {
+            assertEquals(0, BigDecimal.valueOf(operationsPerThread).compareTo(own.getBalance()));
+            assertEquals(operationsPerThread, facade.getOperationsByAccount(own.getId()).size());
+        }
+        int sharedCount = threads * operationsPerThread;
+        assertEquals(0, BigDecimal.valueOf(sharedCount).compareTo(shared.getBalance()));
+        assertEquals(sharedCount, facade.getOperationsByAccount(shared.getId()).size());
+        assertEquals(2 * sharedCount, facade.getAllOperations().size());
+        assertEquals(2 * sharedCount, facade.getOperationsByCategory(categoryId).size());
+        assertEquals(2L * sharedCount, facade.getCategoryTotals().get(categoryId).getCount());
+    }
+
     private Operation createAndAddOperation(CategoryType type, UUID bankAccountId, 
                                            BigDecimal amount, String description, UUID categoryId) {
         Operation operation = Operation.builder()
@@ -231,4 +597,21 @@ class OperationFacadeTest {
 
         return operationFacade.createOperation(type, bankAccountId, amount, description, categoryId);
     }
-} 
\ No newline at end of file
+
+    private static Operation snapshotOperation(CategoryType type, UUID bankAccountId,
+                                               String amount, UUID categoryId,
+                                               LocalDateTime date) {
+        return new Operation(UUID.randomUUID(), type, bankAccountId, new BigDecimal(amount),
+                "Операция", categoryId, date);
+    }
+
+    private static Operation operation(UUID id, UUID bankAccountId, UUID categoryId, String amount,
+                                       LocalDateTime date) {
+        return new Operation(id, CategoryType.INCOME, bankAccountId, new BigDecimal(amount),
+                "Операция", categoryId, date);
+    }
+
+    private static List<UUID> ids(List<Operation> operations) {
+        return operations.stream().map(Operation::getId).toList();
+    }
+}
@@ -0,0 +1,317 @@
+package ru.hse.bank.journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hse.bank.dataimport.BinaryDataImporter;
+import ru.hse.bank.export.OperationSnapshotWriter;
+import ru.hse.bank.facade.BankAccountFacade;
+import ru.hse.bank.facade.CategoryFacade;
+import ru.hse.bank.facade.OperationFacade;
+import ru.hse.bank.facade.PostingResult;
+import ru.hse.bank.factory.DomainFactory;
+import ru.hse.bank.model.BankAccount;
+import ru.hse.bank.model.Category;
+import ru.hse.bank.model.CategoryType;
+import ru.hse.bank.model.Operation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileChangeJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path journalFile;
+    private BankAccountFacade bankAccountFacade;
+    private CategoryFacade categoryFacade;
+    private OperationFacade operationFacade;
+
+    @BeforeEach
+    void setUp() {
+        journalFile = tempDir.resolve("hse-bank.journal");
+        createFacades();
+    }
+
+    @Test
+    void recover_ShouldReplayJournaledChanges() throws IOException {
+
+        FileChangeJournal journal = recover();
+        BankAccount account = bankAccountFacade.createAccount("Счет", new BigDecimal("1000.00"));
+        Category category = categoryFacade.createCategory("Продукты", CategoryType.EXPENSE);
+        Operation kept = operationFacade.createOperation(CategoryType.EXPENSE, account.getId(),
+                new BigDecimal("300.00"), "Магазин", category.getId());
+        Operation cancelled = operationFacade.createOperation(CategoryType.INCOME, account.getId(),
+                new BigDecimal("50.00"), "Возврат", null);
+        operationFacade.deleteOperation(cancelled.getId());
+        Operation loaded = new Operation(UUID.randomUUID(), CategoryType.INCOME, account.getId(),
+                new BigDecimal("10.00"), "Из снимка", null, LocalDateTime.of(2020, 1, 1, 0, 0));
+        operationFacade.loadOperations(List.of(loaded));
+        journal.close();
+
+
+        createFacades();
+        FileChangeJournal recovered = recover();
+
+
+        assertEquals(6, recovered.getRecoveredRecords());
+        BankAccount restoredAccount = bankAccountFacade.getAccount(account.getId());
+        assertEquals(new BigDecimal("700.00"), restoredAccount.getBalance());
+        assertEquals("Продукты", categoryFacade.getCategory(category.getId()).getName());
+        Operation restored = operationFacade.getOperation(kept.getId());
+        assertEquals(kept.getDate(), restored.getDate());
+        assertEquals("Магазин", restored.getDescription());
+        assertNull(operationFacade.getOperation(cancelled.getId()));
+        assertNotNull(operationFacade.getOperation(loaded.getId()));
+        assertEquals(new BigDecimal("300.00"),
+                operationFacade.getCategoryTotals().get(category.getId()).getExpenseSum());
+        recovered.close();
+    }
+
+    @Test
+    void postOperations_ShouldIndexAndJournalPostedOperationsOfTheBatch() throws IOException {
+
+        FileChangeJournal journal = recover();
+        BankAccount first = bankAccountFacade.createAccount("Первый", new BigDecimal("100.00"));
+        BankAccount second = bankAccountFacade.createAccount("Второй", BigDecimal.ZERO);
+        Category category = categoryFacade.createCategory("Продукты", CategoryType.EXPENSE);
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 12, 0);
+        Operation purchase = new Operation(UUID.randomUUID(), CategoryType.EXPENSE, first.getId(),
+                new BigDecimal("60.00"), "Магазин", category.getId(), date);
+        Operation overdraft = new Operation(UUID.randomUUID(), CategoryType.EXPENSE, second.getId(),
+                new BigDecimal("1.00"), "Магазин", category.getId(), date.plusMinutes(1));
+        Operation salary = new Operation(UUID.randomUUID(), CategoryType.INCOME, second.getId(),
+                new BigDecimal("500.00"), "Зарплата", null, date.plusMinutes(2));
+        Operation refund = new Operation(UUID.randomUUID(), CategoryType.EXPENSE, first.getId(),
+                new BigDecimal("40.00"), "Магазин", category.getId(), date.plusMinutes(3));
+
+
+        List<PostingResult> results = operationFacade.postOperations(
+                List.of(purchase, overdraft, salary, refund));
+        journal.close();
+        createFacades();
+        FileChangeJournal recovered = recover();
+
+
+        assertEquals(List.of(true, false, true, true),
+                results.stream().map(PostingResult::isPosted).toList());
+        assertEquals(6, recovered.getRecoveredRecords());
+        assertEquals(BigDecimal.ZERO.setScale(2),
+                bankAccountFacade.getAccount(first.getId()).getBalance());
+        assertEquals(new BigDecimal("500.00"),
+                bankAccountFacade.getAccount(second.getId()).getBalance());
+        assertNull(operationFacade.getOperation(overdraft.getId()));
+        assertEquals(List.of(purchase.getId(), salary.getId(), refund.getId()),
+                operationFacade.getOperationsByPeriod(date.minusDays(1), date.plusDays(1)).stream()
+                        .map(Operation::getId).toList());
+        assertEquals(2, operationFacade.getOperationsByCategory(category.getId()).size());
+        assertEquals(new BigDecimal("100.00"),
+                operationFacade.getCategoryTotals().get(category.getId()).getExpenseSum());
+        recovered.close();
+    }
+
+    @Test
+    void recover_TornLastRecord_ShouldDiscardItAndContinueAppending() throws IOException {
+
+        FileChangeJournal journal = recover();
+        BankAccount first = bankAccountFacade.createAccount("Первый", BigDecimal.TEN);
+        bankAccountFacade.createAccount("Второй", BigDecimal.ONE);
+        journal.close();
+        byte[] bytes = Files.readAllBytes(journalFile);
+        Files.write(journalFile, Arrays.copyOf(bytes, bytes.length - 5));
+
+
+        createFacades();
+        FileChangeJournal recovered = recover();
+        BankAccount third = bankAccountFacade.createAccount("Третий", BigDecimal.ONE);
+        recovered.close();
+        createFacades();
+        recover().close();
+
+
+        assertEquals(1, recovered.getRecoveredRecords());
+        assertEquals(2, bankAccountFacade.getAllAccounts().size());
+        assertNotNull(bankAccountFacade.getAccount(first.getId()));
+        assertNotNull(bankAccountFacade.getAccount(third.getId()));
+    }
+
+    @Test
+    void recover_CorruptedMiddleRecord_ShouldFailAndKeepFile() throws IOException {
+
+        FileChangeJournal journal = recover();
+        bankAccountFacade.createAccount("Первый", BigDecimal.TEN);
+        bankAccountFacade.createAccount("Второй", BigDecimal.ONE);
+        bankAccountFacade.createAccount("Третий", BigDecimal.ONE);
+        journal.close();
+        byte[] bytes = Files.readAllBytes(journalFile);
+        int second = 24 + 8 + ByteBuffer.wrap(bytes).getInt(24);
+        bytes[second + 8 + 1] ^= 1;
+        Files.write(journalFile, bytes);
+
+
+        createFacades();
+        IOException exception = assertThrows(IOException.class, this::recover);
+
+
+        assertTrue(exception.getMessage().contains(String.valueOf(second)));
+        assertArrayEquals(bytes, Files.readAllBytes(journalFile));
+    }
+
+    @Test
+    void recover_ZeroFilledTail_ShouldDiscardIt() throws IOException {
+
+        FileChangeJournal journal = recover();
+        BankAccount account = bankAccountFacade.createAccount("Счет", BigDecimal.TEN);
+        journal.close();
+        byte[] bytes = Files.readAllBytes(journalFile);
+        Files.write(journalFile, Arrays.copyOf(bytes, bytes.length + 4096));
+
+
+        createFacades();
+        FileChangeJournal recovered = recover();
+        recovered.close();
+
+
+        assertEquals(1, recovered.getRecoveredRecords());
+        assertNotNull(bankAccountFacade.getAccount(account.getId()));
+        assertEquals(bytes.length, Files.size(journalFile));
+    }
+
+    @Test
+    void createOperation_ConcurrentThreads_ShouldShareSyncs() throws Exception {
+
+        FileChangeJournal journal = recover();
+        int threads = 8;
+        int operationsPerThread = 200;
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            accounts.add(bankAccountFacade.createAccount("Счет " + i, BigDecimal.ZERO));
+        }
+        long syncsBefore = journal.getSyncs();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+
+        for (BankAccount account : accounts) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < operationsPerThread; i++) {
+                    operationFacade.createOperation(CategoryType.INCOME, account.getId(),
+                            BigDecimal.ONE, "Пополнение", null);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        long syncs = journal.getSyncs() - syncsBefore;
+        journal.close();
+        createFacades();
+        FileChangeJournal recovered = recover();
+
+
+        assertTrue(syncs < (long) threads * operationsPerThread);
+        assertEquals(threads + threads * operationsPerThread, recovered.getRecoveredRecords());
+        for (BankAccount account : accounts) {
+            assertEquals(new BigDecimal(operationsPerThread),
+                    bankAccountFacade.getAccount(account.getId()).getBalance());
+        }
+        recovered.close();
+    }
+
+    @Test
+    void recover_OpenedSnapshot_ShouldReattachItAndReplayDeletionsOfItsOperations()
+            throws IOException {
+
+        BankAccount account = new BankAccount(UUID.randomUUID(), "Счет", new BigDecimal("1400.00"));
+        Operation salary = snapshotOperation(account.getId(), CategoryType.INCOME, "500.00");
+        Operation purchase = snapshotOperation(account.getId(), CategoryType.EXPENSE, "100.00");
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(account), List.of(),
+                List.of(salary, purchase));
+        FileChangeJournal journal = recover();
+        new BinaryDataImporter(bankAccountFacade, categoryFacade, operationFacade)
+                .openSnapshot(snapshotFile);
+        operationFacade.deleteOperation(salary.getId());
+        journal.close();
+
+
+        createFacades();
+        FileChangeJournal recovered = recover();
+
+
+        assertEquals(3, recovered.getRecoveredRecords());
+        assertEquals(new BigDecimal("900.00"),
+                bankAccountFacade.getAccount(account.getId()).getBalance());
+        assertNull(operationFacade.getOperation(salary.getId()));
+        assertEquals(List.of(purchase.getId()), operationFacade.getOperationsByAccount(account.getId())
+                .stream().map(Operation::getId).toList());
+        recovered.close();
+    }
+
+    @Test
+    void recover_DeletedOperationMissingFromReplacedSnapshot_ShouldThrowException()
+            throws IOException {
+
+        BankAccount account = new BankAccount(UUID.randomUUID(), "Счет", new BigDecimal("500.00"));
+        Operation salary = snapshotOperation(account.getId(), CategoryType.INCOME, "500.00");
+        Path snapshotFile = tempDir.resolve("operations.ops");
+        new OperationSnapshotWriter().write(snapshotFile, List.of(account), List.of(),
+                List.of(salary));
+        FileChangeJournal journal = recover();
+        new BinaryDataImporter(bankAccountFacade, categoryFacade, operationFacade)
+                .openSnapshot(snapshotFile);
+        operationFacade.deleteOperation(salary.getId());
+        journal.close();
+        new OperationSnapshotWriter().write(snapshotFile, List.of(account), List.of(),
+                List.of(snapshotOperation(account.getId(), CategoryType.INCOME, "500.00")));
+
+
+        createFacades();
+
+
+        IOException exception = assertThrows(IOException.class, this::recover);
+        assertTrue(exception.getMessage().contains(salary.getId().toString()));
+    }
+
+    @Test
+    void recover_NotAJournal_ShouldThrowException() throws IOException {
+
+        Files.writeString(journalFile, "{\"accounts\":[]}");
+
+
+        assertThrows(IOException.class, this::recover);
+    }
+
+    private void createFacades() {
+        DomainFactory domainFactory = new DomainFactory();
+        bankAccountFacade = new BankAccountFacade(domainFactory);
+        categoryFacade = new CategoryFacade(domainFactory);
+        operationFacade = new OperationFacade(domainFactory, bankAccountFacade);
+    }
+
+    private static Operation snapshotOperation(final UUID bankAccountId, final CategoryType type,
+                                               final String amount) {
+        return new Operation(UUID.randomUUID(), type, bankAccountId, new BigDecimal(amount),
+                "Из снимка", null, LocalDateTime.of(2020, 1, 1, 0, 0));
+    }
+
+    private FileChangeJournal recover() throws IOException {
+        return FileChangeJournal.recover(journalFile, bankAccountFacade, categoryFacade,
+                operationFacade);
+    }
+}
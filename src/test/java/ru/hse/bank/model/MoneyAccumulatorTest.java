@@ -0,0 +1,80 @@
+package ru.hse.bank.model;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyAccumulatorTest {
+
+    @Test
+    void defaultConstructorShouldHoldZero() {
+
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+
+
+        assertEquals(BigDecimal.ZERO, accumulator.toBigDecimal());
+        assertEquals(0, accumulator.signum());
+    }
+
+    @Test
+    void addShouldKeepLargerScaleLikeBigDecimal() {
+
+        MoneyAccumulator accumulator = new MoneyAccumulator(new BigDecimal("10"));
+
+
+        accumulator.add(operation("0.50"));
+        accumulator.subtract(operation("1.125"));
+
+
+        BigDecimal expected = new BigDecimal("10").add(new BigDecimal("0.50"))
+                .subtract(new BigDecimal("1.125"));
+        assertEquals(expected, accumulator.toBigDecimal());
+    }
+
+    @Test
+    void addShouldFallBackToBigDecimalOnOverflow() {
+
+        MoneyAccumulator accumulator = new MoneyAccumulator(BigDecimal.valueOf(Long.MAX_VALUE));
+
+
+        accumulator.add(operation("1"));
+        accumulator.add(new BigDecimal("123456789012345678901234567890.01"));
+
+
+        BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE)
+                .add(new BigDecimal("123456789012345678901234567890.01"));
+        assertEquals(expected, accumulator.toBigDecimal());
+        assertEquals(1, accumulator.signum());
+    }
+
+    @Test
+    void addIfNonNegativeShouldLeaveValueUnchangedWhenResultIsNegative() {
+
+        MoneyAccumulator accumulator = new MoneyAccumulator(new BigDecimal("10.00"));
+
+
+        boolean applied = accumulator.addIfNonNegative(operation("10.01"), true);
+
+
+        assertFalse(applied);
+        assertEquals(new BigDecimal("10.00"), accumulator.toBigDecimal());
+        assertTrue(accumulator.addIfNonNegative(operation("10"), true));
+        assertEquals(new BigDecimal("0.00"), accumulator.toBigDecimal());
+    }
+
+    @Test
+    void compareAmountsShouldCompareAcrossScales() {
+
+        assertTrue(MoneyAccumulator.compareAmounts(operation("1.5"), operation("1.49")) > 0);
+        assertEquals(0, MoneyAccumulator.compareAmounts(operation("2.0"), operation("2")));
+        assertTrue(MoneyAccumulator.compareAmounts(
+                operation("99999999999999999999999"), operation("1.5")) > 0);
+    }
+
+    private static Operation operation(String amount) {
+        return Operation.builder()
+                .type(CategoryType.INCOME)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
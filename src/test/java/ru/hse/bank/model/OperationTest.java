@@ -109,4 +109,48 @@ class OperationTest {
         assertEquals(categoryId, operation.getCategoryId());
         assertEquals(date, operation.getDate());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void compactAmountShouldBeReadableWithoutBigDecimal() {
+
+        Operation operation = new Operation();
+
+
+        operation.setAmount(new BigDecimal("-12.345"));
+
+
+        assertTrue(operation.hasCompactAmount());
+        assertTrue(operation.hasAmount());
+        assertEquals(-12345L, operation.amountUnits());
+        assertEquals(3, operation.amountScale());
+        assertEquals(-1, operation.amountSignum());
+    }
+
+    @Test
+    void amountOutsideLongRangeShouldNotBeCompact() {
+
+        Operation operation = new Operation();
+        BigDecimal amount = new BigDecimal("123456789012345678901234567890.12");
+
+
+        operation.setAmount(amount);
+
+
+        assertFalse(operation.hasCompactAmount());
+        assertEquals(amount, operation.getAmount());
+        assertEquals(1, operation.amountSignum());
+    }
+
+    @Test
+    void missingAmountShouldBeReported() {
+
+        Operation operation = new Operation();
+
+
+        boolean hasAmount = operation.hasAmount();
+
+
+        assertFalse(hasAmount);
+        assertNull(operation.getAmount());
+    }
+}